@@ -0,0 +1,62 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Tax#calculateTax()} across every region and rate step, and {@link Bank#calculateInterest()}
+ * across the account types it distinguishes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountAndTaxBenchmark {
+
+    @Param({"UK", "US", "EU"})
+    public Tax.TaxRegion region;
+
+    @Param({"30000", "75000", "150000"})
+    public String income;
+
+    @Param({"SAVINGS", "CHECKING", "BUSINESS"})
+    public Bank.AccountType accountType;
+
+    private Tax tax;
+    private Bank bank;
+
+    @Setup
+    public void setUp() {
+        tax = new Tax(new BigDecimal(income), region, 2, true, Tax.FilingStatus.SINGLE,
+                List.of(new Tax.TaxDeduction("Pension", new BigDecimal("2000"), true)), false);
+        bank = new Bank("12345678", "HSBC", new BigDecimal("25000.00"), accountType, "40-11-62",
+                new Bank.CreditScore(720, "Good"), LocalDate.now().minusYears(3),
+                new Bank.AccountHolder("Jane Doe", "1973-01-01", "British"));
+    }
+
+    @Benchmark
+    public BigDecimal calculateTax() {
+        return tax.calculateTax();
+    }
+
+    @Benchmark
+    public BigDecimal calculateInterest() {
+        return bank.calculateInterest();
+    }
+}
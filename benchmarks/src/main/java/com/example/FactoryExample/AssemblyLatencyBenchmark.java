@@ -0,0 +1,69 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of building one Opportunity against stub lookups of 2ms with a 1% tail of
+ * 50ms, sequentially versus through {@link OpportunityAssembler}. Read the p0.99 and p0.999 rows.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class AssemblyLatencyBenchmark {
+
+    private final BigDecimal salary = new BigDecimal("60000");
+    private final Person person = Fixtures.person(45);
+    private final Job job = Fixtures.job(salary, 8);
+    private final Bank bank = Fixtures.bank(new BigDecimal("1000.00"));
+    private final Tax tax = Fixtures.tax(salary, 1);
+    private final Insurance insurance = Fixtures.insurance();
+
+    private StubLookupProvider provider;
+    private ExecutorService executor;
+    private OpportunityAssembler assembler;
+
+    @Setup
+    public void setUp() {
+        provider = new StubLookupProvider(Duration.ofMillis(2), Duration.ofMillis(50), 0.01);
+        executor = OpportunityAssembler.defaultExecutor();
+        assembler = new OpportunityAssembler(provider, provider, executor, Duration.ofSeconds(1),
+                Duration.ofSeconds(1), 256);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public Opportunity sequential() {
+        String ni = person.getNationalInsuranceNumber();
+        return new Opportunity(person, job, bank, tax, insurance, provider.fetchCreditHistory(ni),
+                provider.fetchEmploymentVerification(ni));
+    }
+
+    @Benchmark
+    public Opportunity assembled() {
+        return assembler.assemble(person, job, bank, tax, insurance).join();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random account lookups: {@code HashMap<String, Bank>} keyed by sort code and account number
+ * versus {@link BankDirectory} on and off heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx6g"})
+@State(Scope.Benchmark)
+public class BankDirectoryBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"100000", "5000000"})
+    public int size;
+
+    private Map<String, Bank> map;
+    private BankDirectory onHeap;
+    private BankDirectory offHeap;
+    private String[] sortCodes;
+    private String[] accountNumbers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        Bank.CreditScore creditScore = Bank.CreditScore.of(700, "Good");
+        Bank.AccountHolder holder = Bank.AccountHolder.of("", "", "");
+        LocalDate opened = LocalDate.now().minusYears(1);
+        BigDecimal balance = new BigDecimal("500");
+        BankDirectory.Builder heapBuilder = BankDirectory.builder(size);
+        BankDirectory.Builder offHeapBuilder = BankDirectory.builder(size).offHeap(true);
+        map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String sortCode = String.format("%02d-%02d-%02d", i % 100, (i / 100) % 100, (i / 10_000) % 100);
+            String accountNumber = String.format("%08d", i);
+            Bank bank = new Bank(accountNumber, "Barclays", balance, Bank.AccountType.CHECKING, sortCode,
+                    creditScore, opened, holder);
+            heapBuilder.add(bank);
+            offHeapBuilder.add(bank);
+            map.put(sortCode + accountNumber, bank);
+        }
+        onHeap = heapBuilder.build();
+        offHeap = offHeapBuilder.build();
+
+        sortCodes = new String[LOOKUPS];
+        accountNumbers = new String[LOOKUPS];
+        for (int n = 0; n < LOOKUPS; n++) {
+            int i = random.nextInt(size);
+            sortCodes[n] = String.format("%02d-%02d-%02d", i % 100, (i / 100) % 100, (i / 10_000) % 100);
+            accountNumbers[n] = String.format("%08d", i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int hashMap() {
+        int found = 0;
+        for (int n = 0; n < LOOKUPS; n++) {
+            // The key is built per request, as it would be from incoming fields
+            if (map.get(sortCodes[n] + accountNumbers[n]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int directoryOnHeap() {
+        int found = 0;
+        for (int n = 0; n < LOOKUPS; n++) {
+            if (onHeap.get(sortCodes[n], accountNumbers[n]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int directoryOffHeap() {
+        int found = 0;
+        for (int n = 0; n < LOOKUPS; n++) {
+            if (offHeap.get(sortCodes[n], accountNumbers[n]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
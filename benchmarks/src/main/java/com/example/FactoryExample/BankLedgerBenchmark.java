@@ -0,0 +1,92 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent deposits and withdrawals spread over {@code accounts} accounts: the {@link BankLedger}
+ * CAS counters versus swapping in a rebuilt immutable Bank per update. Fewer accounts means more
+ * contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class BankLedgerBenchmark {
+
+    @Param({"1", "64", "4096"})
+    public int accounts;
+
+    private long[] keys;
+    private BankLedger ledger;
+    private AtomicReferenceArray<Bank> banks;
+
+    @State(Scope.Thread)
+    public static class Payments {
+        private final SplittableRandom random = new SplittableRandom();
+
+        int account(int accounts) {
+            return random.nextInt(accounts);
+        }
+
+        long delta() {
+            // Small deposits and withdrawals around zero keep every balance within the Bank limits
+            return random.nextInt(2_001) - 1_000;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        BankDirectory.Builder builder = BankDirectory.builder(accounts);
+        keys = new long[accounts];
+        banks = new AtomicReferenceArray<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            Bank bank = new Bank(String.format("%08d", i), "Barclays", new BigDecimal("10000.00"),
+                    Bank.AccountType.CHECKING, "12-34-56", Bank.CreditScore.of(700, "Good"),
+                    LocalDate.now().minusYears(1), Bank.AccountHolder.of("", "", ""));
+            builder.add(bank);
+            keys[i] = BankDirectory.key(bank);
+            banks.set(i, bank);
+        }
+        ledger = new BankLedger(builder.build());
+    }
+
+    @Benchmark
+    public boolean ledger(Payments payments) {
+        return ledger.tryAdjust(keys[payments.account(accounts)], payments.delta());
+    }
+
+    @Benchmark
+    public Bank rebuildBank(Payments payments) {
+        int account = payments.account(accounts);
+        BigDecimal delta = BigDecimal.valueOf(payments.delta(), 2);
+        while (true) {
+            Bank current = banks.get(account);
+            Bank updated = new Bank(current.getAccountNumber(), current.getBankName(),
+                    current.getBalance().add(delta), current.getAccountType(), current.getSortCode(),
+                    current.getCreditScore(), current.getAccountOpenDate(), current.getAccountHolder());
+            if (banks.compareAndSet(account, current, updated)) {
+                return updated;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job title checks against catalogues of growing size: a scan of the title list, as the constructor
+ * used to do, against the compiled {@link Catalogue}. Three in four probes are catalogued titles,
+ * copied so no lookup can succeed on reference equality alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CatalogueBenchmark {
+
+    private static final int PROBES = 256;
+
+    @Param({"10", "1000", "10000"})
+    public int size;
+
+    private List<String> titles;
+    private Catalogue catalogue;
+    private String[] probes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        titles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            titles.add("Senior Engineer " + i + " " + Long.toString(random.nextLong() >>> 1, 36));
+        }
+        catalogue = Catalogue.builder().titles(titles).bank("Barclays").build();
+        probes = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = random.nextInt(4) == 0 ? "Senior Engineer " + i + " unknown"
+                    : new String(titles.get(random.nextInt(size)).toCharArray());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int listScan() {
+        int found = 0;
+        for (String probe : probes) {
+            if (titles.contains(probe)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int catalogue() {
+        int found = 0;
+        for (String probe : probes) {
+            if (catalogue.titleId(probe) >= 0) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the full validating constructors, with every argument prepared up front so only the
+ * constructor's own checks and allocations are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConstructionBenchmark {
+
+    private Person.Address address;
+    private BigDecimal salary;
+    private BigDecimal balance;
+    private Job.Department department;
+    private Job.Contract contract;
+    private LocalDate startDate;
+    private Bank.CreditScore creditScore;
+    private Bank.AccountHolder accountHolder;
+    private List<Tax.TaxDeduction> deductions;
+    private Person person;
+    private Job job;
+    private Bank bank;
+    private Tax tax;
+    private Insurance insurance;
+    private Opportunity.CreditHistory creditHistory;
+    private Opportunity.EmploymentVerification employmentVerification;
+    private Opportunity opportunity;
+    private BigDecimal newSalary;
+
+    @Setup
+    public void setUp() {
+        address = Fixtures.address();
+        salary = new BigDecimal("75000.00");
+        balance = new BigDecimal("1000.00");
+        department = new Job.Department("Engineering", "ENG");
+        contract = new Job.Contract(24, true);
+        startDate = LocalDate.now().minusYears(5);
+        creditScore = new Bank.CreditScore(700, "Good");
+        accountHolder = new Bank.AccountHolder("Jane Doe", "1973-01-01", "British");
+        deductions = List.of(new Tax.TaxDeduction("Pension", new BigDecimal("2000"), true));
+        person = Fixtures.person(35);
+        job = Fixtures.job(salary, 8);
+        bank = Fixtures.bank(balance);
+        tax = Fixtures.tax(salary, 1);
+        insurance = Fixtures.insurance();
+        creditHistory = Fixtures.creditHistory();
+        employmentVerification = Fixtures.employmentVerification();
+        opportunity = opportunity();
+        newSalary = new BigDecimal("82000.00");
+    }
+
+    @Benchmark
+    public Person person() {
+        return new Person("Jane", "Doe", 35, "jane@example.com", "+441234567890", "AB123456C", address);
+    }
+
+    @Benchmark
+    public Bank bank() {
+        return new Bank("12345678", "Barclays", balance, Bank.AccountType.SAVINGS, "12-34-56",
+                creditScore, startDate, accountHolder);
+    }
+
+    @Benchmark
+    public Job job() {
+        return new Job("Senior Software Engineer", "TechCorp", salary, 8, Job.EmploymentType.FULL_TIME,
+                department, startDate, contract);
+    }
+
+    @Benchmark
+    public Tax tax() {
+        return new Tax(salary, Tax.TaxRegion.UK, 1, true, Tax.FilingStatus.SINGLE, deductions, false);
+    }
+
+    @Benchmark
+    public Opportunity opportunity() {
+        return new Opportunity(person, job, bank, tax, insurance, creditHistory, employmentVerification);
+    }
+
+    @Benchmark
+    public Opportunity rebuildWithSalary() {
+        Job changed = new Job("Senior Software Engineer", "TechCorp", newSalary, 8, Job.EmploymentType.FULL_TIME,
+                department, startDate, contract);
+        return new Opportunity(person, changed, bank, tax, insurance, creditHistory, employmentVerification);
+    }
+
+    @Benchmark
+    public Opportunity deriveWithSalary() {
+        return opportunity.withSalary(newSalary);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.FactoryExample;
+
+import com.example.FactoryExample.EligibilityIndex.Predicate;
+import com.example.FactoryExample.EligibilityIndex.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Qualifies for a mortgage, under 40, senior and above the minimum balance" over a million
+ * opportunities, answered by walking the objects and by the eligibility bitmaps.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class EligibilityIndexBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    private List<Opportunity> portfolio;
+    private EligibilityIndex index;
+    private Query query;
+
+    @Setup
+    public void setUp() {
+        portfolio = Fixtures.portfolio(SIZE, 42);
+        index = new EligibilityIndex(portfolio);
+        query = Query.qualifiesForMortgage().and(Query.ageBelow(40)).and(Query.is(Predicate.SENIOR))
+                .and(Query.is(Predicate.MINIMUM_BALANCE));
+        for (Opportunity opportunity : portfolio) {
+            // Warm the cached assessments, so the scan measures lookups rather than calculation
+            opportunity.qualifiesForMortgage();
+        }
+    }
+
+    @Benchmark
+    public int objectScan() {
+        int count = 0;
+        for (Opportunity opportunity : portfolio) {
+            if (opportunity.qualifiesForMortgage() && opportunity.getPerson().getAge() < 40
+                    && opportunity.getJob().isSenior() && opportunity.getBank().hasMinimumBalance()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int bitmapQuery() {
+        return index.count(query);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.FactoryExample;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared, fully-populated object graphs for the benchmarks.
+ */
+final class Fixtures {
+
+    private static final String[] TITLES = {
+            "Software Engineer", "Senior Software Engineer", "Lead Engineer", "Engineering Manager", "Data Analyst"
+    };
+    private static final int[] TITLE_MIN_EXPERIENCE = {0, 5, 8, 10, 0};
+
+    private Fixtures() {
+    }
+
+    static Person.Address address() {
+        return new Person.Address("123 Main Street", "London", "SW1A 1AA", "UK");
+    }
+
+    static Person person(int age) {
+        return new Person("Jane", "Doe", age, "jane@example.com", "+441234567890", "AB123456C", address());
+    }
+
+    static Job job(BigDecimal salary, int yearsExperience) {
+        return new Job("Senior Software Engineer", "TechCorp", salary, yearsExperience,
+                Job.EmploymentType.FULL_TIME, new Job.Department("Engineering", "ENG"),
+                LocalDate.now().minusYears(5), new Job.Contract(24, true));
+    }
+
+    static Bank bank(BigDecimal balance) {
+        return new Bank("12345678", "Barclays", balance, Bank.AccountType.SAVINGS, "12-34-56",
+                new Bank.CreditScore(700, "Good"), LocalDate.now().minusYears(5),
+                new Bank.AccountHolder("Jane Doe", "1973-01-01", "British"));
+    }
+
+    static Tax tax(BigDecimal income, int dependents) {
+        return new Tax(income, Tax.TaxRegion.UK, dependents, true, Tax.FilingStatus.SINGLE,
+                List.of(new Tax.TaxDeduction("Pension", new BigDecimal("2000"), true)), false);
+    }
+
+    static Insurance insurance() {
+        return new Insurance(Insurance.InsuranceType.BASIC, new BigDecimal("100"), true);
+    }
+
+    static Opportunity.CreditHistory creditHistory() {
+        return new Opportunity.CreditHistory(false, 0, LocalDate.now());
+    }
+
+    static Opportunity.EmploymentVerification employmentVerification() {
+        return new Opportunity.EmploymentVerification(true, LocalDate.now(), "Standard");
+    }
+
+    static Opportunity opportunity(BigDecimal salary, int age) {
+        return new Opportunity(person(age), job(salary, 8), bank(new BigDecimal("1000.00")), tax(salary, 1),
+                insurance(), creditHistory(), employmentVerification());
+    }
+
+    /**
+     * {@code opportunity} with a National Insurance number unique to {@code index}, for stores keyed on it.
+     */
+    static Opportunity keyed(Opportunity opportunity, int index) {
+        Person person = opportunity.getPerson();
+        String ni = "A" + (char) ('A' + index / 1_000_000 % 26) + String.format("%06d", index % 1_000_000) + "C";
+        return opportunity.withPerson(new Person(person.getFirstName(), person.getLastName(), person.getAge(),
+                person.getEmail(), person.getPhoneNumber(), ni, person.getAddress()));
+    }
+
+    /**
+     * A reproducible portfolio spread over the whole Job salary range, all age branches and seniority levels.
+     */
+    static List<Opportunity> portfolio(int size, long seed) {
+        Random random = new Random(seed);
+        List<Opportunity> portfolio = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BigDecimal salary = BigDecimal.valueOf(1_800_000 + random.nextInt(48_200_001), 2);
+            int title = random.nextInt(TITLES.length);
+            int yearsExperience = TITLE_MIN_EXPERIENCE[title] + random.nextInt(10);
+            Job job = new Job(TITLES[title], "TechCorp", salary, yearsExperience, Job.EmploymentType.FULL_TIME,
+                    new Job.Department("Engineering", "ENG"), LocalDate.now().minusYears(2), new Job.Contract(24, true));
+            Bank bank = bank(BigDecimal.valueOf(random.nextInt(1_000_000) - 10_000, 2).max(BigDecimal.ZERO));
+            Tax tax = new Tax(salary, "UK", random.nextInt(4));
+            portfolio.add(new Opportunity(person(18 + random.nextInt(60)), job, bank, tax, insurance(),
+                    creditHistory(), employmentVerification()));
+        }
+        return portfolio;
+    }
+}
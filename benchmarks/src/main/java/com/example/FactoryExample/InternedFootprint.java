@@ -0,0 +1,94 @@
+package com.example.FactoryExample;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Retained heap of a synthetic portfolio whose value objects are created fresh versus through the
+ * canonicalising {@code of(...)} factories. Not a JMH suite; run it directly:
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.FactoryExample.InternedFootprint [size]
+ * </pre>
+ */
+public final class InternedFootprint {
+
+    private static final String[] DEPARTMENTS = {"General", "Engineering", "Finance", "Sales"};
+    private static final String[] CODES = {"GEN", "ENG", "FIN", "SAL"};
+    private static final String[] RATINGS = {"Poor", "Fair", "Good", "Very Good", "Excellent"};
+
+    private InternedFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long fresh = retained(size, seed -> build(size, seed, false));
+        long interned = retained(size, seed -> build(size, seed, true));
+        System.out.printf("portfolio size:      %,d%n", size);
+        System.out.printf("fresh value objects: %,d bytes (%.1f per opportunity)%n", fresh, (double) fresh / size);
+        System.out.printf("interned:            %,d bytes (%.1f per opportunity)%n", interned,
+                (double) interned / size);
+        System.out.printf("reduction:           %.1f%%%n", 100.0 * (fresh - interned) / fresh);
+    }
+
+    private static long retained(int size, IntFunction<List<Opportunity>> builder) {
+        long before = usedAfterGc();
+        List<Opportunity> portfolio = builder.apply(42);
+        long after = usedAfterGc();
+        if (portfolio.size() != size) {
+            throw new IllegalStateException("Unexpected portfolio size");
+        }
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static List<Opportunity> build(int size, int seed, boolean interned) {
+        Random random = new Random(seed);
+        LocalDate started = LocalDate.now().minusYears(2);
+        BigDecimal insuranceCost = new BigDecimal("100");
+        Opportunity.CreditHistory creditHistory = Fixtures.creditHistory();
+        Opportunity.EmploymentVerification verification = Fixtures.employmentVerification();
+        List<Opportunity> portfolio = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int department = random.nextInt(DEPARTMENTS.length);
+            int months = 12 * (1 + random.nextInt(3));
+            int score = 600 + random.nextInt(200);
+            String rating = RATINGS[random.nextInt(RATINGS.length)];
+            BigDecimal salary = BigDecimal.valueOf(30_000 + random.nextInt(100_000));
+
+            Person.Address address = interned ? Person.Address.of("", "", "", "")
+                    : new Person.Address("", "", "", "");
+            Job.Department dept = interned ? Job.Department.of(DEPARTMENTS[department], CODES[department])
+                    : new Job.Department(DEPARTMENTS[department], CODES[department]);
+            Job.Contract contract = interned ? Job.Contract.of(months, true) : new Job.Contract(months, true);
+            Bank.CreditScore creditScore = interned ? Bank.CreditScore.of(score, rating)
+                    : new Bank.CreditScore(score, rating);
+            Bank.AccountHolder holder = interned ? Bank.AccountHolder.of("", "", "")
+                    : new Bank.AccountHolder("", "", "");
+            Insurance insurance = interned ? Insurance.of(Insurance.InsuranceType.BASIC, insuranceCost, true)
+                    : new Insurance(Insurance.InsuranceType.BASIC, insuranceCost, true);
+
+            Person person = new Person("Jane", "Doe", 30 + random.nextInt(30), null, null, "AB123456C",
+                    address);
+            Job job = new Job("Software Engineer", "TechCorp", salary, 5, Job.EmploymentType.FULL_TIME, dept,
+                    started, contract);
+            Bank bank = new Bank("12345678", "Barclays", BigDecimal.ONE, Bank.AccountType.CHECKING, "12-34-56",
+                    creditScore, started, holder);
+            Tax tax = new Tax(salary, "UK", 0);
+            portfolio.add(new Opportunity(person, job, bank, tax, insurance, creditHistory, verification));
+        }
+        return portfolio;
+    }
+}
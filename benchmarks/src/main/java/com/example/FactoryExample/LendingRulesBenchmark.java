@@ -0,0 +1,104 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mortgage qualification and the constructor's eligibility checks through {@link LendingRules},
+ * against the same criteria hard-coded in declaration order, as {@link Opportunity} had them. The
+ * applicants are mostly turned away by the last declared check: retirement age for qualification,
+ * inactive insurance for the constructor. Setup puts a fresh copy of the standard rules in force and
+ * runs the applicants through it, so the measurement sees the order it has learned.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LendingRulesBenchmark {
+
+    private static final int APPLICANTS = 1024;
+    private static final BigDecimal MINIMUM_SALARY = new BigDecimal("20000");
+    private static final BigDecimal DEFAULTS_MINIMUM_SALARY = new BigDecimal("30000");
+
+    private Person[] people;
+    private Job job;
+    private Bank bank;
+    private Insurance inactive;
+    private Opportunity.CreditHistory creditHistory;
+    private Opportunity.EmploymentVerification verification;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        LendingRules.setCurrent(LendingRules.builder(LendingRules.STANDARD).build());
+        people = new Person[APPLICANTS];
+        for (int i = 0; i < APPLICANTS; i++) {
+            // Nine in ten past retirement age
+            people[i] = Fixtures.person(i % 10 == 0 ? 40 : 70 + i % 30);
+        }
+        job = Fixtures.job(new BigDecimal("45000"), 5);
+        bank = Fixtures.bank(new BigDecimal("5000"));
+        inactive = new Insurance(Insurance.InsuranceType.BASIC, new BigDecimal("100"), false);
+        creditHistory = Fixtures.creditHistory();
+        verification = Fixtures.employmentVerification();
+        LendingRules rules = LendingRules.current();
+        for (int i = 0; i < 4 * LendingRules.REORDER_INTERVAL; i++) {
+            rules.qualifiesForMortgage(people[i % APPLICANTS], job, bank);
+            LendingRules.firstViolations(people[i % APPLICANTS], job, inactive, creditHistory, verification);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        LendingRules.setCurrent(LendingRules.STANDARD);
+    }
+
+    @Benchmark
+    public boolean qualifiesHardCoded() {
+        Person person = people[next++ & (APPLICANTS - 1)];
+        return person.isAdult() && !bank.isOverdrawn() && job.getSalary().compareTo(MINIMUM_SALARY) >= 0
+                && person.getAge() < 66;
+    }
+
+    @Benchmark
+    public boolean qualifiesCompiled() {
+        Person person = people[next++ & (APPLICANTS - 1)];
+        return LendingRules.current().qualifiesForMortgage(person, job, bank);
+    }
+
+    @Benchmark
+    public long constructorHardCoded() {
+        Person person = people[next++ & (APPLICANTS - 1)];
+        long violations = person.isAdult() ? 0 : Opportunity.Rule.ADULT.bit();
+        if (creditHistory.hasDefaultsInLastYear() && job.getSalary().compareTo(DEFAULTS_MINIMUM_SALARY) < 0) {
+            violations |= Opportunity.Rule.DEFAULTS_WITH_LOW_INCOME.bit();
+        }
+        if (!verification.isVerified()) {
+            violations |= Opportunity.Rule.EMPLOYMENT_VERIFIED.bit();
+        }
+        if (!inactive.isActive()) {
+            violations |= Opportunity.Rule.INSURANCE_ACTIVE.bit();
+        }
+        return violations;
+    }
+
+    @Benchmark
+    public long constructorCompiled() {
+        Person person = people[next++ & (APPLICANTS - 1)];
+        return LendingRules.firstViolations(person, job, inactive, creditHistory, verification);
+    }
+}
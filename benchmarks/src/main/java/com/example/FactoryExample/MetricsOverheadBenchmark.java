@@ -0,0 +1,79 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link LendingMetrics} hooks. {@code uninstrumented} runs the same seven calculations as
+ * an assessment with no hooks at all, so {@code assessment} with metrics off should match it; with
+ * metrics on the difference is the clock reads and histogram updates. {@code rejectedPerson} is the
+ * constructor rejection path, where the counter sits next to building an exception.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    private Opportunity opportunity;
+
+    @Setup
+    public void setUp() {
+        opportunity = Fixtures.opportunity(new BigDecimal("45000"), 45);
+        if (enabled) {
+            LendingMetrics.enable();
+        } else {
+            LendingMetrics.disable();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        LendingMetrics.disable();
+        LendingMetrics.reset();
+    }
+
+    @Benchmark
+    public void uninstrumented(Blackhole blackhole) {
+        BigDecimal tax = opportunity.computeUKTaxPaid();
+        BigDecimal ni = opportunity.computeNationalInsurance();
+        blackhole.consume(opportunity.computeMaximumMortgage(MortgageMultiplierTable.current()));
+        blackhole.consume(opportunity.computeMaximumMonthlySpend(tax, ni));
+        blackhole.consume(opportunity.computeDisposableIncome(tax, ni));
+        blackhole.consume(opportunity.computeEffectiveTaxRate(tax, ni));
+        blackhole.consume(opportunity.computeQualifiesForMortgage(LendingRules.current()));
+    }
+
+    @Benchmark
+    public OpportunityAssessment assessment() {
+        return new OpportunityAssessment(opportunity, null);
+    }
+
+    @Benchmark
+    public Object rejectedPerson() {
+        try {
+            return new Person("Jane", "Doe", 30);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
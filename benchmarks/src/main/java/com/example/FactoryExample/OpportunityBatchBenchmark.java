@@ -0,0 +1,78 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-core throughput of a full assessment (mortgage, tax, NI, disposable income, effective rate
+ * and qualification) per applicant, via the object methods and via the columnar batch kernels.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class OpportunityBatchBenchmark {
+
+    private static final int SIZE = 100_000;
+
+    private List<Opportunity> portfolio;
+    private OpportunityBatch batch;
+    private long[] mortgage;
+    private long[] tax;
+    private long[] nationalInsurance;
+    private long[] disposable;
+    private long[] effectiveRate;
+    private boolean[] qualifies;
+
+    @Setup
+    public void setUp() {
+        portfolio = Fixtures.portfolio(SIZE, 42);
+        batch = OpportunityBatch.of(portfolio);
+        mortgage = new long[SIZE];
+        tax = new long[SIZE];
+        nationalInsurance = new long[SIZE];
+        disposable = new long[SIZE];
+        effectiveRate = new long[SIZE];
+        qualifies = new boolean[SIZE];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void objectPath(Blackhole blackhole) {
+        // A fresh assessment per row, since the Opportunity methods would otherwise answer from its cache
+        for (Opportunity opportunity : portfolio) {
+            blackhole.consume(new OpportunityAssessment(opportunity, null));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void batchPath(Blackhole blackhole) {
+        batch.maximumMortgagePence(mortgage);
+        batch.ukTaxPaidPence(tax);
+        batch.nationalInsurancePence(nationalInsurance);
+        batch.disposableIncomePence(disposable);
+        batch.effectiveTaxRateBasisPoints(effectiveRate);
+        batch.qualifiesForMortgage(qualifies);
+        blackhole.consume(mortgage);
+        blackhole.consume(effectiveRate);
+        blackhole.consume(qualifies);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of every Opportunity calculation. The salaries land in the basic, higher and
+ * additional tax bands and the ages hit each branch of the mortgage age factor.
+ * <p>
+ * The public BigDecimal methods are served from the cached {@link OpportunityAssessment}, so the
+ * BigDecimal benchmarks call the uncached computations directly to keep measuring the arithmetic.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OpportunityBenchmark {
+
+    @Param({"18000", "30000", "60000", "150000"})
+    public String salary;
+
+    @Param({"30", "45", "60"})
+    public int age;
+
+    private Opportunity opportunity;
+
+    @Setup
+    public void setUp() {
+        opportunity = Fixtures.opportunity(new BigDecimal(salary), age);
+    }
+
+    @Benchmark
+    public BigDecimal calculateMaximumMortgage() {
+        return opportunity.computeMaximumMortgage(MortgageMultiplierTable.current());
+    }
+
+    @Benchmark
+    public BigDecimal calculateMaximumMonthlySpend() {
+        return opportunity.computeMaximumMonthlySpend(opportunity.computeUKTaxPaid(),
+                opportunity.computeNationalInsurance());
+    }
+
+    @Benchmark
+    public BigDecimal calculateUKTaxPaid() {
+        return opportunity.computeUKTaxPaid();
+    }
+
+    @Benchmark
+    public BigDecimal calculateNationalInsurance() {
+        return opportunity.computeNationalInsurance();
+    }
+
+    @Benchmark
+    public BigDecimal calculateDisposableIncome() {
+        return opportunity.computeDisposableIncome(opportunity.computeUKTaxPaid(),
+                opportunity.computeNationalInsurance());
+    }
+
+    @Benchmark
+    public boolean qualifiesForMortgage() {
+        return opportunity.computeQualifiesForMortgage(LendingRules.current());
+    }
+
+    @Benchmark
+    public BigDecimal getEffectiveTaxRate() {
+        return opportunity.computeEffectiveTaxRate(opportunity.computeUKTaxPaid(),
+                opportunity.computeNationalInsurance());
+    }
+
+    @Benchmark
+    public long calculateMaximumMortgagePence() {
+        return opportunity.calculateMaximumMortgagePence();
+    }
+
+    @Benchmark
+    public long calculateMaximumMonthlySpendPence() {
+        return opportunity.calculateMaximumMonthlySpendPence();
+    }
+
+    @Benchmark
+    public long calculateUKTaxPaidPence() {
+        return opportunity.calculateUKTaxPaidPence();
+    }
+
+    @Benchmark
+    public long calculateNationalInsurancePence() {
+        return opportunity.calculateNationalInsurancePence();
+    }
+
+    @Benchmark
+    public OpportunityAssessment assessment() {
+        return new OpportunityAssessment(opportunity, null);
+    }
+
+    @Benchmark
+    public BigDecimal cachedMaximumMonthlySpend() {
+        return opportunity.calculateMaximumMonthlySpend();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.FactoryExample;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Durable update throughput and restart time of an {@link OpportunityStore} versus rewriting a whole
+ * {@link PortfolioFile} after each batch of changes. Not a JMH suite, since every run writes and forces
+ * real files; run it directly:
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.FactoryExample.StoreThroughput [size] [updates] [threads]
+ * </pre>
+ */
+public final class StoreThroughput {
+
+    private StoreThroughput() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int updates = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        List<Opportunity> portfolio = new ArrayList<>(size);
+        List<Opportunity> base = Fixtures.portfolio(size, 42);
+        for (int i = 0; i < size; i++) {
+            portfolio.add(Fixtures.keyed(base.get(i), i));
+        }
+        List<Opportunity> changes = new ArrayList<>(updates);
+        for (int i = 0; i < updates; i++) {
+            Opportunity opportunity = portfolio.get((int) ((i * 2_654_435_761L) % size));
+            changes.add(opportunity.withAge(18 + i % 60));
+        }
+
+        Path directory = Files.createTempDirectory("opportunity-store");
+        try {
+            System.out.printf("portfolio size: %,d, updates: %,d, writer threads: %d%n", size, updates, threads);
+            try (OpportunityStore store = OpportunityStore.open(directory)) {
+                upsertAll(store, portfolio, threads);
+                store.snapshot();
+                long start = System.nanoTime();
+                upsertAll(store, changes, threads);
+                long elapsed = System.nanoTime() - start;
+                System.out.printf("store updates:       %,.0f durable updates/s%n", updates * 1e9 / elapsed);
+            }
+            // Second of each pair is reported, so both paths are measured with warm decoders
+            long start = 0;
+            for (int run = 0; run < 2; run++) {
+                start = System.nanoTime();
+                try (OpportunityStore store = OpportunityStore.open(directory)) {
+                    if (run == 1) {
+                        System.out.printf("store recovery:      %.1f ms (%s)%n", (System.nanoTime() - start) / 1e6,
+                                store.getRecovery());
+                    }
+                }
+            }
+
+            // The alternative: apply the same changes in memory and checkpoint the whole portfolio
+            Map<String, Opportunity> byKey = new LinkedHashMap<>();
+            for (Opportunity opportunity : portfolio) {
+                byKey.put(opportunity.getPerson().getNationalInsuranceNumber(), opportunity);
+            }
+            for (Opportunity change : changes) {
+                byKey.put(change.getPerson().getNationalInsuranceNumber(), change);
+            }
+            Path file = directory.resolve("rewrite.oppf");
+            start = System.nanoTime();
+            PortfolioFile.write(file, byKey.values());
+            long rewrite = System.nanoTime() - start;
+            System.out.printf("full rewrite:        %.1f ms per checkpoint%n", rewrite / 1e6);
+            for (int run = 0; run < 2; run++) {
+                start = System.nanoTime();
+                try (PortfolioFile reloaded = PortfolioFile.open(file)) {
+                    List<Opportunity> opportunities = new ArrayList<>(reloaded.size());
+                    for (int i = 0; i < reloaded.size(); i++) {
+                        opportunities.add(reloaded.read(i));
+                    }
+                    if (run == 1) {
+                        System.out.printf("full reload:         %.1f ms (%,d records)%n",
+                                (System.nanoTime() - start) / 1e6, opportunities.size());
+                    }
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void upsertAll(OpportunityStore store, List<Opportunity> opportunities, int threads)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = first; i < opportunities.size(); i += threads) {
+                        try {
+                            store.upsert(opportunities.get(i));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
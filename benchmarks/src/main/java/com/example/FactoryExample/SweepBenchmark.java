@@ -0,0 +1,60 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A 1,000-point salary sweep for one applicant: an Opportunity per point versus {@link OpportunitySweep}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SweepBenchmark {
+
+    private Opportunity opportunity;
+    private long[] salaryGrid;
+    private BigDecimal[] salaries;
+    private OpportunitySweep sweep;
+    private OpportunitySweep.Result result;
+
+    @Setup
+    public void setUp() {
+        opportunity = Fixtures.opportunity(new BigDecimal("60000"), 45);
+        salaryGrid = OpportunitySweep.grid(2_000_000, 20_000_000, 1000);
+        salaries = new BigDecimal[salaryGrid.length];
+        for (int i = 0; i < salaryGrid.length; i++) {
+            salaries[i] = Money.toBigDecimal(salaryGrid[i]);
+        }
+        sweep = new OpportunitySweep(opportunity);
+        result = new OpportunitySweep.Result(salaryGrid.length);
+    }
+
+    @Benchmark
+    public void perOpportunity(Blackhole blackhole) {
+        for (BigDecimal salary : salaries) {
+            Opportunity point = opportunity.withSalary(salary);
+            blackhole.consume(point.calculateMaximumMortgage());
+            blackhole.consume(point.calculateMaximumMonthlySpend());
+        }
+    }
+
+    @Benchmark
+    public OpportunitySweep.Result sweep() {
+        return sweep.salaries(salaryGrid, result);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.FactoryExample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tax on a cross-border book of mixed regions and filing statuses, one {@link Tax#calculateTax()}
+ * per record against one registry batch over the same rows in pence.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TaxRegistryBenchmark {
+
+    private static final int SIZE = 100_000;
+
+    private Tax[] taxes;
+    private Tax.TaxRegion[] regions;
+    private Tax.FilingStatus[] filingStatuses;
+    private long[] incomePence;
+    private int[] dependents;
+    private boolean[] hasDeductions;
+    private long[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        taxes = new Tax[SIZE];
+        regions = new Tax.TaxRegion[SIZE];
+        filingStatuses = new Tax.FilingStatus[SIZE];
+        incomePence = new long[SIZE];
+        dependents = new int[SIZE];
+        hasDeductions = new boolean[SIZE];
+        out = new long[SIZE];
+        Tax.TaxRegion[] allRegions = Tax.TaxRegion.values();
+        for (int i = 0; i < SIZE; i++) {
+            BigDecimal income = BigDecimal.valueOf(1_000_000 + random.nextInt(20_000_000), 2);
+            regions[i] = allRegions[random.nextInt(allRegions.length)];
+            dependents[i] = random.nextInt(4);
+            filingStatuses[i] = dependents[i] == 0 ? Tax.FilingStatus.SINGLE : Tax.FilingStatus.MARRIED_JOINT;
+            taxes[i] = new Tax(income, regions[i], dependents[i], false, filingStatuses[i],
+                    Collections.emptyList(), false);
+            incomePence[i] = Money.ofPounds(income);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void perRecord(Blackhole blackhole) {
+        for (Tax tax : taxes) {
+            blackhole.consume(tax.calculateTax());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void registryBatch(Blackhole blackhole) {
+        TaxRateRegistry.current().calculateTaxPence(regions, filingStatuses, incomePence, dependents,
+                hasDeductions, out);
+        blackhole.consume(out);
+    }
+}
@@ -0,0 +1,546 @@
+package com.example.FactoryExample;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Reads applicant records one line at a time from a channel through a single reusable buffer.
+ * <p>
+ * A record is exposed as byte spans into that buffer, one per {@link Field}; numbers, dates, flags and
+ * enum names are decoded straight from the bytes, and a String is only created for fields that are
+ * text in the domain model. The spans are valid until the next call to {@link #next()}.
+ */
+final class ApplicantRecordReader {
+
+    /**
+     * Input fields. The key is both the CSV header name and the NDJSON property name.
+     */
+    enum Field {
+        FIRST_NAME("firstName"), LAST_NAME("lastName"), AGE("age"), EMAIL("email"), PHONE_NUMBER("phoneNumber"),
+        NI_NUMBER("nationalInsuranceNumber"), STREET("street"), CITY("city"), POSTCODE("postcode"),
+        COUNTRY("country"),
+        JOB_TITLE("jobTitle"), COMPANY("company"), SALARY("salary"), YEARS_EXPERIENCE("yearsExperience"),
+        EMPLOYMENT_TYPE("employmentType"), DEPARTMENT_NAME("departmentName"), DEPARTMENT_CODE("departmentCode"),
+        START_DATE("startDate"), CONTRACT_MONTHS("contractMonths"), CONTRACT_RENEWABLE("contractRenewable"),
+        ACCOUNT_NUMBER("accountNumber"), BANK_NAME("bankName"), BALANCE("balance"), ACCOUNT_TYPE("accountType"),
+        SORT_CODE("sortCode"), CREDIT_SCORE("creditScore"), CREDIT_RATING("creditRating"),
+        ACCOUNT_OPEN_DATE("accountOpenDate"), ACCOUNT_HOLDER_NAME("accountHolderName"),
+        ACCOUNT_HOLDER_DATE_OF_BIRTH("accountHolderDateOfBirth"),
+        ACCOUNT_HOLDER_NATIONALITY("accountHolderNationality"),
+        DEPENDENTS("dependents"), INSURANCE_TYPE("insuranceType"), INSURANCE_MONTHLY_COST("insuranceMonthlyCost"),
+        INSURANCE_ACTIVE("insuranceActive"),
+        DEFAULTS_IN_LAST_YEAR("defaultsInLastYear"), LATE_PAYMENTS("latePayments"),
+        CREDIT_LAST_CHECKED("creditLastChecked"), EMPLOYMENT_VERIFIED("employmentVerified"),
+        VERIFICATION_DATE("verificationDate"), VERIFICATION_METHOD("verificationMethod");
+
+        private static final Field[] VALUES = values();
+
+        private final String key;
+        private final byte[] keyBytes;
+
+        Field(String key) {
+            this.key = key;
+            this.keyBytes = key.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Thrown for a malformed record. It carries no stack trace, since rejects are routine.
+     */
+    static final class MalformedRecordException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MalformedRecordException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static final int FIELD_COUNT = Field.VALUES.length;
+    private static final int ESCAPED = 1;
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private final ReadableByteChannel channel;
+    private final OpportunityIngestor.Format format;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private final int[] start = new int[FIELD_COUNT];
+    private final int[] end = new int[FIELD_COUNT];
+    private final int[] flags = new int[FIELD_COUNT];
+    private Field[] columns;
+    private int lineStart;
+    private int lineEnd;
+    private int nextLineStart;
+    private long lineNumber;
+    private boolean endOfInput;
+
+    ApplicantRecordReader(ReadableByteChannel channel, OpportunityIngestor.Format format, int bufferSize) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Format cannot be null");
+        }
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("Buffer size must be at least 1024 bytes");
+        }
+        this.channel = channel;
+        this.format = format;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.bytes = buffer.array();
+        this.buffer.flip();
+    }
+
+    /**
+     * Advance to the next non-blank record. CSV input must start with a header naming its columns.
+     *
+     * @return false at end of input
+     * @throws MalformedRecordException if the line cannot be split into fields; the reader stays usable
+     */
+    boolean next() throws IOException {
+        while (nextLine()) {
+            if (lineStart == lineEnd) {
+                continue;
+            }
+            if (format == OpportunityIngestor.Format.CSV && columns == null) {
+                readHeader();
+                continue;
+            }
+            Arrays.fill(start, -1);
+            Arrays.fill(flags, 0);
+            if (format == OpportunityIngestor.Format.CSV) {
+                splitCsv();
+            } else {
+                splitJson();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    boolean isPresent(Field field) {
+        int i = field.ordinal();
+        return start[i] >= 0 && end[i] > start[i];
+    }
+
+    String string(Field field) {
+        int i = field.ordinal();
+        if (start[i] < 0) {
+            return null;
+        }
+        if ((flags[i] & ESCAPED) == 0) {
+            return new String(bytes, start[i], end[i] - start[i], StandardCharsets.UTF_8);
+        }
+        return format == OpportunityIngestor.Format.CSV
+                ? unescapeCsv(start[i], end[i]) : unescapeJson(start[i], end[i]);
+    }
+
+    /**
+     * The field's text, or null when it is missing or empty.
+     */
+    String optionalString(Field field) {
+        return isPresent(field) ? string(field) : null;
+    }
+
+    String stringOrEmpty(Field field) {
+        String value = string(field);
+        return value == null ? "" : value;
+    }
+
+    int integer(Field field) {
+        int i = required(field);
+        int p = start[i];
+        boolean negative = bytes[p] == '-';
+        if (negative) {
+            p++;
+        }
+        if (p == end[i] || end[i] - p > 9) {
+            throw invalid(field);
+        }
+        int value = 0;
+        for (; p < end[i]; p++) {
+            int digit = bytes[p] - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalid(field);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    BigDecimal decimal(Field field) {
+        int i = required(field);
+        int p = start[i];
+        boolean negative = bytes[p] == '-';
+        if (negative) {
+            p++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; p < end[i]; p++) {
+            byte b = bytes[p];
+            if (b == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            if (b < '0' || b > '9' || ++digits > 18) {
+                throw invalid(field);
+            }
+            unscaled = unscaled * 10 + (b - '0');
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        if (digits == 0) {
+            throw invalid(field);
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    boolean bool(Field field) {
+        int i = required(field);
+        if (matches(i, TRUE)) {
+            return true;
+        }
+        if (matches(i, FALSE)) {
+            return false;
+        }
+        throw invalid(field);
+    }
+
+    /**
+     * Parse an ISO yyyy-MM-dd date.
+     */
+    LocalDate date(Field field) {
+        int i = required(field);
+        int p = start[i];
+        if (end[i] - p != 10 || bytes[p + 4] != '-' || bytes[p + 7] != '-') {
+            throw invalid(field);
+        }
+        try {
+            return LocalDate.of(digits(field, p, 4), digits(field, p + 5, 2), digits(field, p + 8, 2));
+        } catch (DateTimeException e) {
+            throw invalid(field);
+        }
+    }
+
+    <E extends Enum<E>> E enumValue(Field field, E[] constants) {
+        int i = required(field);
+        for (E constant : constants) {
+            String name = constant.name();
+            if (name.length() == end[i] - start[i] && matchesAscii(i, name)) {
+                return constant;
+            }
+        }
+        throw invalid(field);
+    }
+
+    private int required(Field field) {
+        if (!isPresent(field)) {
+            throw new MalformedRecordException("Missing " + field.getKey());
+        }
+        return field.ordinal();
+    }
+
+    private static MalformedRecordException invalid(Field field) {
+        return new MalformedRecordException("Invalid " + field.getKey());
+    }
+
+    private int digits(Field field, int p, int count) {
+        int value = 0;
+        for (int k = p; k < p + count; k++) {
+            int digit = bytes[k] - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalid(field);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private boolean matches(int i, byte[] expected) {
+        if (end[i] - start[i] != expected.length) {
+            return false;
+        }
+        for (int k = 0; k < expected.length; k++) {
+            if (bytes[start[i] + k] != expected[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesAscii(int i, String expected) {
+        for (int k = 0; k < expected.length(); k++) {
+            if (bytes[start[i] + k] != expected.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean nextLine() throws IOException {
+        buffer.position(nextLineStart);
+        while (true) {
+            int from = buffer.position();
+            for (int p = from; p < buffer.limit(); p++) {
+                if (bytes[p] == '\n') {
+                    setLine(from, p);
+                    return true;
+                }
+            }
+            if (endOfInput) {
+                if (from == buffer.limit()) {
+                    return false;
+                }
+                setLine(from, buffer.limit());
+                return true;
+            }
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                throw new IOException("Record at line " + (lineNumber + 1) + " exceeds the "
+                        + buffer.capacity() + "-byte read buffer");
+            }
+            endOfInput = channel.read(buffer) < 0;
+            buffer.flip();
+        }
+    }
+
+    private void setLine(int from, int terminator) {
+        lineNumber++;
+        lineStart = from;
+        lineEnd = terminator;
+        nextLineStart = Math.min(terminator + 1, buffer.limit());
+        if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+            lineEnd--;
+        }
+    }
+
+    private void readHeader() {
+        int count = 1;
+        for (int p = lineStart; p < lineEnd; p++) {
+            if (bytes[p] == ',') {
+                count++;
+            }
+        }
+        columns = new Field[count];
+        int column = 0;
+        int from = lineStart;
+        for (int p = lineStart; p <= lineEnd; p++) {
+            if (p == lineEnd || bytes[p] == ',') {
+                columns[column++] = fieldNamed(from, p);
+                from = p + 1;
+            }
+        }
+    }
+
+    private Field fieldNamed(int from, int to) {
+        for (Field field : Field.VALUES) {
+            byte[] key = field.keyBytes;
+            if (key.length == to - from && Arrays.equals(bytes, from, to, key, 0, key.length)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private void splitCsv() {
+        int column = 0;
+        int p = lineStart;
+        while (true) {
+            Field field = column < columns.length ? columns[column] : null;
+            int fieldStart;
+            int fieldEnd;
+            int fieldFlags = 0;
+            if (p < lineEnd && bytes[p] == '"') {
+                fieldStart = ++p;
+                while (true) {
+                    if (p >= lineEnd) {
+                        throw new MalformedRecordException("Unterminated quoted field");
+                    }
+                    if (bytes[p] == '"') {
+                        if (p + 1 < lineEnd && bytes[p + 1] == '"') {
+                            fieldFlags = ESCAPED;
+                            p += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    p++;
+                }
+                fieldEnd = p++;
+                if (p < lineEnd && bytes[p] != ',') {
+                    throw new MalformedRecordException("Unexpected character after quoted field");
+                }
+            } else {
+                fieldStart = p;
+                while (p < lineEnd && bytes[p] != ',') {
+                    p++;
+                }
+                fieldEnd = p;
+            }
+            if (field != null) {
+                start[field.ordinal()] = fieldStart;
+                end[field.ordinal()] = fieldEnd;
+                flags[field.ordinal()] = fieldFlags;
+            }
+            column++;
+            if (p >= lineEnd) {
+                break;
+            }
+            p++;
+        }
+        if (column != columns.length) {
+            throw new MalformedRecordException("Expected " + columns.length + " columns but found " + column);
+        }
+    }
+
+    private void splitJson() {
+        int p = skipWhitespace(lineStart);
+        if (p >= lineEnd || bytes[p] != '{') {
+            throw new MalformedRecordException("Expected a JSON object");
+        }
+        p = skipWhitespace(p + 1);
+        if (p < lineEnd && bytes[p] == '}') {
+            return;
+        }
+        while (true) {
+            if (p >= lineEnd || bytes[p] != '"') {
+                throw new MalformedRecordException("Expected a property name");
+            }
+            int keyStart = p + 1;
+            p = endOfJsonString(keyStart);
+            Field field = fieldNamed(keyStart, p);
+            p = skipWhitespace(p + 1);
+            if (p >= lineEnd || bytes[p] != ':') {
+                throw new MalformedRecordException("Expected ':' after property name");
+            }
+            p = skipWhitespace(p + 1);
+            if (p >= lineEnd) {
+                throw new MalformedRecordException("Missing property value");
+            }
+            int valueStart;
+            int valueEnd;
+            int valueFlags = 0;
+            if (bytes[p] == '"') {
+                valueStart = p + 1;
+                valueEnd = endOfJsonString(valueStart);
+                for (int k = valueStart; k < valueEnd; k++) {
+                    if (bytes[k] == '\\') {
+                        valueFlags = ESCAPED;
+                        break;
+                    }
+                }
+                p = valueEnd + 1;
+            } else {
+                valueStart = p;
+                while (p < lineEnd && bytes[p] != ',' && bytes[p] != '}' && bytes[p] != ' ' && bytes[p] != '\t') {
+                    p++;
+                }
+                valueEnd = p;
+                if (valueEnd - valueStart == NULL.length
+                        && Arrays.equals(bytes, valueStart, valueEnd, NULL, 0, NULL.length)) {
+                    valueStart = -1;
+                }
+            }
+            if (field != null) {
+                start[field.ordinal()] = valueStart;
+                end[field.ordinal()] = valueEnd;
+                flags[field.ordinal()] = valueFlags;
+            }
+            p = skipWhitespace(p);
+            if (p < lineEnd && bytes[p] == ',') {
+                p = skipWhitespace(p + 1);
+                continue;
+            }
+            if (p < lineEnd && bytes[p] == '}') {
+                return;
+            }
+            throw new MalformedRecordException("Expected ',' or '}'");
+        }
+    }
+
+    private int skipWhitespace(int p) {
+        while (p < lineEnd && (bytes[p] == ' ' || bytes[p] == '\t')) {
+            p++;
+        }
+        return p;
+    }
+
+    private int endOfJsonString(int p) {
+        while (p < lineEnd) {
+            if (bytes[p] == '\\') {
+                p += 2;
+            } else if (bytes[p] == '"') {
+                return p;
+            } else {
+                p++;
+            }
+        }
+        throw new MalformedRecordException("Unterminated string");
+    }
+
+    private String unescapeCsv(int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8).replace("\"\"", "\"");
+    }
+
+    private String unescapeJson(int from, int to) {
+        String raw = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+        StringBuilder out = new StringBuilder(raw.length());
+        for (int k = 0; k < raw.length(); k++) {
+            char c = raw.charAt(k);
+            if (c != '\\' || k + 1 >= raw.length()) {
+                out.append(c);
+                continue;
+            }
+            char escape = raw.charAt(++k);
+            switch (escape) {
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'f':
+                    out.append('\f');
+                    break;
+                case 'u':
+                    if (k + 4 >= raw.length()) {
+                        throw new MalformedRecordException("Invalid unicode escape");
+                    }
+                    try {
+                        out.append((char) Integer.parseInt(raw.substring(k + 1, k + 5), 16));
+                    } catch (NumberFormatException e) {
+                        throw new MalformedRecordException("Invalid unicode escape");
+                    }
+                    k += 4;
+                    break;
+                default:
+                    out.append(escape);
+            }
+        }
+        return out.toString();
+    }
+}
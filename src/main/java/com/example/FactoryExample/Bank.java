@@ -3,8 +3,7 @@ package com.example.FactoryExample;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Objects;
 
 public class Bank {
     private final String accountNumber;
@@ -16,48 +15,27 @@ public class Bank {
     private final LocalDate accountOpenDate;
     private final AccountHolder accountHolder;
 
-    private static final Pattern ACCOUNT_NUMBER_PATTERN = Pattern.compile("^\\d{8}$");
-    private static final Pattern SORT_CODE_PATTERN = Pattern.compile("^\\d{2}-\\d{2}-\\d{2}$");
-    private static final List<String> VALID_UK_BANKS = Arrays.asList(
-            "Barclays", "HSBC", "Lloyds", "NatWest", "Santander", "Halifax", "Nationwide"
-    );
     private static final BigDecimal MAX_BALANCE = new BigDecimal("1000000");
+    private static final BigDecimal MINIMUM_BALANCE = new BigDecimal("100");
+    static final long MAX_BALANCE_PENCE = Money.ofPounds(MAX_BALANCE);
+    static final long MINIMUM_BALANCE_PENCE = Money.ofPounds(MINIMUM_BALANCE);
+    private static final CreditScore DEFAULT_CREDIT_SCORE = CreditScore.of(700, "Good");
+    private static final AccountHolder EMPTY_ACCOUNT_HOLDER = AccountHolder.EMPTY;
+    private static final ValidationResult<Rule> VALID = new ValidationResult<>(Rule.VALUES, 0);
 
     public Bank(String accountNumber, String bankName, BigDecimal balance, AccountType accountType,
                 String sortCode, CreditScore creditScore, LocalDate accountOpenDate,
                 AccountHolder accountHolder) {
-        if (accountNumber == null || !ACCOUNT_NUMBER_PATTERN.matcher(accountNumber).matches()) {
-            throw new IllegalArgumentException("Account number must be exactly 8 digits");
-        }
-        if (bankName == null || !VALID_UK_BANKS.contains(bankName)) {
-            throw new IllegalArgumentException("Invalid bank name. Must be one of: " + VALID_UK_BANKS);
-        }
-        if (balance == null || balance.compareTo(MAX_BALANCE) > 0) {
-            throw new IllegalArgumentException("Balance cannot exceed " + MAX_BALANCE);
-        }
-        if (accountType == null) {
-            throw new IllegalArgumentException("Account type cannot be null");
-        }
-        if (sortCode == null || !SORT_CODE_PATTERN.matcher(sortCode).matches()) {
-            throw new IllegalArgumentException("Sort code must be in format XX-XX-XX");
-        }
-        if (creditScore == null) {
-            throw new IllegalArgumentException("Credit score cannot be null");
-        }
-        if (accountOpenDate == null) {
-            throw new IllegalArgumentException("Account open date cannot be null");
-        }
-        if (accountOpenDate.isAfter(LocalDate.now())) {
-            throw new IllegalArgumentException("Account open date cannot be in the future");
-        }
-        if (accountHolder == null) {
-            throw new IllegalArgumentException("Account holder cannot be null");
-        }
-        if (accountType == AccountType.SAVINGS && balance.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Savings accounts cannot have negative balance");
-        }
-        if (accountType == AccountType.BUSINESS && creditScore.getScore() < 600) {
-            throw new IllegalArgumentException("Business accounts require credit score of at least 600");
+        this(accountNumber, bankName, balance, accountType, sortCode, creditScore, accountOpenDate, accountHolder,
+                violations(accountNumber, bankName, balance, accountType, sortCode, creditScore, accountOpenDate,
+                        accountHolder));
+    }
+
+    private Bank(String accountNumber, String bankName, BigDecimal balance, AccountType accountType,
+                 String sortCode, CreditScore creditScore, LocalDate accountOpenDate,
+                 AccountHolder accountHolder, long violations) {
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
         }
 
         this.accountNumber = accountNumber;
@@ -70,14 +48,144 @@ public class Bank {
         this.accountHolder = accountHolder;
     }
 
+    // Derivation of an already valid account; the with* methods check the rules on the fields they change
+    private Bank(Bank base, BigDecimal balance, CreditScore creditScore) {
+        this.accountNumber = base.accountNumber;
+        this.bankName = base.bankName;
+        this.balance = balance;
+        this.accountType = base.accountType;
+        this.sortCode = base.sortCode;
+        this.creditScore = creditScore;
+        this.accountOpenDate = base.accountOpenDate;
+        this.accountHolder = base.accountHolder;
+    }
+
     public Bank(String accountNumber, String bankName, BigDecimal balance) {
         this(accountNumber, bankName, balance, AccountType.CHECKING, "00-00-00",
-                new CreditScore(700, "Good"), LocalDate.now(), new AccountHolder("", "", ""));
+                DEFAULT_CREDIT_SCORE, BusinessDate.today(), EMPTY_ACCOUNT_HOLDER);
     }
 
     public Bank(String accountNumber, String bankName) {
         this(accountNumber, bankName, BigDecimal.ZERO, AccountType.CHECKING, "00-00-00",
-                new CreditScore(700, "Good"), LocalDate.now(), new AccountHolder("", "", ""));
+                DEFAULT_CREDIT_SCORE, BusinessDate.today(), EMPTY_ACCOUNT_HOLDER);
+    }
+
+    /**
+     * An account from arguments already known to be valid, because they passed {@link #validate} or
+     * were read back from storage. No rule is checked again, so a bank dropped from the catalogue since
+     * an account was stored does not make it unreadable.
+     */
+    static Bank trusted(String accountNumber, String bankName, BigDecimal balance, AccountType accountType,
+                        String sortCode, CreditScore creditScore, LocalDate accountOpenDate,
+                        AccountHolder accountHolder) {
+        return new Bank(accountNumber, bankName, balance, accountType, sortCode, creditScore, accountOpenDate,
+                accountHolder, 0);
+    }
+
+    /**
+     * Check every constructor rule without throwing, reporting all the rules the arguments break.
+     */
+    public static ValidationResult<Rule> validate(String accountNumber, String bankName, BigDecimal balance,
+                                                  AccountType accountType, String sortCode, CreditScore creditScore,
+                                                  LocalDate accountOpenDate, AccountHolder accountHolder) {
+        long violations = violations(accountNumber, bankName, balance, accountType, sortCode, creditScore,
+                accountOpenDate, accountHolder);
+        return violations == 0 ? VALID : new ValidationResult<>(Rule.VALUES, violations);
+    }
+
+    private static long violations(String accountNumber, String bankName, BigDecimal balance,
+                                   AccountType accountType, String sortCode, CreditScore creditScore,
+                                   LocalDate accountOpenDate, AccountHolder accountHolder) {
+        long violations = 0;
+        if (accountNumber == null || !FieldValidators.isAccountNumber(accountNumber)) {
+            violations |= Rule.ACCOUNT_NUMBER_FORMAT.bit();
+        }
+        if (Catalogue.current().bankId(bankName) < 0) {
+            violations |= Rule.BANK_NAME.bit();
+        }
+        violations |= balanceViolations(balance, accountType);
+        if (accountType == null) {
+            violations |= Rule.ACCOUNT_TYPE_REQUIRED.bit();
+        }
+        if (sortCode == null || !FieldValidators.isSortCode(sortCode)) {
+            violations |= Rule.SORT_CODE_FORMAT.bit();
+        }
+        violations |= creditScoreViolations(creditScore, accountType);
+        if (accountOpenDate == null) {
+            violations |= Rule.OPEN_DATE_REQUIRED.bit();
+        } else if (accountOpenDate.isAfter(BusinessDate.today())) {
+            violations |= Rule.OPEN_DATE_NOT_FUTURE.bit();
+        }
+        if (accountHolder == null) {
+            violations |= Rule.ACCOUNT_HOLDER_REQUIRED.bit();
+        }
+        return violations;
+    }
+
+    private static long balanceViolations(BigDecimal balance, AccountType accountType) {
+        long violations = 0;
+        if (balance == null || balance.compareTo(MAX_BALANCE) > 0) {
+            violations |= Rule.MAX_BALANCE.bit();
+        }
+        if (accountType == AccountType.SAVINGS && balance != null && balance.compareTo(BigDecimal.ZERO) < 0) {
+            violations |= Rule.SAVINGS_NOT_NEGATIVE.bit();
+        }
+        return violations;
+    }
+
+    private static long creditScoreViolations(CreditScore creditScore, AccountType accountType) {
+        long violations = 0;
+        if (creditScore == null) {
+            violations |= Rule.CREDIT_SCORE_REQUIRED.bit();
+        }
+        if (accountType == AccountType.BUSINESS && creditScore != null && creditScore.getScore() < 600) {
+            violations |= Rule.BUSINESS_CREDIT_SCORE.bit();
+        }
+        return violations;
+    }
+
+    /**
+     * The exception the constructor throws when only {@code rule} is broken.
+     */
+    static IllegalArgumentException rejection(Rule rule) {
+        return ValidationResult.rejection(Rule.VALUES, rule.bit());
+    }
+
+    public enum Rule implements ValidationRule {
+        ACCOUNT_NUMBER_FORMAT("Account number must be exactly 8 digits"),
+        BANK_NAME(null) {
+            @Override
+            public String getMessage() {
+                return "Invalid bank name. Must be one of: " + Catalogue.current().getBanks();
+            }
+        },
+        MAX_BALANCE(null) {
+            @Override
+            public String getMessage() {
+                return "Balance cannot exceed " + Bank.MAX_BALANCE;
+            }
+        },
+        ACCOUNT_TYPE_REQUIRED("Account type cannot be null"),
+        SORT_CODE_FORMAT("Sort code must be in format XX-XX-XX"),
+        CREDIT_SCORE_REQUIRED("Credit score cannot be null"),
+        OPEN_DATE_REQUIRED("Account open date cannot be null"),
+        OPEN_DATE_NOT_FUTURE("Account open date cannot be in the future"),
+        ACCOUNT_HOLDER_REQUIRED("Account holder cannot be null"),
+        SAVINGS_NOT_NEGATIVE("Savings accounts cannot have negative balance"),
+        BUSINESS_CREDIT_SCORE("Business accounts require credit score of at least 600");
+
+        private static final Rule[] VALUES = values();
+
+        private final String message;
+
+        Rule(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
     }
 
     public enum AccountType {
@@ -85,6 +193,13 @@ public class Bank {
     }
 
     public static class CreditScore {
+        private static final int MIN_SCORE = 300;
+        private static final int MAX_SCORE = 850;
+        private static final String[] RATINGS = {"Poor", "Fair", "Good", "Very Good", "Excellent"};
+        private static final PerfectHash RATING_IDS = PerfectHash.of(Arrays.asList(RATINGS));
+        // Filled on first use, indexed by (score - MIN_SCORE) * RATINGS.length + rating index
+        private static final CreditScore[] CANONICAL = new CreditScore[(MAX_SCORE - MIN_SCORE + 1) * RATINGS.length];
+
         private final int score;
         private final String rating;
 
@@ -95,7 +210,7 @@ public class Bank {
             if (rating == null || rating.trim().isEmpty()) {
                 throw new IllegalArgumentException("Credit rating cannot be null or empty");
             }
-            if (!Arrays.asList("Poor", "Fair", "Good", "Very Good", "Excellent").contains(rating)) {
+            if (RATING_IDS.id(rating) < 0) {
                 throw new IllegalArgumentException("Invalid credit rating");
             }
             this.score = score;
@@ -109,9 +224,47 @@ public class Bank {
         public String getRating() {
             return rating;
         }
+
+        /**
+         * The shared instance equal to {@code new CreditScore(score, rating)}.
+         */
+        public static CreditScore of(int score, String rating) {
+            int ratingIndex = RATING_IDS.id(rating);
+            if (ratingIndex < 0 || score < MIN_SCORE || score > MAX_SCORE) {
+                return new CreditScore(score, rating);
+            }
+            int index = (score - MIN_SCORE) * RATINGS.length + ratingIndex;
+            CreditScore canonical = CANONICAL[index];
+            if (canonical == null) {
+                // Racing threads may each create one; the fields are final, so any of them is safe to share
+                canonical = new CreditScore(score, RATINGS[ratingIndex]);
+                CANONICAL[index] = canonical;
+            }
+            return canonical;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CreditScore other = (CreditScore) o;
+            return score == other.score && rating.equals(other.rating);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * score + rating.hashCode();
+        }
     }
 
     public static class AccountHolder {
+        // Only the empty holder is shared; real holders are per applicant and are not kept in a table
+        private static final AccountHolder EMPTY = new AccountHolder("", "", "");
+
         private final String fullName;
         private final String dateOfBirth;
         private final String nationality;
@@ -133,6 +286,36 @@ public class Bank {
         public String getNationality() {
             return nationality;
         }
+
+        /**
+         * A holder equal to {@code new AccountHolder(fullName, dateOfBirth, nationality)}, shared when
+         * every field is empty.
+         */
+        public static AccountHolder of(String fullName, String dateOfBirth, String nationality) {
+            if ("".equals(fullName) && "".equals(dateOfBirth) && "".equals(nationality)) {
+                return EMPTY;
+            }
+            return new AccountHolder(fullName, dateOfBirth, nationality);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            AccountHolder other = (AccountHolder) o;
+            return Objects.equals(fullName, other.fullName) && Objects.equals(dateOfBirth, other.dateOfBirth)
+                    && Objects.equals(nationality, other.nationality);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Objects.hashCode(fullName) + Objects.hashCode(dateOfBirth))
+                    + Objects.hashCode(nationality);
+        }
     }
 
     public String getAccountNumber() {
@@ -151,13 +334,52 @@ public class Bank {
         return accountType;
     }
 
+    public String getSortCode() {
+        return sortCode;
+    }
+
+    public CreditScore getCreditScore() {
+        return creditScore;
+    }
+
+    public LocalDate getAccountOpenDate() {
+        return accountOpenDate;
+    }
+
+    public AccountHolder getAccountHolder() {
+        return accountHolder;
+    }
+
     public boolean isOverdrawn() {
         return balance.compareTo(BigDecimal.ZERO) < 0;
     }
 
     public boolean hasMinimumBalance() {
-        BigDecimal minimumBalance = new BigDecimal("100");
-        return balance.compareTo(minimumBalance) >= 0;
+        return balance.compareTo(MINIMUM_BALANCE) >= 0;
+    }
+
+    /**
+     * This account with a different balance. Only the maximum balance and, for SAVINGS, the
+     * no-negative rule are checked; everything else is shared.
+     */
+    public Bank withBalance(BigDecimal balance) {
+        long violations = balanceViolations(balance, accountType);
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
+        }
+        return new Bank(this, balance, creditScore);
+    }
+
+    /**
+     * This account with a different credit score. Only the score's presence and, for BUSINESS
+     * accounts, its minimum are checked.
+     */
+    public Bank withCreditScore(CreditScore creditScore) {
+        long violations = creditScoreViolations(creditScore, accountType);
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
+        }
+        return new Bank(this, balance, creditScore);
     }
 
     public BigDecimal calculateInterest() {
@@ -0,0 +1,204 @@
+package com.example.FactoryExample;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable index of {@link Bank} accounts by sort code and account number.
+ * <p>
+ * The six sort-code digits and eight account-number digits are packed into one {@code long}
+ * (sort code x 10^8 + account number) and held in an open-addressing, linear-probing table of
+ * 12-byte slots: the key and the account's position in a dense {@code Bank[]}. The table lives in a
+ * heap or, with {@link Builder#offHeap(boolean)}, a direct buffer outside the Java heap, so a lookup
+ * hashes no Strings and allocates nothing. The directory is built once through a {@link Builder} and
+ * never changes afterwards, so any number of threads can read it without locking.
+ */
+public final class BankDirectory {
+
+    private static final int SLOT_SIZE = 12;
+    private static final long EMPTY = -1L;
+    private static final long ACCOUNT_NUMBERS_PER_SORT_CODE = 100_000_000L;
+    // Slots per account at most; keeps probe sequences short
+    private static final double LOAD_FACTOR = 0.6;
+
+    private final ByteBuffer table;
+    private final int mask;
+    private final Bank[] banks;
+
+    private BankDirectory(List<Bank> accounts, boolean offHeap) {
+        int size = accounts.size();
+        long slots = Long.highestOneBit(Math.max(2L, (long) Math.ceil(size / LOAD_FACTOR)) - 1) << 1;
+        if (slots * SLOT_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Directory cannot hold " + size + " accounts");
+        }
+        this.mask = (int) slots - 1;
+        this.table = (offHeap ? ByteBuffer.allocateDirect((int) slots * SLOT_SIZE)
+                : ByteBuffer.allocate((int) slots * SLOT_SIZE)).order(ByteOrder.nativeOrder());
+        for (int slot = 0; slot < slots; slot++) {
+            table.putLong(slot * SLOT_SIZE, EMPTY);
+        }
+        this.banks = accounts.toArray(new Bank[0]);
+        for (int i = 0; i < banks.length; i++) {
+            long key = key(banks[i]);
+            int slot = slot(key);
+            while (true) {
+                long existing = table.getLong(slot * SLOT_SIZE);
+                if (existing == EMPTY) {
+                    break;
+                }
+                if (existing == key) {
+                    throw new IllegalArgumentException("Duplicate account " + banks[i].getSortCode() + " "
+                            + banks[i].getAccountNumber());
+                }
+                slot = (slot + 1) & mask;
+            }
+            table.putLong(slot * SLOT_SIZE, key);
+            table.putInt(slot * SLOT_SIZE + 8, i);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder(16);
+    }
+
+    public static Builder builder(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * The account with this sort code ({@code XX-XX-XX}) and account number (8 digits), or null.
+     */
+    public Bank get(String sortCode, String accountNumber) {
+        return get(key(sortCode, accountNumber));
+    }
+
+    /**
+     * The account with this packed key, as returned by {@link #key(String, String)}, or null.
+     */
+    public Bank get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : banks[index];
+    }
+
+    public boolean contains(String sortCode, String accountNumber) {
+        return get(sortCode, accountNumber) != null;
+    }
+
+    public int size() {
+        return banks.length;
+    }
+
+    public boolean isOffHeap() {
+        return table.isDirect();
+    }
+
+    /**
+     * Dense position of the account in {@code [0, size())}, or -1 if absent.
+     */
+    int indexOf(long key) {
+        int slot = slot(key);
+        while (true) {
+            int offset = slot * SLOT_SIZE;
+            long existing = table.getLong(offset);
+            if (existing == key) {
+                return table.getInt(offset + 8);
+            }
+            if (existing == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    Bank bank(int index) {
+        return banks[index];
+    }
+
+    /**
+     * Pack a sort code ({@code XX-XX-XX}) and an 8-digit account number into one key.
+     */
+    public static long key(String sortCode, String accountNumber) {
+        if (sortCode == null || sortCode.length() != 8 || sortCode.charAt(2) != '-' || sortCode.charAt(5) != '-') {
+            throw new IllegalArgumentException("Invalid UK sort code format (XX-XX-XX)");
+        }
+        if (accountNumber == null || accountNumber.length() != 8) {
+            throw new IllegalArgumentException("Invalid UK account number format");
+        }
+        long sort = digits(sortCode, 0, 2) * 10_000 + digits(sortCode, 3, 5) * 100 + digits(sortCode, 6, 8);
+        return sort * ACCOUNT_NUMBERS_PER_SORT_CODE + digits(accountNumber, 0, 8);
+    }
+
+    public static long key(Bank bank) {
+        return key(bank.getSortCode(), bank.getAccountNumber());
+    }
+
+    private static long digits(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Invalid digit in " + value);
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private int slot(long key) {
+        // MurmurHash3 finaliser: consecutive account numbers spread over the whole table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    /**
+     * Collects accounts for one bulk build. Not thread-safe.
+     */
+    public static final class Builder {
+        private final List<Bank> accounts;
+        private boolean offHeap;
+
+        private Builder(int expectedSize) {
+            this.accounts = new ArrayList<>(expectedSize);
+        }
+
+        public Builder add(Bank bank) {
+            if (bank == null) {
+                throw new IllegalArgumentException("Bank cannot be null");
+            }
+            accounts.add(bank);
+            return this;
+        }
+
+        public Builder addAll(Iterable<Bank> banks) {
+            for (Bank bank : banks) {
+                add(bank);
+            }
+            return this;
+        }
+
+        /**
+         * Keep the index table in native memory instead of on the Java heap.
+         */
+        public Builder offHeap(boolean offHeap) {
+            this.offHeap = offHeap;
+            return this;
+        }
+
+        /**
+         * Build the directory; fails if two accounts share a sort code and account number.
+         */
+        public BankDirectory build() {
+            return new BankDirectory(accounts, offHeap);
+        }
+    }
+}
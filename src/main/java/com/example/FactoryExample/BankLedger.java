@@ -0,0 +1,139 @@
+package com.example.FactoryExample;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Live balances, in pence, for the accounts of a {@link BankDirectory}.
+ * <p>
+ * {@link Bank} stays immutable; the ledger keeps each account's current balance in its own atomic
+ * counter, padded to a cache line so updates to neighbouring accounts do not contend. Deposits and
+ * withdrawals are single compare-and-set loops that enforce the Bank balance rules on the new value,
+ * the £1,000,000 maximum and no negative SAVINGS balance, so no update can ever publish a balance
+ * the Bank constructor would reject. {@link #snapshot} turns the current balance back into a Bank
+ * for scoring.
+ */
+public final class BankLedger {
+
+    // Longs per account: one balance plus padding to a 64-byte cache line
+    private static final int STRIDE = 8;
+
+    private final BankDirectory directory;
+    private final AtomicLongArray balances;
+    private final boolean[] savings;
+
+    public BankLedger(BankDirectory directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        int size = directory.size();
+        if ((long) size * STRIDE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ledger cannot hold " + size + " accounts");
+        }
+        this.directory = directory;
+        this.balances = new AtomicLongArray(size * STRIDE);
+        this.savings = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            Bank bank = directory.bank(i);
+            balances.set(i * STRIDE, Money.ofPounds(bank.getBalance()));
+            savings[i] = bank.getAccountType() == Bank.AccountType.SAVINGS;
+        }
+    }
+
+    public int size() {
+        return directory.size();
+    }
+
+    public long balancePence(String sortCode, String accountNumber) {
+        return balancePence(BankDirectory.key(sortCode, accountNumber));
+    }
+
+    public long balancePence(long key) {
+        return balances.get(index(key) * STRIDE);
+    }
+
+    /**
+     * Credit the account and return its new balance.
+     *
+     * @throws IllegalArgumentException if the balance would exceed the Bank maximum
+     */
+    public long deposit(long key, long pence) {
+        if (pence <= 0) {
+            throw new IllegalArgumentException("Deposit must be positive");
+        }
+        return adjust(key, pence, true);
+    }
+
+    /**
+     * Debit the account and return its new balance.
+     *
+     * @throws IllegalArgumentException if a SAVINGS balance would go negative, or any balance below
+     *                                  the lowest the ledger can hold
+     */
+    public long withdraw(long key, long pence) {
+        if (pence <= 0) {
+            throw new IllegalArgumentException("Withdrawal must be positive");
+        }
+        return adjust(key, -pence, true);
+    }
+
+    /**
+     * Apply a signed change if the resulting balance is allowed; returns false instead of throwing
+     * when it is not, and the balance is left unchanged.
+     */
+    public boolean tryAdjust(long key, long deltaPence) {
+        return adjust(key, deltaPence, false) != Long.MIN_VALUE;
+    }
+
+    /**
+     * The account as a Bank carrying its current ledger balance.
+     */
+    public Bank snapshot(long key) {
+        int index = index(key);
+        return directory.bank(index).withBalance(Money.toBigDecimal(balances.get(index * STRIDE)));
+    }
+
+    public Bank snapshot(String sortCode, String accountNumber) {
+        return snapshot(BankDirectory.key(sortCode, accountNumber));
+    }
+
+    // Returns the new balance, or Long.MIN_VALUE when rejected and not throwing
+    private long adjust(long key, long delta, boolean throwOnReject) {
+        int index = index(key);
+        int slot = index * STRIDE;
+        while (true) {
+            long current = balances.get(slot);
+            long updated = current + delta;
+            // The sum wrapped: past Long.MAX_VALUE for a credit, past Long.MIN_VALUE for a debit
+            boolean wrapped = ((current ^ updated) & (delta ^ updated)) < 0;
+            if (wrapped && delta < 0) {
+                if (throwOnReject) {
+                    throw new IllegalArgumentException("Balance cannot go below " + Money.toBigDecimal(Long.MIN_VALUE));
+                }
+                return Long.MIN_VALUE;
+            }
+            Bank.Rule broken = null;
+            if (wrapped || updated > Bank.MAX_BALANCE_PENCE) {
+                broken = Bank.Rule.MAX_BALANCE;
+            } else if (updated < 0 && savings[index]) {
+                broken = Bank.Rule.SAVINGS_NOT_NEGATIVE;
+            }
+            if (broken != null) {
+                if (throwOnReject) {
+                    throw Bank.rejection(broken);
+                }
+                return Long.MIN_VALUE;
+            }
+            if (balances.compareAndSet(slot, current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    private int index(long key) {
+        int index = directory.indexOf(key);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown account " + key);
+        }
+        return index;
+    }
+}
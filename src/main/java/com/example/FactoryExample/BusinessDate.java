@@ -0,0 +1,80 @@
+package com.example.FactoryExample;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * The evaluation date used by every date-based rule ("cannot be in the future") and by the
+ * convenience constructors that default a date to today.
+ * <p>
+ * The date is cached and only recomputed when the clock crosses a day boundary, so a hot path pays
+ * for one {@link Clock#millis()} call rather than a zone conversion. A batch that must see one date
+ * throughout, even across midnight, can install {@link Clock#fixed} for its duration.
+ */
+public final class BusinessDate {
+
+    private static volatile BusinessDate current = new BusinessDate(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private volatile Day day;
+
+    public BusinessDate(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Today's date according to the installed clock.
+     */
+    public static LocalDate today() {
+        return current.getDate();
+    }
+
+    public static Clock getClock() {
+        return current.clock;
+    }
+
+    public static void setClock(Clock clock) {
+        current = new BusinessDate(clock);
+    }
+
+    /**
+     * Go back to the system clock in the default time zone.
+     */
+    public static void reset() {
+        setClock(Clock.systemDefaultZone());
+    }
+
+    public LocalDate getDate() {
+        long now = clock.millis();
+        Day cached = day;
+        if (cached == null || now < cached.startMillis || now >= cached.endMillis) {
+            cached = Day.containing(now, clock.getZone());
+            day = cached;
+        }
+        return cached.date;
+    }
+
+    private static final class Day {
+        private final LocalDate date;
+        private final long startMillis;
+        private final long endMillis;
+
+        private Day(LocalDate date, long startMillis, long endMillis) {
+            this.date = date;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+
+        static Day containing(long epochMillis, ZoneId zone) {
+            LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+            long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            long end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            return new Day(date, start, end);
+        }
+    }
+}
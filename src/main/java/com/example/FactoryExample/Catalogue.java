@@ -0,0 +1,246 @@
+package com.example.FactoryExample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * The job titles and bank names the {@link Job} and {@link Bank} constructors accept.
+ * <p>
+ * Building a catalogue compiles each list into a {@link PerfectHash}, so checking a title or bank
+ * name is one hash and one string comparison however many entries there are. The seniority of each
+ * title, whether it names a Senior, Lead or Manager position, and the experience that requires, is
+ * worked out once at build time instead of by substring searches on every construction.
+ * <p>
+ * The catalogue in force is {@link #current()}. {@link #setCurrent} swaps in a new one atomically and
+ * nothing waits. Objects already constructed are not checked again, so a title or bank dropped from
+ * the catalogue stays on the jobs and accounts that have it.
+ */
+public final class Catalogue {
+
+    static final int SENIOR = 1;
+    static final int LEAD = 2;
+    static final int MANAGER = 4;
+    static final int SENIOR_EXPERIENCE = 5;
+    static final int LEAD_EXPERIENCE = 8;
+    static final int MANAGER_EXPERIENCE = 10;
+
+    // The experience a title needs, indexed by its seniority flags
+    private static final int[] MINIMUM_EXPERIENCE = new int[8];
+
+    static {
+        for (int seniority = 0; seniority < MINIMUM_EXPERIENCE.length; seniority++) {
+            int years = 0;
+            if ((seniority & SENIOR) != 0) {
+                years = Math.max(years, SENIOR_EXPERIENCE);
+            }
+            if ((seniority & LEAD) != 0) {
+                years = Math.max(years, LEAD_EXPERIENCE);
+            }
+            if ((seniority & MANAGER) != 0) {
+                years = Math.max(years, MANAGER_EXPERIENCE);
+            }
+            MINIMUM_EXPERIENCE[seniority] = years;
+        }
+    }
+
+    public static final Catalogue STANDARD = builder()
+            .titles(Arrays.asList("Software Engineer", "Senior Software Engineer", "Lead Engineer",
+                    "Engineering Manager", "Data Analyst", "Data Scientist", "Product Manager", "Designer",
+                    "QA Engineer"))
+            .banks(Arrays.asList("Barclays", "HSBC", "Lloyds", "NatWest", "Santander", "Halifax", "Nationwide"))
+            .build();
+
+    private static volatile Catalogue current = STANDARD;
+
+    private final List<String> titles;
+    private final List<String> banks;
+    private final PerfectHash titleIds;
+    private final PerfectHash bankIds;
+    // Indexed by title id
+    private final byte[] seniority;
+
+    private Catalogue(Builder builder) {
+        this.titles = Collections.unmodifiableList(new ArrayList<>(builder.titles));
+        this.banks = Collections.unmodifiableList(new ArrayList<>(builder.banks));
+        this.titleIds = PerfectHash.of(titles);
+        this.bankIds = PerfectHash.of(banks);
+        this.seniority = new byte[titles.size()];
+        for (int id = 0; id < seniority.length; id++) {
+            seniority[id] = (byte) seniority(titles.get(id));
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A builder starting from the titles and banks of {@code base}.
+     */
+    public static Builder builder(Catalogue base) {
+        return new Builder().titles(base.titles).banks(base.banks);
+    }
+
+    /**
+     * The {@link #STANDARD} catalogue with the lists given in {@code properties} replaced. The keys are
+     * {@code catalogue.titles} and {@code catalogue.banks}, each a comma-separated list.
+     */
+    public static Catalogue fromProperties(Properties properties) {
+        Builder builder = builder(STANDARD);
+        for (String key : properties.stringPropertyNames()) {
+            List<String> values = split(properties.getProperty(key));
+            switch (key) {
+                case "catalogue.titles":
+                    builder.titles.clear();
+                    builder.titles(values);
+                    break;
+                case "catalogue.banks":
+                    builder.banks.clear();
+                    builder.banks(values);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown catalogue list: " + key);
+            }
+        }
+        return builder.build();
+    }
+
+    public static Catalogue current() {
+        return current;
+    }
+
+    /**
+     * Put a new catalogue into force for every construction that starts from now on.
+     */
+    public static void setCurrent(Catalogue catalogue) {
+        if (catalogue == null) {
+            throw new IllegalArgumentException("Catalogue cannot be null");
+        }
+        current = catalogue;
+    }
+
+    public List<String> getTitles() {
+        return titles;
+    }
+
+    public List<String> getBanks() {
+        return banks;
+    }
+
+    public boolean isTitle(String title) {
+        return titleIds.id(title) >= 0;
+    }
+
+    public boolean isBank(String bankName) {
+        return bankIds.id(bankName) >= 0;
+    }
+
+    /**
+     * The years of experience {@code title} requires: 5 for Senior, 8 for Lead and 10 for Manager
+     * positions, the largest if it is more than one, and 0 otherwise.
+     */
+    public int getMinimumExperience(String title) {
+        int id = titleIds.id(title);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown job title: " + title);
+        }
+        return MINIMUM_EXPERIENCE[seniority[id]];
+    }
+
+    /**
+     * The id of {@code title}, its index in {@link #getTitles()}, or -1 if it is not in the catalogue.
+     */
+    int titleId(String title) {
+        return titleIds.id(title);
+    }
+
+    int bankId(String bankName) {
+        return bankIds.id(bankName);
+    }
+
+    int seniority(int titleId) {
+        return seniority[titleId];
+    }
+
+    static int minimumExperience(int seniority) {
+        return MINIMUM_EXPERIENCE[seniority];
+    }
+
+    /**
+     * The seniority flags of any title, catalogued or not, by the words it contains.
+     */
+    static int seniority(String title) {
+        int seniority = 0;
+        if (title.contains("Senior")) {
+            seniority |= SENIOR;
+        }
+        if (title.contains("Lead")) {
+            seniority |= LEAD;
+        }
+        if (title.contains("Manager")) {
+            seniority |= MANAGER;
+        }
+        return seniority;
+    }
+
+    private static List<String> split(String list) {
+        List<String> values = new ArrayList<>();
+        for (String value : list.split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    public static final class Builder {
+        private final Set<String> titles = new LinkedHashSet<>();
+        private final Set<String> banks = new LinkedHashSet<>();
+
+        private Builder() {
+        }
+
+        public Builder title(String title) {
+            add(titles, title, "job title");
+            return this;
+        }
+
+        public Builder titles(Collection<String> titles) {
+            for (String title : titles) {
+                title(title);
+            }
+            return this;
+        }
+
+        public Builder bank(String bankName) {
+            add(banks, bankName, "bank name");
+            return this;
+        }
+
+        public Builder banks(Collection<String> bankNames) {
+            for (String bankName : bankNames) {
+                bank(bankName);
+            }
+            return this;
+        }
+
+        public Catalogue build() {
+            return new Catalogue(this);
+        }
+
+        private static void add(Set<String> entries, String value, String what) {
+            if (value == null || value.trim().isEmpty()) {
+                throw new IllegalArgumentException("Catalogue " + what + " cannot be null or empty");
+            }
+            if (!entries.add(value)) {
+                throw new IllegalArgumentException("Duplicate " + what + " in catalogue: " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.FactoryExample;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of credit histories by National Insurance number, in front of another provider.
+ * <p>
+ * An entry is served while its {@code lastChecked} date is at most {@code maxAgeDays} before
+ * {@link BusinessDate#today()}. Reads are a lock-free map lookup. Concurrent misses for one NI number
+ * share a single call to the underlying provider. When the cache is full, a new entry is admitted only
+ * if it has been requested more often than the least frequently requested of a small random sample of
+ * residents, which then makes room. An expired resident in the sample is always evicted. Request
+ * counts are kept approximately in a count-min sketch that is halved periodically so old popularity
+ * fades. Inserts and evictions take a short lock, but only on the miss path, which already pays for a
+ * bureau lookup.
+ */
+public final class CreditHistoryCache implements CreditHistoryProvider {
+
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final CreditHistoryProvider delegate;
+    private final int maximumSize;
+    private final int maxAgeDays;
+    private final ConcurrentHashMap<String, Entry> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<Opportunity.CreditHistory>> loading =
+            new ConcurrentHashMap<>();
+    private final FrequencySketch sketch;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Residents by slot, for uniform sampling; guarded by writeLock
+    private final Entry[] slots;
+    private int size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public CreditHistoryCache(CreditHistoryProvider delegate, int maximumSize, int maxAgeDays) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate provider cannot be null");
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        if (maxAgeDays < 0) {
+            throw new IllegalArgumentException("Max age cannot be negative");
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.maxAgeDays = maxAgeDays;
+        this.entries = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 20));
+        this.sketch = new FrequencySketch(maximumSize);
+        this.slots = new Entry[maximumSize];
+    }
+
+    @Override
+    public Opportunity.CreditHistory fetchCreditHistory(String nationalInsuranceNumber) {
+        if (nationalInsuranceNumber == null) {
+            throw new IllegalArgumentException("National Insurance number cannot be null");
+        }
+        sketch.increment(nationalInsuranceNumber);
+        long oldestFreshDay = BusinessDate.today().toEpochDay() - maxAgeDays;
+        Entry entry = entries.get(nationalInsuranceNumber);
+        if (entry != null) {
+            if (entry.checkedDay >= oldestFreshDay) {
+                hits.increment();
+                return entry.value;
+            }
+            expirations.increment();
+        }
+        misses.increment();
+
+        CompletableFuture<Opportunity.CreditHistory> load = new CompletableFuture<>();
+        CompletableFuture<Opportunity.CreditHistory> inFlight = loading.putIfAbsent(nationalInsuranceNumber, load);
+        if (inFlight != null) {
+            collapsed.increment();
+            return await(inFlight);
+        }
+        try {
+            Opportunity.CreditHistory value = delegate.fetchCreditHistory(nationalInsuranceNumber);
+            if (value != null && value.getLastChecked().toEpochDay() >= oldestFreshDay) {
+                store(nationalInsuranceNumber, value, oldestFreshDay);
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(nationalInsuranceNumber, load);
+        }
+    }
+
+    /**
+     * Drop any cached history for the NI number, e.g. after the bureau reports a change.
+     */
+    public void invalidate(String nationalInsuranceNumber) {
+        writeLock.lock();
+        try {
+            Entry entry = entries.remove(nationalInsuranceNumber);
+            if (entry != null) {
+                removeSlot(entry);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Lookups that went to the underlying provider or joined one already in flight.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Misses that waited on another caller's lookup instead of making their own.
+     */
+    public long getCollapsedLoads() {
+        return collapsed.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Loaded histories not cached because they were requested less often than every eviction candidate.
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CreditHistoryCache[size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", collapsedLoads=" + getCollapsedLoads() + ", expirations=" + getExpirations()
+                + ", evictions=" + getEvictions() + ", rejections=" + getRejections() + "]";
+    }
+
+    private static Opportunity.CreditHistory await(CompletableFuture<Opportunity.CreditHistory> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void store(String nationalInsuranceNumber, Opportunity.CreditHistory value, long oldestFreshDay) {
+        Entry entry = new Entry(nationalInsuranceNumber, value);
+        writeLock.lock();
+        try {
+            Entry previous = entries.get(nationalInsuranceNumber);
+            if (previous != null) {
+                entry.slot = previous.slot;
+                slots[entry.slot] = entry;
+                entries.put(nationalInsuranceNumber, entry);
+                return;
+            }
+            if (size == maximumSize) {
+                Entry victim = sampleVictim(oldestFreshDay);
+                if (victim.checkedDay >= oldestFreshDay
+                        && sketch.frequency(nationalInsuranceNumber) <= sketch.frequency(victim.key)) {
+                    rejections.increment();
+                    return;
+                }
+                entries.remove(victim.key);
+                removeSlot(victim);
+                evictions.increment();
+            }
+            entry.slot = size;
+            slots[size++] = entry;
+            entries.put(nationalInsuranceNumber, entry);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // An expired resident if the sample finds one, else the least frequently requested, oldest check first
+    private Entry sampleVictim(long oldestFreshDay) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Entry victim = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (int i = 0; i < EVICTION_SAMPLE; i++) {
+            Entry candidate = slots[random.nextInt(size)];
+            if (candidate.checkedDay < oldestFreshDay) {
+                return candidate;
+            }
+            int frequency = sketch.frequency(candidate.key);
+            if (frequency < victimFrequency
+                    || (frequency == victimFrequency && candidate.checkedDay < victim.checkedDay)) {
+                victim = candidate;
+                victimFrequency = frequency;
+            }
+        }
+        return victim;
+    }
+
+    private void removeSlot(Entry entry) {
+        Entry last = slots[--size];
+        slots[entry.slot] = last;
+        last.slot = entry.slot;
+        slots[size] = null;
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final Opportunity.CreditHistory value;
+        private final long checkedDay;
+        private int slot;
+
+        Entry(String key, Opportunity.CreditHistory value) {
+            this.key = key;
+            this.value = value;
+            this.checkedDay = value.getLastChecked().toEpochDay();
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters, four per key, sixteen to a long. Every counter is halved
+     * once the sketch has recorded ten increments per cached entry.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0x97cb3127L, 0xc3a5c85cL, 0xb492b66fL, 0x9ae16a3bL
+        };
+        private static final long HALF_MASK = 0x7777777777777777L;
+
+        private final AtomicLongArray table;
+        private final int mask;
+        private final int resetThreshold;
+        private final LongAdder additions = new LongAdder();
+        private final ReentrantLock resetLock = new ReentrantLock();
+
+        FrequencySketch(int maximumSize) {
+            int words = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 26)) - 1) << 1;
+            this.table = new AtomicLongArray(words);
+            this.mask = words - 1;
+            this.resetThreshold = (int) Math.min(Integer.MAX_VALUE, 10L * maximumSize);
+        }
+
+        void increment(String key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = index(hash, i);
+                int shift = shift(hash, i);
+                while (true) {
+                    long word = table.get(index);
+                    if (((word >>> shift) & 0xfL) == 0xfL) {
+                        break;
+                    }
+                    if (table.compareAndSet(index, word, word + (1L << shift))) {
+                        added = true;
+                        break;
+                    }
+                }
+            }
+            if (added) {
+                additions.increment();
+                if (additions.sum() >= resetThreshold && resetLock.tryLock()) {
+                    try {
+                        if (additions.sum() >= resetThreshold) {
+                            halve();
+                        }
+                    } finally {
+                        resetLock.unlock();
+                    }
+                }
+            }
+        }
+
+        int frequency(String key) {
+            int hash = spread(key.hashCode());
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                long word = table.get(index(hash, i));
+                frequency = Math.min(frequency, (int) ((word >>> shift(hash, i)) & 0xfL));
+            }
+            return frequency;
+        }
+
+        private void halve() {
+            for (int i = 0; i < table.length(); i++) {
+                long word;
+                do {
+                    word = table.get(i);
+                } while (!table.compareAndSet(i, word, (word >>> 1) & HALF_MASK));
+            }
+            additions.reset();
+            additions.add(resetThreshold / 2);
+        }
+
+        private int index(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & mask;
+        }
+
+        private static int shift(int hash, int i) {
+            return (((hash >>> (i << 3)) & 3) << 2) + (i << 4);
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.FactoryExample;
+
+/**
+ * Source of an applicant's {@link Opportunity.CreditHistory}, typically a remote credit bureau.
+ * <p>
+ * Implementations may block; {@link OpportunityAssembler} calls them on its own executor.
+ */
+@FunctionalInterface
+public interface CreditHistoryProvider {
+
+    Opportunity.CreditHistory fetchCreditHistory(String nationalInsuranceNumber);
+}
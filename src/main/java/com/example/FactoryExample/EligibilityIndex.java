@@ -0,0 +1,652 @@
+package com.example.FactoryExample;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Portfolio-wide eligibility bitmaps, one per {@link Predicate} plus a bit-sliced age column, so
+ * questions such as "qualifies for a mortgage, under 40, senior and above the minimum balance" are
+ * answered with word-wide AND/OR/NOT instead of a call per opportunity.
+ * <p>
+ * Opportunities get dense ids in the order they are added; {@link #replace} re-evaluates one id in
+ * place. Each bitmap is split into chunks of 65,536 ids held as nothing (no id set), a shared
+ * all-ones marker, or 1,024 words, so predicates that are almost always true or false take almost no
+ * space and evaluate without touching memory.
+ * <p>
+ * Mortgage qualification has a bitmap of its own, evaluated under the {@link LendingRules} in force
+ * and re-evaluated for every id by the first query that uses it after {@link LendingRules#setCurrent}.
+ * <p>
+ * Updates take a write lock. Queries run under an optimistic read of the same {@link StampedLock}
+ * and fall back to a read lock only if an update overlapped them.
+ */
+public final class EligibilityIndex {
+
+    public enum Predicate {
+        ADULT,
+        NOT_OVERDRAWN,
+        SALARY_AT_LEAST_20K,
+        UNDER_66,
+        SENIOR,
+        MINIMUM_BALANCE,
+        DEFAULTS_IN_LAST_YEAR,
+        INSURANCE_ACTIVE;
+
+        boolean test(Opportunity opportunity) {
+            switch (this) {
+                case ADULT:
+                    return opportunity.getPerson().isAdult();
+                case NOT_OVERDRAWN:
+                    return !opportunity.getBank().isOverdrawn();
+                case SALARY_AT_LEAST_20K:
+                    return opportunity.getJob().getSalary().compareTo(MINIMUM_MORTGAGE_SALARY) >= 0;
+                case UNDER_66:
+                    return opportunity.getPerson().getAge() < 66;
+                case SENIOR:
+                    return opportunity.getJob().isSenior();
+                case MINIMUM_BALANCE:
+                    return opportunity.getBank().hasMinimumBalance();
+                case DEFAULTS_IN_LAST_YEAR:
+                    return opportunity.getCreditHistory().hasDefaultsInLastYear();
+                case INSURANCE_ACTIVE:
+                    return opportunity.getInsurance().isActive();
+                default:
+                    throw new AssertionError(this);
+            }
+        }
+    }
+
+    private static final BigDecimal MINIMUM_MORTGAGE_SALARY = new BigDecimal("20000");
+    private static final Predicate[] PREDICATES = Predicate.values();
+    // Ages are 0 to 150, so eight bit slices hold them
+    private static final int AGE_BITS = 8;
+    private static final int QUALIFIES = PREDICATES.length + AGE_BITS;
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_WORDS = 1 << (CHUNK_BITS - 6);
+    private static final long[] FULL = new long[0];
+
+    private final StampedLock lock = new StampedLock();
+    private final Bitmap[] bitmaps = new Bitmap[QUALIFIES + 1];
+    private Opportunity[] opportunities;
+    private int size;
+    // The rules the QUALIFIES bitmap was evaluated under; written under the write lock
+    private volatile LendingRules rules = LendingRules.current();
+
+    public EligibilityIndex() {
+        this.opportunities = new Opportunity[1024];
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmaps[i] = new Bitmap();
+        }
+    }
+
+    public EligibilityIndex(Collection<Opportunity> opportunities) {
+        this();
+        long stamp = lock.writeLock();
+        try {
+            for (Opportunity opportunity : opportunities) {
+                append(opportunity);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Index {@code opportunity} and return its id.
+     */
+    public int add(Opportunity opportunity) {
+        long stamp = lock.writeLock();
+        try {
+            return append(opportunity);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Re-index the opportunity at {@code id}, e.g. after a {@code with*} derivation.
+     */
+    public void replace(int id, Opportunity opportunity) {
+        if (opportunity == null) {
+            throw new IllegalArgumentException("Opportunity cannot be null");
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (id < 0 || id >= size) {
+                throw new IllegalArgumentException("No opportunity with id " + id);
+            }
+            index(id, opportunity);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Opportunity get(int id) {
+        long stamp = lock.readLock();
+        try {
+            if (id < 0 || id >= size) {
+                throw new IllegalArgumentException("No opportunity with id " + id);
+            }
+            return opportunities[id];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public Matches select(Query query) {
+        Program program = query.compile();
+        if (program.qualifies && rules != LendingRules.current()) {
+            requalify();
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Matches matches = evaluate(program);
+                if (lock.validate(stamp)) {
+                    return matches;
+                }
+            } catch (RuntimeException e) {
+                // An overlapping update can leave a torn view; the locked retry below decides
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return evaluate(program);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int count(Query query) {
+        return select(query).count();
+    }
+
+    private int append(Opportunity opportunity) {
+        if (opportunity == null) {
+            throw new IllegalArgumentException("Opportunity cannot be null");
+        }
+        if (size == opportunities.length) {
+            opportunities = Arrays.copyOf(opportunities, size * 2);
+        }
+        int id = size;
+        index(id, opportunity);
+        size = id + 1;
+        return id;
+    }
+
+    private void index(int id, Opportunity opportunity) {
+        opportunities[id] = opportunity;
+        for (Predicate predicate : PREDICATES) {
+            bitmaps[predicate.ordinal()].set(id, predicate.test(opportunity));
+        }
+        int age = opportunity.getPerson().getAge();
+        for (int bit = 0; bit < AGE_BITS; bit++) {
+            bitmaps[PREDICATES.length + bit].set(id, (age >>> bit & 1) != 0);
+        }
+        bitmaps[QUALIFIES].set(id, rules.qualifiesForMortgage(opportunity.getPerson(), opportunity.getJob(),
+                opportunity.getBank()));
+    }
+
+    private void requalify() {
+        long stamp = lock.writeLock();
+        try {
+            LendingRules current = LendingRules.current();
+            if (rules == current) {
+                return;
+            }
+            Bitmap qualifies = bitmaps[QUALIFIES];
+            for (int id = 0; id < size; id++) {
+                Opportunity opportunity = opportunities[id];
+                qualifies.set(id, current.qualifiesForMortgage(opportunity.getPerson(), opportunity.getJob(),
+                        opportunity.getBank()));
+            }
+            rules = current;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private Matches evaluate(Program program) {
+        int n = size;
+        int chunks = (n + (1 << CHUNK_BITS) - 1) >>> CHUNK_BITS;
+        long[][] result = new long[chunks][];
+        int count = 0;
+        Stack stack = new Stack(program.depth);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            stack.run(program.code, bitmaps, chunk);
+            int valid = Math.min(n - (chunk << CHUNK_BITS), 1 << CHUNK_BITS);
+            long[] words;
+            if (stack.kind[0] == Stack.ZERO) {
+                continue;
+            } else if (stack.kind[0] == Stack.ONES) {
+                if (valid == 1 << CHUNK_BITS) {
+                    result[chunk] = FULL;
+                    count += valid;
+                    continue;
+                }
+                words = new long[CHUNK_WORDS];
+                Arrays.fill(words, -1L);
+            } else {
+                words = stack.words[0].clone();
+            }
+            // Bits past the last id are set by NOT; clear them
+            if (valid < 1 << CHUNK_BITS) {
+                int lastWord = (valid - 1) >>> 6;
+                words[lastWord] &= -1L >>> (63 - ((valid - 1) & 63));
+                Arrays.fill(words, lastWord + 1, CHUNK_WORDS, 0L);
+            }
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality != 0) {
+                result[chunk] = cardinality == 1 << CHUNK_BITS ? FULL : words;
+                count += cardinality;
+            }
+        }
+        return new Matches(result, count);
+    }
+
+    /**
+     * One bitmap as chunks of 2^16 ids: null when empty, {@link #FULL} when every id is set, else words.
+     */
+    private static final class Bitmap {
+        private long[][] chunks = new long[1][];
+        private int[] cardinality = new int[1];
+
+        void set(int id, boolean value) {
+            int chunk = id >>> CHUNK_BITS;
+            if (chunk >= chunks.length) {
+                int length = Math.max(chunks.length * 2, chunk + 1);
+                chunks = Arrays.copyOf(chunks, length);
+                cardinality = Arrays.copyOf(cardinality, length);
+            }
+            long[] words = chunks[chunk];
+            int word = (id >>> 6) & (CHUNK_WORDS - 1);
+            long bit = 1L << id;
+            if (value) {
+                if (words == FULL) {
+                    return;
+                }
+                if (words == null) {
+                    words = new long[CHUNK_WORDS];
+                    chunks[chunk] = words;
+                }
+                if ((words[word] & bit) == 0) {
+                    words[word] |= bit;
+                    if (++cardinality[chunk] == 1 << CHUNK_BITS) {
+                        chunks[chunk] = FULL;
+                    }
+                }
+            } else {
+                if (words == null) {
+                    return;
+                }
+                if (words == FULL) {
+                    words = new long[CHUNK_WORDS];
+                    Arrays.fill(words, -1L);
+                    chunks[chunk] = words;
+                }
+                if ((words[word] & bit) != 0) {
+                    words[word] &= ~bit;
+                    if (--cardinality[chunk] == 0) {
+                        chunks[chunk] = null;
+                    }
+                }
+            }
+        }
+
+        long[] chunk(int chunk) {
+            long[][] current = chunks;
+            return chunk < current.length ? current[chunk] : null;
+        }
+    }
+
+    /**
+     * A query compiled to postfix: leaf indexes are non-negative, operators negative.
+     */
+    private static final class Program {
+        static final int AND = -1;
+        static final int OR = -2;
+        static final int NOT = -3;
+        static final int ALL = -4;
+        static final int NONE = -5;
+        static final int AND_NOT = -6;
+
+        final int[] code;
+        final int depth;
+        final boolean qualifies;
+
+        Program(int[] code, int depth) {
+            this.code = code;
+            this.depth = depth;
+            boolean found = false;
+            for (int op : code) {
+                found |= op == QUALIFIES;
+            }
+            this.qualifies = found;
+        }
+    }
+
+    /**
+     * Evaluates a program over one chunk. Each slot is all zeros, all ones, or words; leaf words are
+     * read straight from the bitmap and operators write into the slot's own buffer.
+     */
+    private static final class Stack {
+        static final byte ZERO = 0;
+        static final byte ONES = 1;
+        static final byte WORDS = 2;
+
+        final byte[] kind;
+        final long[][] words;
+        final long[][] buffers;
+
+        Stack(int depth) {
+            this.kind = new byte[depth];
+            this.words = new long[depth][];
+            this.buffers = new long[depth][CHUNK_WORDS];
+        }
+
+        void run(int[] code, Bitmap[] bitmaps, int chunk) {
+            int sp = 0;
+            for (int op : code) {
+                if (op >= 0) {
+                    long[] container = bitmaps[op].chunk(chunk);
+                    kind[sp] = container == null ? ZERO : container == FULL ? ONES : WORDS;
+                    words[sp++] = container;
+                } else if (op == Program.ALL || op == Program.NONE) {
+                    kind[sp++] = op == Program.ALL ? ONES : ZERO;
+                } else if (op == Program.NOT) {
+                    not(sp - 1);
+                } else if (op == Program.AND_NOT) {
+                    sp--;
+                    andNot(sp - 1, sp);
+                } else {
+                    sp--;
+                    combine(op == Program.AND, sp - 1, sp);
+                }
+            }
+        }
+
+        private void not(int a) {
+            if (kind[a] != WORDS) {
+                kind[a] = kind[a] == ZERO ? ONES : ZERO;
+                return;
+            }
+            long[] in = words[a];
+            long[] out = buffers[a];
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                out[i] = ~in[i];
+            }
+            words[a] = out;
+        }
+
+        // a & ~b in one pass, so the NOTs in range queries do not cost a pass of their own
+        private void andNot(int a, int b) {
+            if (kind[a] == ZERO || kind[b] == ZERO) {
+                return;
+            }
+            if (kind[b] == ONES) {
+                kind[a] = ZERO;
+                return;
+            }
+            if (kind[a] == ONES) {
+                not(b);
+                long[] negated = buffers[b];
+                buffers[b] = buffers[a];
+                buffers[a] = negated;
+                kind[a] = WORDS;
+                words[a] = negated;
+                return;
+            }
+            long[] left = words[a];
+            long[] right = words[b];
+            long[] out = buffers[a];
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                out[i] = left[i] & ~right[i];
+            }
+            words[a] = out;
+        }
+
+        private void combine(boolean and, int a, int b) {
+            byte absorbing = and ? ZERO : ONES;
+            byte identity = and ? ONES : ZERO;
+            if (kind[a] == absorbing || kind[b] == identity) {
+                return;
+            }
+            if (kind[b] == absorbing || kind[a] == identity) {
+                kind[a] = kind[b];
+                if (words[b] == buffers[b]) {
+                    // Take over b's buffer, since slot b will be overwritten by the next push
+                    buffers[b] = buffers[a];
+                    buffers[a] = words[b];
+                }
+                words[a] = words[b];
+                return;
+            }
+            long[] left = words[a];
+            long[] right = words[b];
+            long[] out = buffers[a];
+            if (and) {
+                for (int i = 0; i < CHUNK_WORDS; i++) {
+                    out[i] = left[i] & right[i];
+                }
+            } else {
+                for (int i = 0; i < CHUNK_WORDS; i++) {
+                    out[i] = left[i] | right[i];
+                }
+            }
+            words[a] = out;
+        }
+    }
+
+    /**
+     * A combination of predicates and age bounds. Queries are immutable and can be reused.
+     */
+    public static final class Query {
+        private static final int LEAF = 0;
+        private static final int AND = 1;
+        private static final int OR = 2;
+        private static final int NOT = 3;
+        private static final int ALL = 4;
+        private static final int NONE = 5;
+
+        private static final Query EVERYONE = new Query(ALL, -1, null, null);
+        private static final Query NO_ONE = new Query(NONE, -1, null, null);
+        private static final Query QUALIFIES_FOR_MORTGAGE = new Query(LEAF, QUALIFIES, null, null);
+
+        private final int op;
+        private final int leaf;
+        private final Query left;
+        private final Query right;
+
+        private Query(int op, int leaf, Query left, Query right) {
+            this.op = op;
+            this.leaf = leaf;
+            this.left = left;
+            this.right = right;
+        }
+
+        public static Query is(Predicate predicate) {
+            if (predicate == null) {
+                throw new IllegalArgumentException("Predicate cannot be null");
+            }
+            return new Query(LEAF, predicate.ordinal(), null, null);
+        }
+
+        public static Query everyone() {
+            return EVERYONE;
+        }
+
+        /**
+         * Same criteria as {@link Opportunity#qualifiesForMortgage()}, under the {@link LendingRules} in
+         * force when the query is selected.
+         */
+        public static Query qualifiesForMortgage() {
+            return QUALIFIES_FOR_MORTGAGE;
+        }
+
+        /**
+         * Age strictly below {@code age}, evaluated over the age bit slices from the top bit down.
+         */
+        public static Query ageBelow(int age) {
+            if (age <= 0) {
+                return NO_ONE;
+            }
+            if (age >= 1 << AGE_BITS) {
+                return EVERYONE;
+            }
+            Query below = NO_ONE;
+            Query equal = EVERYONE;
+            for (int bit = AGE_BITS - 1; bit >= 0; bit--) {
+                Query slice = new Query(LEAF, PREDICATES.length + bit, null, null);
+                if ((age >>> bit & 1) != 0) {
+                    below = below.or(equal.and(slice.not()));
+                    equal = equal.and(slice);
+                } else {
+                    equal = equal.and(slice.not());
+                }
+            }
+            return below;
+        }
+
+        public static Query ageAtLeast(int age) {
+            return ageBelow(age).not();
+        }
+
+        public Query and(Query other) {
+            if (this == NO_ONE || other == NO_ONE) {
+                return NO_ONE;
+            }
+            if (this == EVERYONE) {
+                return other;
+            }
+            return other == EVERYONE ? this : new Query(AND, -1, this, other);
+        }
+
+        public Query or(Query other) {
+            if (this == EVERYONE || other == EVERYONE) {
+                return EVERYONE;
+            }
+            if (this == NO_ONE) {
+                return other;
+            }
+            return other == NO_ONE ? this : new Query(OR, -1, this, other);
+        }
+
+        public Query not() {
+            if (this == EVERYONE) {
+                return NO_ONE;
+            }
+            if (this == NO_ONE) {
+                return EVERYONE;
+            }
+            return op == NOT ? left : new Query(NOT, -1, this, null);
+        }
+
+        Program compile() {
+            int[] code = new int[nodes()];
+            int[] depth = new int[1];
+            int length = emit(code, 0, 0, depth);
+            return new Program(Arrays.copyOf(code, length), depth[0]);
+        }
+
+        private int nodes() {
+            return 1 + (left == null ? 0 : left.nodes()) + (right == null ? 0 : right.nodes());
+        }
+
+        // Postfix order; returns the next free position and tracks the deepest stack reached
+        private int emit(int[] code, int position, int height, int[] depth) {
+            switch (op) {
+                case LEAF:
+                case ALL:
+                case NONE:
+                    depth[0] = Math.max(depth[0], height + 1);
+                    code[position] = op == LEAF ? leaf : op == ALL ? Program.ALL : Program.NONE;
+                    return position + 1;
+                case NOT:
+                    position = left.emit(code, position, height, depth);
+                    code[position] = Program.NOT;
+                    return position + 1;
+                default:
+                    if (op == AND && (right.op == NOT || left.op == NOT)) {
+                        Query kept = right.op == NOT ? left : right;
+                        Query negated = right.op == NOT ? right.left : left.left;
+                        position = kept.emit(code, position, height, depth);
+                        position = negated.emit(code, position, height + 1, depth);
+                        code[position] = Program.AND_NOT;
+                        return position + 1;
+                    }
+                    position = left.emit(code, position, height, depth);
+                    position = right.emit(code, position, height + 1, depth);
+                    code[position] = op == AND ? Program.AND : Program.OR;
+                    return position + 1;
+            }
+        }
+    }
+
+    /**
+     * The ids a query matched, held in the same chunked form as the index.
+     */
+    public static final class Matches {
+        private final long[][] chunks;
+        private final int count;
+
+        private Matches(long[][] chunks, int count) {
+            this.chunks = chunks;
+            this.count = count;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public boolean contains(int id) {
+            int chunk = id >>> CHUNK_BITS;
+            if (id < 0 || chunk >= chunks.length || chunks[chunk] == null) {
+                return false;
+            }
+            long[] words = chunks[chunk];
+            return words == FULL || (words[(id >>> 6) & (CHUNK_WORDS - 1)] & 1L << id) != 0;
+        }
+
+        /**
+         * Visit the matching ids in ascending order.
+         */
+        public void forEach(IntConsumer action) {
+            for (int chunk = 0; chunk < chunks.length; chunk++) {
+                long[] words = chunks[chunk];
+                int base = chunk << CHUNK_BITS;
+                if (words == FULL) {
+                    for (int i = 0; i < 1 << CHUNK_BITS; i++) {
+                        action.accept(base + i);
+                    }
+                } else if (words != null) {
+                    for (int w = 0; w < CHUNK_WORDS; w++) {
+                        for (long word = words[w]; word != 0; word &= word - 1) {
+                            action.accept(base + (w << 6) + Long.numberOfTrailingZeros(word));
+                        }
+                    }
+                }
+            }
+        }
+
+        public int[] toArray() {
+            int[] ids = new int[count];
+            int[] next = new int[1];
+            forEach(id -> ids[next[0]++] = id);
+            return ids;
+        }
+    }
+}
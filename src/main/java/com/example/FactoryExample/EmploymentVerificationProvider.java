@@ -0,0 +1,12 @@
+package com.example.FactoryExample;
+
+/**
+ * Source of an applicant's {@link Opportunity.EmploymentVerification}, typically a remote employer check.
+ * <p>
+ * Implementations may block; {@link OpportunityAssembler} calls them on its own executor.
+ */
+@FunctionalInterface
+public interface EmploymentVerificationProvider {
+
+    Opportunity.EmploymentVerification fetchEmploymentVerification(String nationalInsuranceNumber);
+}
@@ -0,0 +1,146 @@
+package com.example.FactoryExample;
+
+/**
+ * Hand-written scanners for the formats the constructors check, accepting exactly what these
+ * patterns match with {@link java.util.regex.Matcher#matches()}:
+ * <pre>
+ * National Insurance number  ^[A-Z]{2}[0-9]{6}[A-Z]$
+ * account number             ^\d{8}$
+ * sort code                  ^\d{2}-\d{2}-\d{2}$
+ * phone number               ^\+?[0-9]{10,15}$
+ * email                      ^[A-Za-z0-9+_.-]+@(.+)$
+ * </pre>
+ * Nothing is allocated. Each format has a {@link CharSequence} form and a form over a slice of UTF-8
+ * bytes, so fields can be checked in a raw ingest buffer before any String is made. In the email
+ * domain, {@code .} matches any character but a line terminator ({@code \n}, {@code \r},
+ * U+0085, U+2028, U+2029); the byte form assumes well-formed UTF-8.
+ */
+public final class FieldValidators {
+
+    private FieldValidators() {
+    }
+
+    public static boolean isNationalInsuranceNumber(CharSequence value) {
+        if (value.length() != 9) {
+            return false;
+        }
+        return isUpper(value.charAt(0)) && isUpper(value.charAt(1)) && isDigits(value, 2, 8)
+                && isUpper(value.charAt(8));
+    }
+
+    public static boolean isNationalInsuranceNumber(byte[] bytes, int offset, int length) {
+        if (length != 9) {
+            return false;
+        }
+        return isUpper(bytes[offset]) && isUpper(bytes[offset + 1]) && isDigits(bytes, offset + 2, offset + 8)
+                && isUpper(bytes[offset + 8]);
+    }
+
+    public static boolean isAccountNumber(CharSequence value) {
+        return value.length() == 8 && isDigits(value, 0, 8);
+    }
+
+    public static boolean isAccountNumber(byte[] bytes, int offset, int length) {
+        return length == 8 && isDigits(bytes, offset, offset + 8);
+    }
+
+    public static boolean isSortCode(CharSequence value) {
+        return value.length() == 8 && isDigits(value, 0, 2) && value.charAt(2) == '-' && isDigits(value, 3, 5)
+                && value.charAt(5) == '-' && isDigits(value, 6, 8);
+    }
+
+    public static boolean isSortCode(byte[] bytes, int offset, int length) {
+        return length == 8 && isDigits(bytes, offset, offset + 2) && bytes[offset + 2] == '-'
+                && isDigits(bytes, offset + 3, offset + 5) && bytes[offset + 5] == '-'
+                && isDigits(bytes, offset + 6, offset + 8);
+    }
+
+    public static boolean isPhoneNumber(CharSequence value) {
+        int from = value.length() > 0 && value.charAt(0) == '+' ? 1 : 0;
+        int digits = value.length() - from;
+        return digits >= 10 && digits <= 15 && isDigits(value, from, value.length());
+    }
+
+    public static boolean isPhoneNumber(byte[] bytes, int offset, int length) {
+        int from = length > 0 && bytes[offset] == '+' ? offset + 1 : offset;
+        int digits = offset + length - from;
+        return digits >= 10 && digits <= 15 && isDigits(bytes, from, offset + length);
+    }
+
+    /**
+     * One or more of {@code A-Z a-z 0-9 + _ . -}, an {@code @}, then at least one character up to the
+     * end with no line terminator. The domain may itself contain {@code @}.
+     */
+    public static boolean isEmail(CharSequence value) {
+        int length = value.length();
+        int at = 0;
+        while (at < length && isLocal(value.charAt(at))) {
+            at++;
+        }
+        if (at == 0 || at >= length - 1 || value.charAt(at) != '@') {
+            return false;
+        }
+        for (int i = at + 1; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isEmail(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int at = offset;
+        while (at < end && isLocal(bytes[at])) {
+            at++;
+        }
+        if (at == offset || at >= end - 1 || bytes[at] != '@') {
+            return false;
+        }
+        for (int i = at + 1; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '\n' || b == '\r') {
+                return false;
+            }
+            // U+0085 is C2 85; U+2028 and U+2029 are E2 80 A8 and E2 80 A9
+            if (b == (byte) 0xC2 && i + 1 < end && bytes[i + 1] == (byte) 0x85) {
+                return false;
+            }
+            if (b == (byte) 0xE2 && i + 2 < end && bytes[i + 1] == (byte) 0x80
+                    && (bytes[i + 2] == (byte) 0xA8 || bytes[i + 2] == (byte) 0xA9)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(CharSequence value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b < '0' || b > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isUpper(int c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLocal(int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+}
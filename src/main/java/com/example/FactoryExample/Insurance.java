@@ -12,19 +12,62 @@ public class Insurance {
     private final BigDecimal monthlyCost;
     private final boolean active;
 
+    private static final BigDecimal MAX_MONTHLY_COST = new BigDecimal("10000");
+    private static final ValidationResult<Rule> VALID = new ValidationResult<>(Rule.VALUES, 0);
+    private static final Interner<Insurance> INTERNED = new Interner<>(1 << 12);
+
     public Insurance(InsuranceType type, BigDecimal monthlyCost, boolean active) {
+        this(type, monthlyCost, active, violations(type, monthlyCost));
+    }
+
+    private Insurance(InsuranceType type, BigDecimal monthlyCost, boolean active, long violations) {
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
+        }
+
+        this.type = type;
+        this.monthlyCost = monthlyCost;
+        this.active = active;
+    }
+
+    /**
+     * Check every constructor rule without throwing, reporting all the rules the arguments break.
+     */
+    public static ValidationResult<Rule> validate(InsuranceType type, BigDecimal monthlyCost, boolean active) {
+        long violations = violations(type, monthlyCost);
+        return violations == 0 ? VALID : new ValidationResult<>(Rule.VALUES, violations);
+    }
+
+    private static long violations(InsuranceType type, BigDecimal monthlyCost) {
+        long violations = 0;
         if (type == null) {
-            throw new IllegalArgumentException("Insurance type cannot be null");
+            violations |= Rule.TYPE_REQUIRED.bit();
         }
         if (monthlyCost == null || monthlyCost.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Monthly cost must be non-negative");
+            violations |= Rule.MONTHLY_COST_NOT_NEGATIVE.bit();
+        } else if (monthlyCost.compareTo(MAX_MONTHLY_COST) > 0) {
+            violations |= Rule.MONTHLY_COST_LIMIT.bit();
+        }
+        return violations;
+    }
+
+    public enum Rule implements ValidationRule {
+        TYPE_REQUIRED("Insurance type cannot be null"),
+        MONTHLY_COST_NOT_NEGATIVE("Monthly cost must be non-negative"),
+        MONTHLY_COST_LIMIT("Monthly cost cannot exceed £10,000");
+
+        private static final Rule[] VALUES = values();
+
+        private final String message;
+
+        Rule(String message) {
+            this.message = message;
         }
-        if (monthlyCost.compareTo(new BigDecimal("10000")) > 0) {
-            throw new IllegalArgumentException("Monthly cost cannot exceed £10,000");
+
+        @Override
+        public String getMessage() {
+            return message;
         }
-        this.type = type;
-        this.monthlyCost = monthlyCost;
-        this.active = active;
     }
 
     public InsuranceType getType() {
@@ -38,5 +81,37 @@ public class Insurance {
     public boolean isActive() {
         return active;
     }
+
+    /**
+     * The shared instance equal to {@code new Insurance(type, monthlyCost, active)}. Costs are compared
+     * with {@link BigDecimal#equals}, so 100 and 100.00 stay distinct.
+     */
+    public static Insurance of(InsuranceType type, BigDecimal monthlyCost, boolean active) {
+        return INTERNED.intern(new Insurance(type, monthlyCost, active));
+    }
+
+    /**
+     * {@link #of} for arguments that have already passed {@link #validate}. No rule is checked again.
+     */
+    static Insurance trusted(InsuranceType type, BigDecimal monthlyCost, boolean active) {
+        return INTERNED.intern(new Insurance(type, monthlyCost, active, 0));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Insurance other = (Insurance) o;
+        return type == other.type && monthlyCost.equals(other.monthlyCost) && active == other.active;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * type.hashCode() + monthlyCost.hashCode()) + (active ? 1 : 0);
+    }
 }
 
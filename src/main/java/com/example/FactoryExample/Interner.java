@@ -0,0 +1,36 @@
+package com.example.FactoryExample;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded table of canonical instances of an immutable value type with value-based equals/hashCode.
+ * <p>
+ * Once the table is full, new values are returned as given instead of being added, so a stream of
+ * one-off values cannot grow it without limit; the values already canonical keep being shared.
+ */
+final class Interner<T> {
+
+    private final ConcurrentHashMap<T, T> canonical;
+    private final int maximumSize;
+
+    Interner(int maximumSize) {
+        this.canonical = new ConcurrentHashMap<>();
+        this.maximumSize = maximumSize;
+    }
+
+    T intern(T value) {
+        T existing = canonical.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (canonical.size() >= maximumSize) {
+            return value;
+        }
+        existing = canonical.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    int size() {
+        return canonical.size();
+    }
+}
@@ -2,13 +2,12 @@ package com.example.FactoryExample;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Arrays;
-import java.util.List;
 
 public class Job {
     private final String title;
     private final String company;
     private final BigDecimal salary;
+    private final long salaryPence;
     private final int yearsExperience;
     private final EmploymentType employmentType;
     private final Department department;
@@ -17,72 +16,184 @@ public class Job {
 
     private static final BigDecimal MIN_SALARY = new BigDecimal("18000");
     private static final BigDecimal MAX_SALARY = new BigDecimal("500000");
-    private static final List<String> VALID_TITLES = Arrays.asList(
-            "Software Engineer", "Senior Software Engineer", "Lead Engineer", "Engineering Manager",
-            "Data Analyst", "Data Scientist", "Product Manager", "Designer", "QA Engineer"
-    );
+    private static final Department DEFAULT_DEPARTMENT = Department.of("General", "GEN");
+    private static final Contract DEFAULT_CONTRACT = Contract.of(12, true);
+    private static final ValidationResult<Rule> VALID = new ValidationResult<>(Rule.VALUES, 0);
 
     public Job(String title, String company, BigDecimal salary, int yearsExperience,
                EmploymentType employmentType, Department department, LocalDate startDate,
                Contract contract) {
+        this(title, company, salary, yearsExperience, employmentType, department, startDate, contract,
+                violations(title, company, salary, yearsExperience, employmentType, department, startDate,
+                        contract));
+    }
+
+    private Job(String title, String company, BigDecimal salary, int yearsExperience,
+                EmploymentType employmentType, Department department, LocalDate startDate,
+                Contract contract, long violations) {
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
+        }
+
+        this.title = title;
+        this.company = company;
+        this.salary = salary;
+        this.salaryPence = Money.ofPounds(salary);
+        this.yearsExperience = yearsExperience;
+        this.employmentType = employmentType;
+        this.department = department;
+        this.startDate = startDate;
+        this.contract = contract;
+    }
+
+    // Derivation of an already valid job; the with* methods check the rules on the fields they change
+    private Job(Job base, BigDecimal salary, int yearsExperience) {
+        this.title = base.title;
+        this.company = base.company;
+        this.salary = salary;
+        this.salaryPence = salary == base.salary ? base.salaryPence : Money.ofPounds(salary);
+        this.yearsExperience = yearsExperience;
+        this.employmentType = base.employmentType;
+        this.department = base.department;
+        this.startDate = base.startDate;
+        this.contract = base.contract;
+    }
+
+    public Job(String title, String company, BigDecimal salary) {
+        this(title, company, salary, 0, EmploymentType.FULL_TIME,
+                DEFAULT_DEPARTMENT, BusinessDate.today(), DEFAULT_CONTRACT);
+    }
+
+    public Job(String title, String company) {
+        this(title, company, MIN_SALARY, 0, EmploymentType.FULL_TIME,
+                DEFAULT_DEPARTMENT, BusinessDate.today(), DEFAULT_CONTRACT);
+    }
+
+    /**
+     * A job from arguments already known to be valid, because they passed {@link #validate} or were
+     * read back from storage. No rule is checked again, so a title dropped from the catalogue since a
+     * job was stored does not make it unreadable.
+     */
+    static Job trusted(String title, String company, BigDecimal salary, int yearsExperience,
+                       EmploymentType employmentType, Department department, LocalDate startDate,
+                       Contract contract) {
+        return new Job(title, company, salary, yearsExperience, employmentType, department, startDate, contract,
+                0);
+    }
+
+    /**
+     * Check every constructor rule without throwing, reporting all the rules the arguments break.
+     */
+    public static ValidationResult<Rule> validate(String title, String company, BigDecimal salary, int yearsExperience,
+                                                  EmploymentType employmentType, Department department,
+                                                  LocalDate startDate, Contract contract) {
+        long violations = violations(title, company, salary, yearsExperience, employmentType, department, startDate,
+                contract);
+        return violations == 0 ? VALID : new ValidationResult<>(Rule.VALUES, violations);
+    }
+
+    private static long violations(String title, String company, BigDecimal salary, int yearsExperience,
+                                   EmploymentType employmentType, Department department, LocalDate startDate,
+                                   Contract contract) {
+        long violations = 0;
         if (title == null || title.trim().isEmpty()) {
-            throw new IllegalArgumentException("Job title cannot be null or empty");
+            violations |= Rule.TITLE_REQUIRED.bit();
         }
-        if (!VALID_TITLES.contains(title)) {
-            throw new IllegalArgumentException("Invalid job title. Must be one of: " + VALID_TITLES);
+        Catalogue catalogue = Catalogue.current();
+        int titleId = catalogue.titleId(title);
+        if (titleId < 0) {
+            violations |= Rule.TITLE_UNKNOWN.bit();
         }
         if (company == null || company.trim().isEmpty()) {
-            throw new IllegalArgumentException("Company cannot be null or empty");
-        }
-        if (salary == null || salary.compareTo(MIN_SALARY) < 0 || salary.compareTo(MAX_SALARY) > 0) {
-            throw new IllegalArgumentException("Salary must be between " + MIN_SALARY + " and " + MAX_SALARY);
-        }
-        if (yearsExperience < 0 || yearsExperience > 70) {
-            throw new IllegalArgumentException("Years of experience must be between 0 and 70");
+            violations |= Rule.COMPANY_REQUIRED.bit();
         }
+        violations |= salaryViolations(salary);
+        violations |= experienceViolations(titleId >= 0 ? catalogue.seniority(titleId) : seniority(title),
+                yearsExperience);
         if (employmentType == null) {
-            throw new IllegalArgumentException("Employment type cannot be null");
+            violations |= Rule.EMPLOYMENT_TYPE_REQUIRED.bit();
         }
         if (department == null) {
-            throw new IllegalArgumentException("Department cannot be null");
+            violations |= Rule.DEPARTMENT_REQUIRED.bit();
         }
         if (startDate == null) {
-            throw new IllegalArgumentException("Start date cannot be null");
-        }
-        if (startDate.isAfter(LocalDate.now())) {
-            throw new IllegalArgumentException("Start date cannot be in the future");
+            violations |= Rule.START_DATE_REQUIRED.bit();
+        } else if (startDate.isAfter(BusinessDate.today())) {
+            violations |= Rule.START_DATE_NOT_FUTURE.bit();
         }
         if (contract == null) {
-            throw new IllegalArgumentException("Contract cannot be null");
-        }
-        if (title.contains("Senior") && yearsExperience < 5) {
-            throw new IllegalArgumentException("Senior positions require at least 5 years of experience");
-        }
-        if (title.contains("Lead") && yearsExperience < 8) {
-            throw new IllegalArgumentException("Lead positions require at least 8 years of experience");
+            violations |= Rule.CONTRACT_REQUIRED.bit();
         }
-        if (title.contains("Manager") && yearsExperience < 10) {
-            throw new IllegalArgumentException("Manager positions require at least 10 years of experience");
+        return violations;
+    }
+
+    private static long salaryViolations(BigDecimal salary) {
+        if (salary == null || salary.compareTo(MIN_SALARY) < 0 || salary.compareTo(MAX_SALARY) > 0) {
+            return Rule.SALARY_RANGE.bit();
         }
+        return 0;
+    }
 
-        this.title = title;
-        this.company = company;
-        this.salary = salary;
-        this.yearsExperience = yearsExperience;
-        this.employmentType = employmentType;
-        this.department = department;
-        this.startDate = startDate;
-        this.contract = contract;
+    private static int seniority(String title) {
+        return title == null ? 0 : Catalogue.seniority(title);
     }
 
-    public Job(String title, String company, BigDecimal salary) {
-        this(title, company, salary, 0, EmploymentType.FULL_TIME,
-                new Department("General", "GEN"), LocalDate.now(), new Contract(12, true));
+    private static long experienceViolations(int seniority, int yearsExperience) {
+        long violations = 0;
+        if (yearsExperience < 0 || yearsExperience > 70) {
+            violations |= Rule.EXPERIENCE_RANGE.bit();
+        }
+        if (yearsExperience < Catalogue.minimumExperience(seniority)) {
+            if ((seniority & Catalogue.SENIOR) != 0 && yearsExperience < Catalogue.SENIOR_EXPERIENCE) {
+                violations |= Rule.SENIOR_EXPERIENCE.bit();
+            }
+            if ((seniority & Catalogue.LEAD) != 0 && yearsExperience < Catalogue.LEAD_EXPERIENCE) {
+                violations |= Rule.LEAD_EXPERIENCE.bit();
+            }
+            if ((seniority & Catalogue.MANAGER) != 0 && yearsExperience < Catalogue.MANAGER_EXPERIENCE) {
+                violations |= Rule.MANAGER_EXPERIENCE.bit();
+            }
+        }
+        return violations;
     }
 
-    public Job(String title, String company) {
-        this(title, company, MIN_SALARY, 0, EmploymentType.FULL_TIME,
-                new Department("General", "GEN"), LocalDate.now(), new Contract(12, true));
+    public enum Rule implements ValidationRule {
+        TITLE_REQUIRED("Job title cannot be null or empty"),
+        TITLE_UNKNOWN(null) {
+            @Override
+            public String getMessage() {
+                return "Invalid job title. Must be one of: " + Catalogue.current().getTitles();
+            }
+        },
+        COMPANY_REQUIRED("Company cannot be null or empty"),
+        SALARY_RANGE(null) {
+            @Override
+            public String getMessage() {
+                return "Salary must be between " + MIN_SALARY + " and " + MAX_SALARY;
+            }
+        },
+        EXPERIENCE_RANGE("Years of experience must be between 0 and 70"),
+        EMPLOYMENT_TYPE_REQUIRED("Employment type cannot be null"),
+        DEPARTMENT_REQUIRED("Department cannot be null"),
+        START_DATE_REQUIRED("Start date cannot be null"),
+        START_DATE_NOT_FUTURE("Start date cannot be in the future"),
+        CONTRACT_REQUIRED("Contract cannot be null"),
+        SENIOR_EXPERIENCE("Senior positions require at least 5 years of experience"),
+        LEAD_EXPERIENCE("Lead positions require at least 8 years of experience"),
+        MANAGER_EXPERIENCE("Manager positions require at least 10 years of experience");
+
+        private static final Rule[] VALUES = values();
+
+        private final String message;
+
+        Rule(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
     }
 
     public enum EmploymentType {
@@ -90,6 +201,8 @@ public class Job {
     }
 
     public static class Department {
+        private static final Interner<Department> INTERNED = new Interner<>(1 << 14);
+
         private final String name;
         private final String code;
 
@@ -111,14 +224,49 @@ public class Job {
         public String getCode() {
             return code;
         }
+
+        /**
+         * The shared instance equal to {@code new Department(name, code)}.
+         */
+        public static Department of(String name, String code) {
+            return INTERNED.intern(new Department(name, code));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Department other = (Department) o;
+            return name.equals(other.name) && code.equals(other.code);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + code.hashCode();
+        }
     }
 
     public static class Contract {
+        private static final int MAX_DURATION_MONTHS = 120;
+        // Every valid contract, indexed by (durationMonths - 1) * 2 + (renewable ? 1 : 0)
+        private static final Contract[] CANONICAL = new Contract[MAX_DURATION_MONTHS * 2];
+
+        static {
+            for (int months = 1; months <= MAX_DURATION_MONTHS; months++) {
+                CANONICAL[(months - 1) * 2] = new Contract(months, false);
+                CANONICAL[(months - 1) * 2 + 1] = new Contract(months, true);
+            }
+        }
+
         private final int durationMonths;
         private final boolean renewable;
 
         public Contract(int durationMonths, boolean renewable) {
-            if (durationMonths <= 0 || durationMonths > 120) {
+            if (durationMonths <= 0 || durationMonths > MAX_DURATION_MONTHS) {
                 throw new IllegalArgumentException("Contract duration must be between 1 and 120 months");
             }
             this.durationMonths = durationMonths;
@@ -132,6 +280,33 @@ public class Job {
         public boolean isRenewable() {
             return renewable;
         }
+
+        /**
+         * The shared instance equal to {@code new Contract(durationMonths, renewable)}.
+         */
+        public static Contract of(int durationMonths, boolean renewable) {
+            if (durationMonths <= 0 || durationMonths > MAX_DURATION_MONTHS) {
+                throw new IllegalArgumentException("Contract duration must be between 1 and 120 months");
+            }
+            return CANONICAL[(durationMonths - 1) * 2 + (renewable ? 1 : 0)];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Contract other = (Contract) o;
+            return durationMonths == other.durationMonths && renewable == other.renewable;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * durationMonths + (renewable ? 1 : 0);
+        }
     }
 
     public String getTitle() {
@@ -146,10 +321,33 @@ public class Job {
         return salary;
     }
 
+    /**
+     * Salary in whole pence, rounded HALF_UP if the salary carries a sub-penny fraction.
+     */
+    public long getSalaryPence() {
+        return salaryPence;
+    }
+
     public int getYearsExperience() {
         return yearsExperience;
     }
 
+    public EmploymentType getEmploymentType() {
+        return employmentType;
+    }
+
+    public Department getDepartment() {
+        return department;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public Contract getContract() {
+        return contract;
+    }
+
     public boolean isEntryLevel() {
         return yearsExperience < 2;
     }
@@ -158,6 +356,29 @@ public class Job {
         return yearsExperience >= 5;
     }
 
+    /**
+     * This job with a different salary. Only the salary range is checked; everything else is shared.
+     */
+    public Job withSalary(BigDecimal salary) {
+        long violations = salaryViolations(salary);
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
+        }
+        return new Job(this, salary, yearsExperience);
+    }
+
+    /**
+     * This job with different experience. Only the experience range and the title's seniority
+     * requirements are checked.
+     */
+    public Job withYearsExperience(int yearsExperience) {
+        long violations = experienceViolations(seniority(title), yearsExperience);
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
+        }
+        return new Job(this, salary, yearsExperience);
+    }
+
     public BigDecimal calculateAnnualBonus() {
         if (yearsExperience >= 10) {
             return salary.multiply(new BigDecimal("0.15"));
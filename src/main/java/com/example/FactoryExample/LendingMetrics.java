@@ -0,0 +1,280 @@
+package com.example.FactoryExample;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in counters of constructor rule rejections and latency histograms of the {@link Opportunity}
+ * calculations, exported in the Prometheus text format.
+ * <p>
+ * Off by default; start the JVM with {@code -Dlending.metrics=true} or call {@link #enable()}. While
+ * disabled, each hook is a single volatile read and branch, with no clock reads or allocation.
+ * Counters and histogram buckets are {@link LongAdder}s, so concurrent recording does not contend on
+ * one cache line.
+ * <p>
+ * Rejections count the rule a constructor or {@link ValidationResult#throwIfInvalid()} throws for.
+ * Violations count every rule reported by the {@code validate} methods, which is how the ingestor
+ * screens records. Calculation latencies are taken while an {@link OpportunityAssessment} is built,
+ * so cached figures are not timed again.
+ */
+public final class LendingMetrics {
+
+    public enum Calculation {
+        UK_TAX_PAID, NATIONAL_INSURANCE, MAXIMUM_MORTGAGE, MAXIMUM_MONTHLY_SPEND, DISPOSABLE_INCOME,
+        EFFECTIVE_TAX_RATE, QUALIFIES_FOR_MORTGAGE, ASSESSMENT
+    }
+
+    private static final Calculation[] CALCULATIONS = Calculation.values();
+    private static final ConcurrentHashMap<Class<?>, RuleCounters> RULES = new ConcurrentHashMap<>();
+    private static final Histogram[] LATENCIES = new Histogram[CALCULATIONS.length];
+
+    static {
+        for (int i = 0; i < LATENCIES.length; i++) {
+            LATENCIES[i] = new Histogram();
+        }
+    }
+
+    private static volatile boolean enabled = Boolean.getBoolean("lending.metrics");
+
+    private LendingMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Zero every counter and histogram. Recording that races with a reset may land on either side.
+     */
+    public static void reset() {
+        for (RuleCounters counters : RULES.values()) {
+            counters.reset();
+        }
+        for (Histogram histogram : LATENCIES) {
+            histogram.reset();
+        }
+    }
+
+    static void recordRejection(ValidationRule rule) {
+        if (enabled) {
+            counters(rule).rejections[((Enum<?>) rule).ordinal()].increment();
+        }
+    }
+
+    static <R extends Enum<R> & ValidationRule> void recordViolations(R[] rules, long violations) {
+        if (enabled && violations != 0) {
+            RuleCounters counters = counters(rules[0]);
+            for (long remaining = violations; remaining != 0; remaining &= remaining - 1) {
+                counters.violations[Long.numberOfTrailingZeros(remaining)].increment();
+            }
+        }
+    }
+
+    /**
+     * A start time for {@link #recordLatency}, or 0 while disabled.
+     */
+    static long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time since {@code start} and return the current time, so consecutive steps can be
+     * timed with one clock read each. A {@code start} of 0 records nothing and returns 0.
+     */
+    static long recordLatency(Calculation calculation, long start) {
+        if (start == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        LATENCIES[calculation.ordinal()].record(now - start);
+        return now;
+    }
+
+    public static long getRejections(ValidationRule rule) {
+        RuleCounters counters = RULES.get(((Enum<?>) rule).getDeclaringClass());
+        return counters == null ? 0 : counters.rejections[((Enum<?>) rule).ordinal()].sum();
+    }
+
+    public static long getViolations(ValidationRule rule) {
+        RuleCounters counters = RULES.get(((Enum<?>) rule).getDeclaringClass());
+        return counters == null ? 0 : counters.violations[((Enum<?>) rule).ordinal()].sum();
+    }
+
+    public static long getLatencyCount(Calculation calculation) {
+        return LATENCIES[calculation.ordinal()].count.sum();
+    }
+
+    /**
+     * Every metric in the Prometheus text exposition format.
+     */
+    public static String snapshot() {
+        StringBuilder out = new StringBuilder(8192);
+        List<RuleCounters> rules = new ArrayList<>(RULES.values());
+        rules.sort(Comparator.comparing(counters -> counters.entity));
+
+        out.append("# HELP lending_rule_rejections_total Constructor rejections by the rule reported.\n");
+        out.append("# TYPE lending_rule_rejections_total counter\n");
+        for (RuleCounters counters : rules) {
+            counters.append(out, "lending_rule_rejections_total", counters.rejections);
+        }
+        out.append("# HELP lending_rule_violations_total Rules reported by validate, counting every rule broken.\n");
+        out.append("# TYPE lending_rule_violations_total counter\n");
+        for (RuleCounters counters : rules) {
+            counters.append(out, "lending_rule_violations_total", counters.violations);
+        }
+
+        out.append("# HELP lending_calculation_seconds Time taken by each opportunity calculation.\n");
+        out.append("# TYPE lending_calculation_seconds histogram\n");
+        for (Calculation calculation : CALCULATIONS) {
+            LATENCIES[calculation.ordinal()].append(out, calculation.name().toLowerCase(Locale.ROOT));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Write a snapshot to {@code path}, through a temporary sibling so scrapers never see a partial file.
+     */
+    public static void writeTo(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, snapshot().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Serve snapshots at {@code /metrics} on {@code address}. The caller stops the returned server.
+     */
+    public static HttpServer startEndpoint(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext("/metrics", exchange -> {
+            try {
+                byte[] body = snapshot().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream response = exchange.getResponseBody()) {
+                    response.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static RuleCounters counters(ValidationRule rule) {
+        return RULES.computeIfAbsent(((Enum<?>) rule).getDeclaringClass(), RuleCounters::new);
+    }
+
+    /**
+     * Counters for one rule enum, indexed by ordinal.
+     */
+    private static final class RuleCounters {
+        private final String entity;
+        private final Enum<?>[] rules;
+        private final LongAdder[] rejections;
+        private final LongAdder[] violations;
+
+        RuleCounters(Class<?> ruleClass) {
+            Class<?> enclosing = ruleClass.getEnclosingClass();
+            this.entity = (enclosing != null ? enclosing : ruleClass).getSimpleName();
+            this.rules = (Enum<?>[]) ruleClass.getEnumConstants();
+            this.rejections = adders(rules.length);
+            this.violations = adders(rules.length);
+        }
+
+        void append(StringBuilder out, String name, LongAdder[] counts) {
+            for (int i = 0; i < rules.length; i++) {
+                out.append(name).append("{entity=\"").append(entity).append("\",rule=\"").append(rules[i].name())
+                        .append("\"} ").append(counts[i].sum()).append('\n');
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < rules.length; i++) {
+                rejections[i].reset();
+                violations[i].reset();
+            }
+        }
+
+        private static LongAdder[] adders(int length) {
+            LongAdder[] adders = new LongAdder[length];
+            for (int i = 0; i < length; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+    }
+
+    /**
+     * Log2 buckets of nanoseconds: bucket i counts durations up to 2^i ns, the last bucket everything
+     * longer (2^35 ns is about 34 s).
+     */
+    private static final class Histogram {
+        private static final int BUCKETS = 37;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            int bucket = nanos <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(nanos - 1);
+            buckets[Math.min(bucket, BUCKETS - 1)].increment();
+            count.increment();
+            sumNanos.add(nanos);
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sumNanos.reset();
+        }
+
+        // Buckets are read one by one while recording continues, so a scrape can be off by the
+        // in-flight recordings; Prometheus tolerates that.
+        void append(StringBuilder out, String calculation) {
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                cumulative += buckets[i].sum();
+                String le = i == BUCKETS - 1 ? "+Inf" : Double.toString((1L << i) / 1e9);
+                out.append("lending_calculation_seconds_bucket{calculation=\"").append(calculation)
+                        .append("\",le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+            }
+            out.append("lending_calculation_seconds_sum{calculation=\"").append(calculation).append("\"} ")
+                    .append(sumNanos.sum() / 1e9).append('\n');
+            out.append("lending_calculation_seconds_count{calculation=\"").append(calculation).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+    }
+}
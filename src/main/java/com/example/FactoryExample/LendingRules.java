@@ -0,0 +1,603 @@
+package com.example.FactoryExample;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The lending policy's eligibility rules: the thresholds the {@link Opportunity} constructor applies
+ * and the criteria of {@link Opportunity#qualifiesForMortgage()}.
+ * <p>
+ * A rule set is declared through the {@link Builder} or from {@link Properties}. Building it compiles
+ * two decision trees of {@link Check}s out of method handles, one for the constructor and one for
+ * mortgage qualification, with each threshold bound in as a constant and the checks that cannot fail
+ * under the declared thresholds left out. The constructor tree of the rule set in force sits behind a
+ * {@link MutableCallSite}, so the JIT inlines it into the constructor like hand-written code.
+ * Qualification runs the tree of the rule set an assessment was made under.
+ * <p>
+ * Each tree counts how often each check fails and, every {@value #REORDER_INTERVAL} failures of a
+ * check, is rebuilt with the checks that fail most at the front if that changes the order, so a
+ * typical rejection is found after one or two comparisons. Reordering never changes a result: the
+ * constructor still rejects with the first violated {@link Opportunity.Rule} in declaration order,
+ * since once a check fails the tree only goes on to checks for rules declared before it. Failure
+ * counts are updated without synchronisation; a lost count only delays a reorder.
+ * <p>
+ * {@link #setCurrent} swaps in a new rule set by retargeting the call sites. Evaluations already
+ * running finish on the trees they started with and nothing waits; compiled callers are deoptimised
+ * and pick up the new trees on their next call. Opportunities that have already cached their
+ * assessment recompute qualification under the new rules the next time it is asked for. Rule
+ * messages are fixed by {@link Opportunity.Rule}, so the "(18+)" in the adult rule's message does
+ * not follow a changed minimum age.
+ */
+public final class LendingRules {
+
+    /**
+     * The checks a rule set compiles to. The first four guard the {@link Opportunity} constructor,
+     * the rest decide mortgage qualification.
+     */
+    public enum Check {
+        MINIMUM_AGE,
+        VERIFIED_EMPLOYMENT,
+        DEFAULTS_MINIMUM_SALARY,
+        ACTIVE_INSURANCE,
+        MORTGAGE_MINIMUM_AGE,
+        NOT_OVERDRAWN,
+        MORTGAGE_MINIMUM_SALARY,
+        RETIREMENT_AGE
+    }
+
+    static final int REORDER_INTERVAL = 1024;
+
+    // Check ordinals, as switch labels
+    private static final int MINIMUM_AGE = 0;
+    private static final int VERIFIED_EMPLOYMENT = 1;
+    private static final int DEFAULTS_MINIMUM_SALARY = 2;
+    private static final int ACTIVE_INSURANCE = 3;
+    private static final int MORTGAGE_MINIMUM_AGE = 4;
+    private static final int NOT_OVERDRAWN = 5;
+    private static final int MORTGAGE_MINIMUM_SALARY = 6;
+    private static final int RETIREMENT_AGE = 7;
+
+    private static final Check[] CHECKS = Check.values();
+    // The constructor checks report Opportunity.Rule ADULT to INSURANCE_ACTIVE, declared in the same order
+    private static final int RULE_SHIFT = Opportunity.Rule.ADULT.ordinal();
+
+    private static final Class<?>[] ELIGIBILITY_PARAMETERS = {Person.class, Job.class, Insurance.class,
+            Opportunity.CreditHistory.class, Opportunity.EmploymentVerification.class};
+    private static final Class<?>[] MORTGAGE_PARAMETERS = {Person.class, Job.class, Bank.class};
+    // Targeted at the trees of the rule set in force
+    private static final MutableCallSite ELIGIBILITY = new MutableCallSite(
+            MethodType.methodType(long.class, ELIGIBILITY_PARAMETERS));
+    private static final MutableCallSite MORTGAGE = new MutableCallSite(
+            MethodType.methodType(boolean.class, MORTGAGE_PARAMETERS));
+    private static final MethodHandle CURRENT_ELIGIBILITY = ELIGIBILITY.dynamicInvoker();
+    private static final MethodHandle FAILS_ELIGIBILITY;
+    private static final MethodHandle FAILS_MORTGAGE;
+    private static final MethodHandle FAILED;
+    private static final MethodHandle WITH_BIT;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            FAILS_ELIGIBILITY = lookup.findVirtual(LendingRules.class, "fails", MethodType.methodType(boolean.class,
+                    int.class, ELIGIBILITY_PARAMETERS));
+            FAILS_MORTGAGE = lookup.findVirtual(LendingRules.class, "fails", MethodType.methodType(boolean.class,
+                    int.class, MORTGAGE_PARAMETERS));
+            FAILED = lookup.findVirtual(Program.class, "failed", MethodType.methodType(void.class, int.class));
+            WITH_BIT = lookup.findStatic(LendingRules.class, "withBit", MethodType.methodType(long.class,
+                    long.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public static final LendingRules STANDARD = builder()
+            .minimumAge(18)
+            .requireVerifiedEmployment(true)
+            .defaultsMinimumSalary(new BigDecimal("30000"))
+            .requireActiveInsurance(true)
+            .mortgageMinimumAge(18)
+            .allowOverdrawn(false)
+            .mortgageMinimumSalary(new BigDecimal("20000"))
+            .retirementAge(66)
+            .build();
+
+    private static volatile LendingRules current = STANDARD;
+
+    static {
+        ELIGIBILITY.setTarget(STANDARD.eligibility.tree);
+        MORTGAGE.setTarget(STANDARD.mortgage.tree);
+    }
+
+    private final int minimumAge;
+    private final boolean requireVerifiedEmployment;
+    private final BigDecimal defaultsMinimumSalary;
+    private final long defaultsMinimumSalaryPence;
+    private final boolean requireActiveInsurance;
+    private final int mortgageMinimumAge;
+    private final boolean allowOverdrawn;
+    private final BigDecimal mortgageMinimumSalary;
+    private final long mortgageMinimumSalaryPence;
+    private final int retirementAge;
+    private final Program eligibility;
+    private final Program mortgage;
+
+    private LendingRules(Builder builder) {
+        this.minimumAge = builder.minimumAge;
+        this.requireVerifiedEmployment = builder.requireVerifiedEmployment;
+        this.defaultsMinimumSalary = builder.defaultsMinimumSalary;
+        this.defaultsMinimumSalaryPence = Money.ofPounds(defaultsMinimumSalary);
+        this.requireActiveInsurance = builder.requireActiveInsurance;
+        this.mortgageMinimumAge = builder.mortgageMinimumAge;
+        this.allowOverdrawn = builder.allowOverdrawn;
+        this.mortgageMinimumSalary = builder.mortgageMinimumSalary;
+        this.mortgageMinimumSalaryPence = Money.ofPounds(mortgageMinimumSalary);
+        this.retirementAge = builder.retirementAge;
+
+        // Ages are 0 to 150 and salaries positive, so these thresholds never bind
+        List<Integer> eligibilityChecks = new ArrayList<>();
+        if (minimumAge > 0) {
+            eligibilityChecks.add(MINIMUM_AGE);
+        }
+        if (requireVerifiedEmployment) {
+            eligibilityChecks.add(VERIFIED_EMPLOYMENT);
+        }
+        if (defaultsMinimumSalary.signum() > 0) {
+            eligibilityChecks.add(DEFAULTS_MINIMUM_SALARY);
+        }
+        if (requireActiveInsurance) {
+            eligibilityChecks.add(ACTIVE_INSURANCE);
+        }
+        List<Integer> mortgageChecks = new ArrayList<>();
+        if (mortgageMinimumAge > 0) {
+            mortgageChecks.add(MORTGAGE_MINIMUM_AGE);
+        }
+        if (!allowOverdrawn) {
+            mortgageChecks.add(NOT_OVERDRAWN);
+        }
+        if (mortgageMinimumSalary.signum() > 0) {
+            mortgageChecks.add(MORTGAGE_MINIMUM_SALARY);
+        }
+        if (retirementAge <= 150) {
+            mortgageChecks.add(RETIREMENT_AGE);
+        }
+        this.eligibility = new Program(ELIGIBILITY, eligibilityChecks);
+        this.mortgage = new Program(MORTGAGE, mortgageChecks);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A builder starting from {@code base}'s rules, for changing a few of them.
+     */
+    public static Builder builder(LendingRules base) {
+        Builder builder = new Builder();
+        builder.minimumAge = base.minimumAge;
+        builder.requireVerifiedEmployment = base.requireVerifiedEmployment;
+        builder.defaultsMinimumSalary = base.defaultsMinimumSalary;
+        builder.requireActiveInsurance = base.requireActiveInsurance;
+        builder.mortgageMinimumAge = base.mortgageMinimumAge;
+        builder.allowOverdrawn = base.allowOverdrawn;
+        builder.mortgageMinimumSalary = base.mortgageMinimumSalary;
+        builder.retirementAge = base.retirementAge;
+        return builder;
+    }
+
+    /**
+     * A rule set declared as properties, each key overriding the {@link #STANDARD} rule it names:
+     * <pre>
+     * opportunity.minimumAge=18
+     * opportunity.requireVerifiedEmployment=true
+     * opportunity.defaultsMinimumSalary=30000
+     * opportunity.requireActiveInsurance=true
+     * mortgage.minimumAge=18
+     * mortgage.allowOverdrawn=false
+     * mortgage.minimumSalary=20000
+     * mortgage.retirementAge=66
+     * </pre>
+     * A salary of 0 or a retirement age above 150 switches that rule off. Unknown keys are rejected.
+     */
+    public static LendingRules fromProperties(Properties properties) {
+        Builder builder = builder(STANDARD);
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            try {
+                switch (key) {
+                    case "opportunity.minimumAge":
+                        builder.minimumAge(Integer.parseInt(value));
+                        break;
+                    case "opportunity.requireVerifiedEmployment":
+                        builder.requireVerifiedEmployment(parseBoolean(value));
+                        break;
+                    case "opportunity.defaultsMinimumSalary":
+                        builder.defaultsMinimumSalary(new BigDecimal(value));
+                        break;
+                    case "opportunity.requireActiveInsurance":
+                        builder.requireActiveInsurance(parseBoolean(value));
+                        break;
+                    case "mortgage.minimumAge":
+                        builder.mortgageMinimumAge(Integer.parseInt(value));
+                        break;
+                    case "mortgage.allowOverdrawn":
+                        builder.allowOverdrawn(parseBoolean(value));
+                        break;
+                    case "mortgage.minimumSalary":
+                        builder.mortgageMinimumSalary(new BigDecimal(value));
+                        break;
+                    case "mortgage.retirementAge":
+                        builder.retirementAge(Integer.parseInt(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown lending rule: " + key);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for lending rule " + key + ": " + value);
+            }
+        }
+        return builder.build();
+    }
+
+    public static LendingRules current() {
+        return current;
+    }
+
+    /**
+     * Put a new rule set into force for every evaluation that starts from now on.
+     */
+    public static void setCurrent(LendingRules rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Lending rules cannot be null");
+        }
+        synchronized (LendingRules.class) {
+            current = rules;
+            ELIGIBILITY.setTarget(rules.eligibility.tree);
+            MORTGAGE.setTarget(rules.mortgage.tree);
+            MutableCallSite.syncAll(new MutableCallSite[]{ELIGIBILITY, MORTGAGE});
+        }
+    }
+
+    /**
+     * The constructor checks in the order they are currently evaluated.
+     */
+    public List<Check> getEligibilityOrder() {
+        return eligibility.checks();
+    }
+
+    /**
+     * The mortgage qualification checks in the order they are currently evaluated.
+     */
+    public List<Check> getMortgageOrder() {
+        return mortgage.checks();
+    }
+
+    /**
+     * How often {@code check} has failed under this rule set, approximately.
+     */
+    public long getFailures(Check check) {
+        Program program = check.ordinal() < MORTGAGE_MINIMUM_AGE ? eligibility : mortgage;
+        return program.failures[check.ordinal()];
+    }
+
+    /**
+     * Rule bits for the given parts under the rules in force, enough for the constructor: the lowest
+     * bit is the first violated rule in declaration order, but later rules may be missing. A null part
+     * passes every check on it; the caller reports missing parts.
+     */
+    static long firstViolations(Person person, Job job, Insurance insurance, Opportunity.CreditHistory creditHistory,
+                                Opportunity.EmploymentVerification employmentVerification) {
+        try {
+            return (long) CURRENT_ELIGIBILITY.invokeExact(person, job, insurance, creditHistory, employmentVerification);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The bits of every {@link Opportunity.Rule} these rules add for the given parts, as
+     * {@code validate} reports them. A null part passes every check on it.
+     */
+    long violations(Person person, Job job, Insurance insurance, Opportunity.CreditHistory creditHistory,
+                    Opportunity.EmploymentVerification employmentVerification) {
+        long found = 0;
+        for (int check : eligibility.declared) {
+            if (fails(check, person, job, insurance, creditHistory, employmentVerification)) {
+                found |= 1L << (check + RULE_SHIFT);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Mortgage qualification under these rules, whether or not they are in force.
+     */
+    boolean qualifiesForMortgage(Person person, Job job, Bank bank) {
+        try {
+            return (boolean) mortgage.tree.invokeExact(person, job, bank);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The pence equivalent of {@link #qualifiesForMortgage(Person, Job, Bank)}, for the columnar paths.
+     * Salaries are compared in whole pence. Failures are not counted.
+     */
+    boolean qualifiesForMortgage(int age, boolean overdrawn, long salaryPence) {
+        return age >= mortgageMinimumAge && age < retirementAge && (allowOverdrawn || !overdrawn)
+                && salaryPence >= mortgageMinimumSalaryPence;
+    }
+
+    int mortgageMinimumAge() {
+        return mortgageMinimumAge;
+    }
+
+    int retirementAge() {
+        return retirementAge;
+    }
+
+    boolean allowsOverdrawn() {
+        return allowOverdrawn;
+    }
+
+    long mortgageMinimumSalaryPence() {
+        return mortgageMinimumSalaryPence;
+    }
+
+    private boolean fails(int check, Person person, Job job, Insurance insurance,
+                          Opportunity.CreditHistory creditHistory,
+                          Opportunity.EmploymentVerification employmentVerification) {
+        switch (check) {
+            case MINIMUM_AGE:
+                return person != null && person.getAge() < minimumAge;
+            case VERIFIED_EMPLOYMENT:
+                return employmentVerification != null && !employmentVerification.isVerified();
+            case DEFAULTS_MINIMUM_SALARY:
+                return job != null && creditHistory != null && creditHistory.hasDefaultsInLastYear()
+                        && below(job, defaultsMinimumSalary, defaultsMinimumSalaryPence);
+            case ACTIVE_INSURANCE:
+                return insurance != null && !insurance.isActive();
+            default:
+                throw new IllegalStateException("Not a constructor check: " + CHECKS[check]);
+        }
+    }
+
+    private boolean fails(int check, Person person, Job job, Bank bank) {
+        switch (check) {
+            case MORTGAGE_MINIMUM_AGE:
+                return person.getAge() < mortgageMinimumAge;
+            case NOT_OVERDRAWN:
+                return bank.isOverdrawn();
+            case MORTGAGE_MINIMUM_SALARY:
+                return below(job, mortgageMinimumSalary, mortgageMinimumSalaryPence);
+            case RETIREMENT_AGE:
+                return person.getAge() >= retirementAge;
+            default:
+                throw new IllegalStateException("Not a mortgage check: " + CHECKS[check]);
+        }
+    }
+
+    /**
+     * The constructor tree from {@code order[from]} on, limited to the rule bits in {@code allowed}:
+     * on a failure it records the rule's bit and goes on only to rules declared before it.
+     */
+    private MethodHandle eligibilityTree(Program program, int[] order, int from, long allowed) {
+        while (from < order.length && (allowed & 1L << (order[from] + RULE_SHIFT)) == 0) {
+            from++;
+        }
+        if (from == order.length) {
+            return MethodHandles.dropArguments(MethodHandles.constant(long.class, 0L), 0, ELIGIBILITY_PARAMETERS);
+        }
+        int check = order[from];
+        long bit = 1L << (check + RULE_SHIFT);
+        MethodHandle test = MethodHandles.insertArguments(FAILS_ELIGIBILITY, 0, this, check);
+        MethodHandle failed = MethodHandles.filterReturnValue(
+                eligibilityTree(program, order, from + 1, allowed & (bit - 1)),
+                MethodHandles.insertArguments(WITH_BIT, 0, bit));
+        failed = MethodHandles.foldArguments(failed, counter(program, check, ELIGIBILITY_PARAMETERS));
+        return MethodHandles.guardWithTest(test, failed, eligibilityTree(program, order, from + 1, allowed));
+    }
+
+    private MethodHandle mortgageTree(Program program, int[] order) {
+        MethodHandle tree = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, true), 0,
+                MORTGAGE_PARAMETERS);
+        MethodHandle rejected = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false), 0,
+                MORTGAGE_PARAMETERS);
+        for (int i = order.length - 1; i >= 0; i--) {
+            MethodHandle test = MethodHandles.insertArguments(FAILS_MORTGAGE, 0, this, order[i]);
+            MethodHandle failed = MethodHandles.foldArguments(rejected, counter(program, order[i], MORTGAGE_PARAMETERS));
+            tree = MethodHandles.guardWithTest(test, failed, tree);
+        }
+        return tree;
+    }
+
+    private static MethodHandle counter(Program program, int check, Class<?>[] parameters) {
+        return MethodHandles.dropArguments(MethodHandles.insertArguments(FAILED, 0, program, check), 0, parameters);
+    }
+
+    private static long withBit(long bit, long found) {
+        return found | bit;
+    }
+
+    // Exact for any salary: the pence comparison settles everything but a salary that rounds to the threshold
+    private static boolean below(Job job, BigDecimal threshold, long thresholdPence) {
+        long salaryPence = job.getSalaryPence();
+        return salaryPence < thresholdPence
+                || salaryPence == thresholdPence && job.getSalary().compareTo(threshold) < 0;
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new NumberFormatException(value);
+    }
+
+    /**
+     * One list of checks, the order it is evaluated in and the tree compiled for that order.
+     */
+    private final class Program {
+        private final MutableCallSite site;
+        private final int[] declared;
+        private final long[] failures = new long[CHECKS.length];
+        private volatile int[] order;
+        private volatile MethodHandle tree;
+
+        Program(MutableCallSite site, List<Integer> checks) {
+            this.site = site;
+            this.declared = new int[checks.size()];
+            for (int i = 0; i < declared.length; i++) {
+                declared[i] = checks.get(i);
+            }
+            this.order = declared;
+            this.tree = compile(declared);
+        }
+
+        void failed(int check) {
+            if ((++failures[check] & (REORDER_INTERVAL - 1)) == 0) {
+                reorder();
+            }
+        }
+
+        // Most failures first, ties in declaration order. Recompiling deoptimises the callers, so only
+        // a changed order is published.
+        private void reorder() {
+            int[] sorted = declared.clone();
+            for (int i = 1; i < sorted.length; i++) {
+                int check = sorted[i];
+                int j = i - 1;
+                while (j >= 0 && failures[sorted[j]] < failures[check]) {
+                    sorted[j + 1] = sorted[j];
+                    j--;
+                }
+                sorted[j + 1] = check;
+            }
+            synchronized (LendingRules.class) {
+                if (Arrays.equals(sorted, order)) {
+                    return;
+                }
+                order = sorted;
+                tree = compile(sorted);
+                if (current == LendingRules.this) {
+                    site.setTarget(tree);
+                    MutableCallSite.syncAll(new MutableCallSite[]{site});
+                }
+            }
+        }
+
+        private MethodHandle compile(int[] checks) {
+            return site == ELIGIBILITY ? eligibilityTree(this, checks, 0, -1L) : mortgageTree(this, checks);
+        }
+
+        List<Check> checks() {
+            int[] snapshot = order;
+            List<Check> checks = new ArrayList<>(snapshot.length);
+            for (int check : snapshot) {
+                checks.add(CHECKS[check]);
+            }
+            return Collections.unmodifiableList(checks);
+        }
+    }
+
+    public static final class Builder {
+        private int minimumAge;
+        private boolean requireVerifiedEmployment;
+        private BigDecimal defaultsMinimumSalary = BigDecimal.ZERO;
+        private boolean requireActiveInsurance;
+        private int mortgageMinimumAge;
+        private boolean allowOverdrawn = true;
+        private BigDecimal mortgageMinimumSalary = BigDecimal.ZERO;
+        private int retirementAge = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        /**
+         * The age from which an Opportunity can be created.
+         */
+        public Builder minimumAge(int age) {
+            this.minimumAge = age(age, "Minimum age");
+            return this;
+        }
+
+        public Builder requireVerifiedEmployment(boolean required) {
+            this.requireVerifiedEmployment = required;
+            return this;
+        }
+
+        /**
+         * The salary below which an applicant with defaults in the last year is turned away.
+         */
+        public Builder defaultsMinimumSalary(BigDecimal salary) {
+            this.defaultsMinimumSalary = salary(salary, "Defaults minimum salary");
+            return this;
+        }
+
+        public Builder requireActiveInsurance(boolean required) {
+            this.requireActiveInsurance = required;
+            return this;
+        }
+
+        public Builder mortgageMinimumAge(int age) {
+            this.mortgageMinimumAge = age(age, "Mortgage minimum age");
+            return this;
+        }
+
+        public Builder allowOverdrawn(boolean allowed) {
+            this.allowOverdrawn = allowed;
+            return this;
+        }
+
+        public Builder mortgageMinimumSalary(BigDecimal salary) {
+            this.mortgageMinimumSalary = salary(salary, "Mortgage minimum salary");
+            return this;
+        }
+
+        /**
+         * The age from which applicants no longer qualify for a mortgage.
+         */
+        public Builder retirementAge(int age) {
+            if (age < 0) {
+                throw new IllegalArgumentException("Retirement age must be non-negative");
+            }
+            this.retirementAge = age;
+            return this;
+        }
+
+        public LendingRules build() {
+            return new LendingRules(this);
+        }
+
+        private static int age(int age, String name) {
+            if (age < 0 || age > 151) {
+                throw new IllegalArgumentException(name + " must be between 0 and 151");
+            }
+            return age;
+        }
+
+        private static BigDecimal salary(BigDecimal salary, String name) {
+            if (salary == null || salary.signum() < 0) {
+                throw new IllegalArgumentException(name + " must be non-negative");
+            }
+            if (salary.compareTo(Money.toBigDecimal(Money.ofPounds(salary))) != 0) {
+                throw new IllegalArgumentException(name + " must be a whole number of pence: " + salary);
+            }
+            return salary;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.FactoryExample;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on {@code long} pence.
+ * All rounding is HALF_UP, matching {@code BigDecimal.setScale(2, RoundingMode.HALF_UP)}.
+ */
+public final class Money {
+
+    public static final long PENCE_PER_POUND = 100L;
+
+    private Money() {
+    }
+
+    /**
+     * Convert a pounds amount to pence, rounding any sub-penny fraction HALF_UP.
+     */
+    public static long ofPounds(BigDecimal pounds) {
+        if (pounds == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        return pounds.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long ofPounds(long pounds) {
+        return Math.multiplyExact(pounds, PENCE_PER_POUND);
+    }
+
+    public static BigDecimal toBigDecimal(long pence) {
+        return BigDecimal.valueOf(pence, 2);
+    }
+
+    /**
+     * Divide, rounding HALF_UP (ties away from zero). The divisor must be positive.
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Divisor must be positive");
+        }
+        long half = divisor / 2;
+        if (dividend >= 0) {
+            long quotient = dividend / divisor;
+            long remainder = dividend - quotient * divisor;
+            return remainder > half || (remainder == half && (divisor & 1) == 0) ? quotient + 1 : quotient;
+        }
+        return -divideHalfUp(-dividend, divisor);
+    }
+
+    /**
+     * Multiply an amount by {@code numerator / denominator}, rounding HALF_UP. The product may exceed a
+     * long, as it does for a fine-grained ratio over a large amount; only the rounded result has to fit.
+     */
+    public static long multiplyRatio(long pence, long numerator, long denominator) {
+        long low = pence * numerator;
+        long high = Math.multiplyHigh(pence, numerator);
+        if (high == low >> 63) {
+            return divideHalfUp(low, denominator);
+        }
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("Divisor must be positive");
+        }
+        return BigDecimal.valueOf(pence).multiply(BigDecimal.valueOf(numerator))
+                .divide(BigDecimal.valueOf(denominator), 0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
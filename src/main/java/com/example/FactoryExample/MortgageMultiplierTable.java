@@ -0,0 +1,177 @@
+package com.example.FactoryExample;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A lending policy's maximum-mortgage multipliers, compiled into one combined multiplier per
+ * combination of age band, seniority and minimum balance (3 x 2 x 2 = 12 entries).
+ * <p>
+ * The maximum mortgage is salary x base multiple x age factor x seniority factor x balance factor.
+ * Multiplying the exact factors together at build time leaves one multiply and one rounding per
+ * assessment, with the same result as applying the factors one by one, since BigDecimal products are
+ * exact. Each entry is also kept as a fixed-point ratio for the {@code long} pence paths.
+ * <p>
+ * The policy in force is {@link #current()}. {@link #setCurrent} swaps in a new table atomically:
+ * each calculation reads the reference once, so it sees one whole policy or the other, and nothing
+ * waits. Opportunities that have already cached their assessment recompute the maximum mortgage
+ * under the new table the next time it is asked for.
+ */
+public final class MortgageMultiplierTable {
+
+    public static final MortgageMultiplierTable STANDARD = builder()
+            .baseMultiple(new BigDecimal("4.5"))
+            .ageFactors(new BigDecimal("0.75"), new BigDecimal("0.95"), new BigDecimal("0.85"))
+            .seniorFactor(new BigDecimal("1.1"))
+            .minimumBalanceFactor(new BigDecimal("1.05"))
+            .build();
+
+    private static volatile MortgageMultiplierTable current = STANDARD;
+
+    private final int youngestBandUpperAge;
+    private final int middleBandUpperAge;
+    private final BigDecimal[] multipliers;
+    // multipliers[i] == numerators[i] / denominator exactly
+    private final long[] numerators;
+    private final long denominator;
+
+    private MortgageMultiplierTable(Builder builder) {
+        this.youngestBandUpperAge = builder.youngestBandUpperAge;
+        this.middleBandUpperAge = builder.middleBandUpperAge;
+        this.multipliers = new BigDecimal[12];
+        BigDecimal[] ageFactors = {builder.youngFactor, builder.middleFactor, builder.olderFactor};
+        int scale = 0;
+        for (int band = 0; band < 3; band++) {
+            for (int flags = 0; flags < 4; flags++) {
+                BigDecimal multiplier = builder.baseMultiple.multiply(ageFactors[band]);
+                if ((flags & 2) != 0) {
+                    multiplier = multiplier.multiply(builder.seniorFactor);
+                }
+                if ((flags & 1) != 0) {
+                    multiplier = multiplier.multiply(builder.minimumBalanceFactor);
+                }
+                multipliers[band * 4 + flags] = multiplier;
+                scale = Math.max(scale, multiplier.scale());
+            }
+        }
+        if (scale > 18) {
+            throw new IllegalArgumentException("Mortgage multipliers cannot have more than 18 decimal places");
+        }
+        this.denominator = BigDecimal.ONE.movePointRight(scale).longValueExact();
+        this.numerators = new long[12];
+        for (int i = 0; i < 12; i++) {
+            numerators[i] = multipliers[i].movePointRight(scale).longValueExact();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static MortgageMultiplierTable current() {
+        return current;
+    }
+
+    /**
+     * Put a new policy into force for every calculation that starts from now on.
+     */
+    public static void setCurrent(MortgageMultiplierTable table) {
+        if (table == null) {
+            throw new IllegalArgumentException("Mortgage multiplier table cannot be null");
+        }
+        current = table;
+    }
+
+    public BigDecimal getMultiplier(int age, boolean senior, boolean minimumBalance) {
+        return multipliers[index(age, senior, minimumBalance)];
+    }
+
+    public BigDecimal maximumMortgage(BigDecimal salary, int age, boolean senior, boolean minimumBalance) {
+        return salary.multiply(getMultiplier(age, senior, minimumBalance)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    public long maximumMortgagePence(long salaryPence, int age, boolean senior, boolean minimumBalance) {
+        return Money.multiplyRatio(salaryPence, numerators[index(age, senior, minimumBalance)], denominator);
+    }
+
+    int index(int age, boolean senior, boolean minimumBalance) {
+        int band = age > middleBandUpperAge ? 2 : age > youngestBandUpperAge ? 1 : 0;
+        return band * 4 + (senior ? 2 : 0) + (minimumBalance ? 1 : 0);
+    }
+
+    long numerator(int index) {
+        return numerators[index];
+    }
+
+    long denominator() {
+        return denominator;
+    }
+
+    public static final class Builder {
+        private BigDecimal baseMultiple;
+        private BigDecimal youngFactor;
+        private BigDecimal middleFactor;
+        private BigDecimal olderFactor;
+        private BigDecimal seniorFactor = BigDecimal.ONE;
+        private BigDecimal minimumBalanceFactor = BigDecimal.ONE;
+        private int youngestBandUpperAge = 40;
+        private int middleBandUpperAge = 50;
+
+        private Builder() {
+        }
+
+        public Builder baseMultiple(BigDecimal multiple) {
+            this.baseMultiple = positive(multiple, "Base multiple");
+            return this;
+        }
+
+        /**
+         * Factors for ages up to the first band limit, up to the second, and above it.
+         */
+        public Builder ageFactors(BigDecimal young, BigDecimal middle, BigDecimal older) {
+            this.youngFactor = positive(young, "Age factor");
+            this.middleFactor = positive(middle, "Age factor");
+            this.olderFactor = positive(older, "Age factor");
+            return this;
+        }
+
+        /**
+         * Upper ages (inclusive) of the youngest and middle bands; 40 and 50 unless set.
+         */
+        public Builder ageBands(int youngestUpperAge, int middleUpperAge) {
+            if (youngestUpperAge < 0 || middleUpperAge <= youngestUpperAge) {
+                throw new IllegalArgumentException("Age bands must be increasing and non-negative");
+            }
+            this.youngestBandUpperAge = youngestUpperAge;
+            this.middleBandUpperAge = middleUpperAge;
+            return this;
+        }
+
+        public Builder seniorFactor(BigDecimal factor) {
+            this.seniorFactor = positive(factor, "Senior factor");
+            return this;
+        }
+
+        public Builder minimumBalanceFactor(BigDecimal factor) {
+            this.minimumBalanceFactor = positive(factor, "Minimum balance factor");
+            return this;
+        }
+
+        public MortgageMultiplierTable build() {
+            if (baseMultiple == null) {
+                throw new IllegalArgumentException("Base multiple is required");
+            }
+            if (youngFactor == null) {
+                throw new IllegalArgumentException("Age factors are required");
+            }
+            return new MortgageMultiplierTable(this);
+        }
+
+        private static BigDecimal positive(BigDecimal value, String name) {
+            if (value == null || value.signum() <= 0) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+}
@@ -14,61 +14,151 @@ public class Opportunity {
     private final Insurance insurance;
     private final CreditHistory creditHistory;
     private final EmploymentVerification employmentVerification;
+    private volatile OpportunityAssessment assessment;
+
+    private static final Insurance DEFAULT_INSURANCE = Insurance.of(Insurance.InsuranceType.BASIC,
+            new BigDecimal("100"), true);
+    private static final ValidationResult<Rule> VALID = new ValidationResult<>(Rule.VALUES, 0);
 
     public Opportunity(Person person, Job job, Bank bank, Tax tax, Insurance insurance,
                        CreditHistory creditHistory, EmploymentVerification employmentVerification) {
+        this(person, job, bank, tax, insurance, creditHistory, employmentVerification,
+                violations(person, job, bank, tax, insurance, creditHistory, employmentVerification, true));
+    }
+
+    private Opportunity(Person person, Job job, Bank bank, Tax tax, Insurance insurance,
+                        CreditHistory creditHistory, EmploymentVerification employmentVerification,
+                        long violations) {
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
+        }
+
+        this.person = person;
+        this.job = job;
+        this.bank = bank;
+        this.tax = tax;
+        this.insurance = insurance;
+        this.creditHistory = creditHistory;
+        this.employmentVerification = employmentVerification;
+    }
+
+    // Derivation of an already valid opportunity; the with* methods check the rules on the parts they
+    // replace. The cached assessment is not carried over.
+    private Opportunity(Opportunity base, Person person, Job job, Bank bank) {
+        this.person = person;
+        this.job = job;
+        this.bank = bank;
+        this.tax = base.tax;
+        this.insurance = base.insurance;
+        this.creditHistory = base.creditHistory;
+        this.employmentVerification = base.employmentVerification;
+    }
+
+    public Opportunity(Person person, Job job, Bank bank) {
+        this(person, job, bank, new Tax(job.getSalary(), "UK", 0),
+                DEFAULT_INSURANCE,
+                new CreditHistory(false, 0, BusinessDate.today()),
+                new EmploymentVerification(true, BusinessDate.today(), "Standard"));
+    }
+
+
+
+
+    /**
+     * An opportunity from parts already known to be valid together, because they passed
+     * {@link #validate} or were read back from storage. No rule is checked again, so a change to the
+     * lending rules since an opportunity was stored does not make it unreadable.
+     */
+    static Opportunity trusted(Person person, Job job, Bank bank, Tax tax, Insurance insurance,
+                               CreditHistory creditHistory, EmploymentVerification employmentVerification) {
+        return new Opportunity(person, job, bank, tax, insurance, creditHistory, employmentVerification, 0);
+    }
+
+    /**
+     * Check every constructor rule without throwing, reporting all the rules the arguments break.
+     */
+    public static ValidationResult<Rule> validate(Person person, Job job, Bank bank, Tax tax,
+                                                  Insurance insurance, CreditHistory creditHistory,
+                                                  EmploymentVerification employmentVerification) {
+        long violations = violations(person, job, bank, tax, insurance, creditHistory,
+                employmentVerification, false);
+        return violations == 0 ? VALID : new ValidationResult<>(Rule.VALUES, violations);
+    }
+
+    private static long violations(Person person, Job job, Bank bank, Tax tax, Insurance insurance,
+                                   CreditHistory creditHistory, EmploymentVerification employmentVerification,
+                                   boolean firstOnly) {
+        long violations = 0;
         if (person == null) {
-            throw new IllegalArgumentException("Person cannot be null");
+            violations |= Rule.PERSON_REQUIRED.bit();
         }
         if (job == null) {
-            throw new IllegalArgumentException("Job cannot be null");
+            violations |= Rule.JOB_REQUIRED.bit();
         }
         if (bank == null) {
-            throw new IllegalArgumentException("Bank cannot be null");
+            violations |= Rule.BANK_REQUIRED.bit();
         }
         if (tax == null) {
-            throw new IllegalArgumentException("Tax cannot be null");
+            violations |= Rule.TAX_REQUIRED.bit();
         }
         if (insurance == null) {
-            throw new IllegalArgumentException("Insurance cannot be null");
+            violations |= Rule.INSURANCE_REQUIRED.bit();
         }
         if (creditHistory == null) {
-            throw new IllegalArgumentException("Credit history cannot be null");
+            violations |= Rule.CREDIT_HISTORY_REQUIRED.bit();
         }
         if (employmentVerification == null) {
-            throw new IllegalArgumentException("Employment verification cannot be null");
-        }
-        if (!person.isAdult()) {
-            throw new IllegalArgumentException("Person must be an adult (18+) to create an Opportunity");
-        }
-        if (!employmentVerification.isVerified()) {
-            throw new IllegalArgumentException("Employment must be verified before creating an Opportunity");
+            violations |= Rule.EMPLOYMENT_VERIFICATION_REQUIRED.bit();
         }
-        if (creditHistory.hasDefaultsInLastYear() && job.getSalary().compareTo(new BigDecimal("30000")) < 0) {
-            throw new IllegalArgumentException("Cannot create opportunity with defaults and low income");
-        }
-        if (!insurance.isActive()) {
-            throw new IllegalArgumentException("Active insurance required for Opportunity");
+        if (firstOnly) {
+            // Every null check is declared before the lending rules
+            return violations != 0 ? violations
+                    : LendingRules.firstViolations(person, job, insurance, creditHistory, employmentVerification);
         }
+        return violations | LendingRules.current().violations(person, job, insurance, creditHistory,
+                employmentVerification);
+    }
 
-        this.person = person;
-        this.job = job;
-        this.bank = bank;
-        this.tax = tax;
-        this.insurance = insurance;
-        this.creditHistory = creditHistory;
-        this.employmentVerification = employmentVerification;
+    private static long personViolations(Person person) {
+        if (person == null) {
+            return Rule.PERSON_REQUIRED.bit();
+        }
+        return LendingRules.firstViolations(person, null, null, null, null);
     }
 
-    public Opportunity(Person person, Job job, Bank bank) {
-        this(person, job, bank, new Tax(job.getSalary(), "UK", 0),
-                new Insurance(Insurance.InsuranceType.BASIC, new BigDecimal("100"), true),
-                new CreditHistory(false, 0, LocalDate.now()),
-                new EmploymentVerification(true, LocalDate.now(), "Standard"));
+    private long jobViolations(Job job) {
+        if (job == null) {
+            return Rule.JOB_REQUIRED.bit();
+        }
+        return LendingRules.firstViolations(null, job, null, creditHistory, null);
     }
 
+    public enum Rule implements ValidationRule {
+        PERSON_REQUIRED("Person cannot be null"),
+        JOB_REQUIRED("Job cannot be null"),
+        BANK_REQUIRED("Bank cannot be null"),
+        TAX_REQUIRED("Tax cannot be null"),
+        INSURANCE_REQUIRED("Insurance cannot be null"),
+        CREDIT_HISTORY_REQUIRED("Credit history cannot be null"),
+        EMPLOYMENT_VERIFICATION_REQUIRED("Employment verification cannot be null"),
+        ADULT("Person must be an adult (18+) to create an Opportunity"),
+        EMPLOYMENT_VERIFIED("Employment must be verified before creating an Opportunity"),
+        DEFAULTS_WITH_LOW_INCOME("Cannot create opportunity with defaults and low income"),
+        INSURANCE_ACTIVE("Active insurance required for Opportunity");
+
+        private static final Rule[] VALUES = values();
 
+        private final String message;
+
+        Rule(String message) {
+            this.message = message;
+        }
 
+        @Override
+        public String getMessage() {
+            return message;
+        }
+    }
 
     public static class CreditHistory {
         private final boolean hasDefaultsInLastYear;
@@ -82,7 +172,7 @@ public class Opportunity {
             if (lastChecked == null) {
                 throw new IllegalArgumentException("Last checked date cannot be null");
             }
-            if (lastChecked.isAfter(LocalDate.now())) {
+            if (lastChecked.isAfter(BusinessDate.today())) {
                 throw new IllegalArgumentException("Last checked date cannot be in the future");
             }
             this.hasDefaultsInLastYear = hasDefaultsInLastYear;
@@ -112,7 +202,7 @@ public class Opportunity {
             if (verificationDate == null) {
                 throw new IllegalArgumentException("Verification date cannot be null");
             }
-            if (verificationDate.isAfter(LocalDate.now())) {
+            if (verificationDate.isAfter(BusinessDate.today())) {
                 throw new IllegalArgumentException("Verification date cannot be in the future");
             }
             if (verificationMethod == null || verificationMethod.trim().isEmpty()) {
@@ -152,37 +242,95 @@ public class Opportunity {
         return tax;
     }
 
+    public Insurance getInsurance() {
+        return insurance;
+    }
+
+    public CreditHistory getCreditHistory() {
+        return creditHistory;
+    }
+
+    public EmploymentVerification getEmploymentVerification() {
+        return employmentVerification;
+    }
+
+    // Derivations for what-if scoring: each shares every part it does not replace and re-checks only
+    // the rules that depend on the replaced part.
+
     /**
-     * Calculate maximum mortgage based on UK lending criteria.
-     * Standard UK mortgage multiple is 4.5x annual salary.
-     * Additional considerations: age, existing savings, and credit worthiness.
+     * This opportunity for a different person; only the person's presence and adulthood are checked.
      */
-    public BigDecimal calculateMaximumMortgage() {
-        BigDecimal salary = job.getSalary();
-
-        // Base calculation: 4.5x annual salary
-        BigDecimal baseMortgage = salary.multiply(new BigDecimal("4.5"));
+    public Opportunity withPerson(Person person) {
+        long violations = personViolations(person);
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
+        }
+        return new Opportunity(this, person, job, bank);
+    }
 
-        // Age factor: reduce if person is older (retirement considerations)
-        int age = person.getAge();
-        if (age > 50) {
-            baseMortgage = baseMortgage.multiply(new BigDecimal("0.85"));
-        } else if (age > 40) {
-            baseMortgage = baseMortgage.multiply(new BigDecimal("0.95"));
-        } else
-            baseMortgage = baseMortgage.multiply(new BigDecimal("0.75"));
+    /**
+     * This opportunity with a different job; only the job's presence and the defaults-with-low-income
+     * rule are checked.
+     */
+    public Opportunity withJob(Job job) {
+        long violations = jobViolations(job);
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
+        }
+        return new Opportunity(this, person, job, bank);
+    }
 
-        // Experience factor: increase if senior employee (job security)
-        if (job.isSenior()) {
-            baseMortgage = baseMortgage.multiply(new BigDecimal("1.1"));
+    public Opportunity withBank(Bank bank) {
+        if (bank == null) {
+            throw ValidationResult.rejection(Rule.VALUES, Rule.BANK_REQUIRED.bit());
         }
+        return new Opportunity(this, person, job, bank);
+    }
+
+    /**
+     * This opportunity with the job's salary changed. The Tax record is shared unchanged.
+     */
+    public Opportunity withSalary(BigDecimal salary) {
+        return withJob(job.withSalary(salary));
+    }
 
-        // Minimum balance factor: good savings indicates financial responsibility
-        if (bank.hasMinimumBalance()) {
-            baseMortgage = baseMortgage.multiply(new BigDecimal("1.05"));
+    public Opportunity withBalance(BigDecimal balance) {
+        return withBank(bank.withBalance(balance));
+    }
+
+    public Opportunity withAge(int age) {
+        return withPerson(person.withAge(age));
+    }
+
+    /**
+     * Every derived figure for this opportunity, computed on first use and then shared.
+     * The snapshot is immutable and published through a volatile field, so concurrent readers need no
+     * locking; threads racing on first use may each compute it, but all compute the same values.
+     * Once the mortgage table or lending rules are swapped, the next call rebuilds the mortgage figure
+     * and qualification under the new policies and keeps the rest.
+     */
+    public OpportunityAssessment getAssessment() {
+        OpportunityAssessment result = assessment;
+        if (result == null || !result.isCurrent()) {
+            result = new OpportunityAssessment(this, result);
+            assessment = result;
         }
+        return result;
+    }
+
+    /**
+     * Calculate maximum mortgage based on UK lending criteria.
+     * Standard UK mortgage multiple is 4.5x annual salary.
+     * Additional considerations: age, existing savings, and credit worthiness.
+     */
+    public BigDecimal calculateMaximumMortgage() {
+        return getAssessment().getMaximumMortgage();
+    }
 
-        return baseMortgage.setScale(2, RoundingMode.HALF_UP);
+    BigDecimal computeMaximumMortgage(MortgageMultiplierTable table) {
+        // 4.5x salary, scaled for age (retirement), seniority (job security) and savings, as set by the
+        // lending policy
+        return table.maximumMortgage(job.getSalary(), person.getAge(), job.isSenior(), bank.hasMinimumBalance());
     }
 
     /**
@@ -190,11 +338,11 @@ public class Opportunity {
      * Takes into account: salary, tax obligations, mortgage considerations.
      */
     public BigDecimal calculateMaximumMonthlySpend() {
-        BigDecimal annualSalary = job.getSalary();
+        return getAssessment().getMaximumMonthlySpend();
+    }
 
-        // Calculate UK tax and National Insurance
-        BigDecimal annualTaxPaid = calculateUKTaxPaid();
-        BigDecimal nationalInsurance = calculateNationalInsurance();
+    BigDecimal computeMaximumMonthlySpend(BigDecimal annualTaxPaid, BigDecimal nationalInsurance) {
+        BigDecimal annualSalary = job.getSalary();
 
         // Net annual income after tax and NI
         BigDecimal netAnnualIncome = annualSalary.subtract(annualTaxPaid).subtract(nationalInsurance);
@@ -225,54 +373,53 @@ public class Opportunity {
      * Additional rate (45%): over £125,140
      */
     public BigDecimal calculateUKTaxPaid() {
+        return getAssessment().getUKTaxPaid();
+    }
+
+    BigDecimal computeUKTaxPaid() {
         BigDecimal income = job.getSalary();
         BigDecimal totalTax = BigDecimal.ZERO;
 
-        // Personal Allowance threshold
-        BigDecimal personalAllowance = new BigDecimal("12570");
-        BigDecimal basicRateLimit = new BigDecimal("50270");
-        BigDecimal higherRateLimit = new BigDecimal("125140");
-
         // Deduct personal allowance
-        BigDecimal taxableIncome = income.subtract(personalAllowance);
+        BigDecimal taxableIncome = income.subtract(TaxYearSchedule.UK_PERSONAL_ALLOWANCE);
 
         if (taxableIncome.compareTo(BigDecimal.ZERO) <= 0) {
             return BigDecimal.ZERO;
         }
 
         // Basic rate: 20% on income between £12,571 and £50,270
-        BigDecimal basicRateBand = basicRateLimit.subtract(personalAllowance);
+        BigDecimal basicRateBand = TaxYearSchedule.UK_BASIC_RATE_BAND;
         if (taxableIncome.compareTo(basicRateBand) <= 0) {
-            totalTax = taxableIncome.multiply(new BigDecimal("0.20"));
+            totalTax = taxableIncome.multiply(TaxYearSchedule.UK_BASIC_RATE);
         } else {
             // Tax on basic rate band
-            totalTax = basicRateBand.multiply(new BigDecimal("0.20"));
+            totalTax = basicRateBand.multiply(TaxYearSchedule.UK_BASIC_RATE);
 
             BigDecimal remainingIncome = taxableIncome.subtract(basicRateBand);
 
             // Higher rate: 40% on income between £50,271 and £125,140
-            BigDecimal higherRateBand = higherRateLimit.subtract(basicRateLimit);
+            BigDecimal higherRateBand = TaxYearSchedule.UK_HIGHER_RATE_BAND;
             if (remainingIncome.compareTo(higherRateBand) <= 0) {
-                totalTax = totalTax.add(remainingIncome.multiply(new BigDecimal("0.40")));
+                totalTax = totalTax.add(remainingIncome.multiply(TaxYearSchedule.UK_HIGHER_RATE));
             } else {
                 // Tax on higher rate band
-                totalTax = totalTax.add(higherRateBand.multiply(new BigDecimal("0.40")));
+                totalTax = totalTax.add(higherRateBand.multiply(TaxYearSchedule.UK_HIGHER_RATE));
 
                 // Additional rate: 45% on income over £125,140
                 BigDecimal additionalIncome = remainingIncome.subtract(higherRateBand);
-                totalTax = totalTax.add(additionalIncome.multiply(new BigDecimal("0.45")));
+                totalTax = totalTax.add(additionalIncome.multiply(TaxYearSchedule.UK_ADDITIONAL_RATE));
             }
         }
 
         // Apply deductions if available
         if (tax.hasDeductions()) {
-            BigDecimal deduction = new BigDecimal("2000"); // UK tax relief
-            totalTax = totalTax.subtract(deduction);
+            totalTax = totalTax.subtract(TaxYearSchedule.UK_DEDUCTION_RELIEF);
         }
 
         // Apply dependent tax credits
         if (tax.getDependents() > 0) {
-            BigDecimal childBenefit = new BigDecimal("1200").multiply(new BigDecimal(tax.getDependents()));
+            BigDecimal childBenefit = TaxYearSchedule.UK_DEPENDENT_CREDIT.multiply(
+                    BigDecimal.valueOf(tax.getDependents()));
             totalTax = totalTax.subtract(childBenefit);
         }
 
@@ -291,11 +438,15 @@ public class Opportunity {
      * 2% on income over £50,270
      */
     public BigDecimal calculateNationalInsurance() {
+        return getAssessment().getNationalInsurance();
+    }
+
+    BigDecimal computeNationalInsurance() {
         BigDecimal income = job.getSalary();
         BigDecimal totalNI = BigDecimal.ZERO;
 
-        BigDecimal niThreshold = new BigDecimal("12570");
-        BigDecimal upperEarningsLimit = new BigDecimal("50270");
+        BigDecimal niThreshold = TaxYearSchedule.UK_NI_THRESHOLD;
+        BigDecimal upperEarningsLimit = TaxYearSchedule.UK_NI_UPPER_EARNINGS_LIMIT;
 
         if (income.compareTo(niThreshold) <= 0) {
             return BigDecimal.ZERO;
@@ -305,15 +456,15 @@ public class Opportunity {
 
         if (income.compareTo(upperEarningsLimit) <= 0) {
             // 12% on income between threshold and upper limit
-            totalNI = taxableIncome.multiply(new BigDecimal("0.12"));
+            totalNI = taxableIncome.multiply(TaxYearSchedule.UK_NI_MAIN_RATE);
         } else {
             // 12% on income up to upper limit
             BigDecimal lowerBand = upperEarningsLimit.subtract(niThreshold);
-            totalNI = lowerBand.multiply(new BigDecimal("0.12"));
+            totalNI = lowerBand.multiply(TaxYearSchedule.UK_NI_MAIN_RATE);
 
             // 2% on income over upper limit
             BigDecimal upperBand = income.subtract(upperEarningsLimit);
-            totalNI = totalNI.add(upperBand.multiply(new BigDecimal("0.02")));
+            totalNI = totalNI.add(upperBand.multiply(TaxYearSchedule.UK_NI_UPPER_RATE));
         }
 
         return totalNI.setScale(2, RoundingMode.HALF_UP);
@@ -323,45 +474,35 @@ public class Opportunity {
      * Calculate total annual disposable income after all deductions.
      */
     public BigDecimal calculateDisposableIncome() {
+        return getAssessment().getDisposableIncome();
+    }
+
+    BigDecimal computeDisposableIncome(BigDecimal tax, BigDecimal ni) {
         BigDecimal salary = job.getSalary();
-        BigDecimal tax = calculateUKTaxPaid();
-        BigDecimal ni = calculateNationalInsurance();
 
         return salary.subtract(tax).subtract(ni).setScale(2, RoundingMode.HALF_UP);
     }
 
     /**
-     * Determine if person qualifies for a mortgage based on UK criteria.
+     * Determine if person qualifies for a mortgage under the {@link LendingRules} in force.
      */
     public boolean qualifiesForMortgage() {
-        // Must be adult
-        if (!person.isAdult()) {
-            return false;
-        }
-
-        // Must not be overdrawn
-        if (bank.isOverdrawn()) {
-            return false;
-        }
-
-        // Must have minimum income (£20,000)
-        if (job.getSalary().compareTo(new BigDecimal("20000")) < 0) {
-            return false;
-        }
-
-        // Must be under retirement age (66 in UK)
-        if (person.getAge() >= 66) {
-            return false;
-        }
+        return getAssessment().qualifiesForMortgage();
+    }
 
-        return true;
+    boolean computeQualifiesForMortgage(LendingRules rules) {
+        return rules.qualifiesForMortgage(person, job, bank);
     }
 
     /**
      * Calculate effective tax rate percentage.
      */
     public BigDecimal getEffectiveTaxRate() {
-        BigDecimal totalTax = calculateUKTaxPaid().add(calculateNationalInsurance());
+        return getAssessment().getEffectiveTaxRate();
+    }
+
+    BigDecimal computeEffectiveTaxRate(BigDecimal ukTaxPaid, BigDecimal nationalInsurance) {
+        BigDecimal totalTax = ukTaxPaid.add(nationalInsurance);
         BigDecimal salary = job.getSalary();
 
         if (salary.compareTo(BigDecimal.ZERO) == 0) {
@@ -370,4 +511,62 @@ public class Opportunity {
 
         return totalTax.divide(salary, 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100"));
     }
+
+    // Fixed-point variants of the calculations above. They work on long pence and allocate nothing,
+    // and return the same amounts as their BigDecimal counterparts for any salary held in whole pence.
+
+    /**
+     * Pence equivalent of {@link #calculateMaximumMortgage()}.
+     */
+    public long calculateMaximumMortgagePence() {
+        return MortgageMultiplierTable.current().maximumMortgagePence(job.getSalaryPence(), person.getAge(),
+                job.isSenior(), bank.hasMinimumBalance());
+    }
+
+    /**
+     * Pence equivalent of {@link #calculateMaximumMonthlySpend()}.
+     */
+    public long calculateMaximumMonthlySpendPence() {
+        return maximumMonthlySpendPence(job.getSalaryPence(), calculateUKTaxPaidPence(),
+                calculateNationalInsurancePence());
+    }
+
+    static long maximumMonthlySpendPence(long annualSalary, long annualTaxPaid, long nationalInsurance) {
+        long netAnnualIncome = annualSalary - annualTaxPaid - nationalInsurance;
+
+        long monthlyNetIncome = Money.divideHalfUp(netAnnualIncome, 12);
+        long monthlyGrossIncome = Money.divideHalfUp(annualSalary, 12);
+
+        // (net - 30% of gross) * 80%, held in units of 1/10,000 of a penny until the final rounding
+        long maximumSpend = (monthlyNetIncome * 100 - monthlyGrossIncome * 30) * 80;
+        if (maximumSpend < 0) {
+            return 0;
+        }
+        return Money.divideHalfUp(maximumSpend, 10_000);
+    }
+
+    /**
+     * Pence equivalent of {@link #calculateUKTaxPaid()}.
+     */
+    public long calculateUKTaxPaidPence() {
+        return calculateUKTaxPaidPence(TaxYearSchedule.UK_2024_25);
+    }
+
+    /**
+     * UK income tax in pence under the given tax year's bands, reliefs and credits.
+     */
+    public long calculateUKTaxPaidPence(TaxYearSchedule schedule) {
+        return schedule.incomeTaxPence(job.getSalaryPence(), tax.getDependents(), tax.hasDeductions());
+    }
+
+    /**
+     * Pence equivalent of {@link #calculateNationalInsurance()}.
+     */
+    public long calculateNationalInsurancePence() {
+        return calculateNationalInsurancePence(TaxYearSchedule.UK_2024_25);
+    }
+
+    public long calculateNationalInsurancePence(TaxYearSchedule schedule) {
+        return schedule.nationalInsurancePence(job.getSalaryPence());
+    }
 }
@@ -0,0 +1,198 @@
+package com.example.FactoryExample;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Builds {@link Opportunity} graphs whose credit history and employment verification come from
+ * external lookups, running both lookups concurrently instead of one after the other.
+ * <p>
+ * Each provider has its own timeout. Concurrent requests for the same NI number share one lookup per
+ * provider, and at most {@code maxConcurrentLookups} provider calls run at once; further calls wait
+ * for a permit on their own thread, but no longer than the provider's timeout, after which the lookup
+ * fails with a {@link TimeoutException}. Providers are expected to block, so the executor should be
+ * cheap to block: {@link #defaultExecutor()} uses virtual threads where the JDK has them and a bounded
+ * pool otherwise.
+ * <p>
+ * A timed-out caller stops waiting but the provider call itself is not interrupted; it still holds
+ * its permit until it returns, which keeps a slow provider from being flooded with retries.
+ */
+public final class OpportunityAssembler {
+
+    static final int DEFAULT_POOL_THREADS = 64;
+    static final int DEFAULT_POOL_QUEUE = 4096;
+
+    private final CreditHistoryProvider creditHistoryProvider;
+    private final EmploymentVerificationProvider employmentVerificationProvider;
+    private final Executor executor;
+    private final long creditHistoryTimeoutNanos;
+    private final long employmentVerificationTimeoutNanos;
+    private final Semaphore permits;
+    private final Lookups<Opportunity.CreditHistory> creditHistories;
+    private final Lookups<Opportunity.EmploymentVerification> employmentVerifications;
+
+    public OpportunityAssembler(CreditHistoryProvider creditHistoryProvider,
+                                EmploymentVerificationProvider employmentVerificationProvider,
+                                Executor executor, Duration creditHistoryTimeout,
+                                Duration employmentVerificationTimeout, int maxConcurrentLookups) {
+        if (creditHistoryProvider == null) {
+            throw new IllegalArgumentException("Credit history provider cannot be null");
+        }
+        if (employmentVerificationProvider == null) {
+            throw new IllegalArgumentException("Employment verification provider cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        checkTimeout(creditHistoryTimeout);
+        checkTimeout(employmentVerificationTimeout);
+        if (maxConcurrentLookups <= 0) {
+            throw new IllegalArgumentException("Max concurrent lookups must be positive");
+        }
+        this.creditHistoryProvider = creditHistoryProvider;
+        this.employmentVerificationProvider = employmentVerificationProvider;
+        this.executor = executor;
+        this.creditHistoryTimeoutNanos = creditHistoryTimeout.toNanos();
+        this.employmentVerificationTimeoutNanos = employmentVerificationTimeout.toNanos();
+        this.permits = new Semaphore(maxConcurrentLookups);
+        this.creditHistories = new Lookups<>(creditHistoryProvider::fetchCreditHistory, creditHistoryTimeoutNanos);
+        this.employmentVerifications = new Lookups<>(employmentVerificationProvider::fetchEmploymentVerification,
+                employmentVerificationTimeoutNanos);
+    }
+
+    /**
+     * Look up the applicant's credit history and employment verification, then build the opportunity.
+     * The future fails with a {@link java.util.concurrent.TimeoutException} if either lookup overruns
+     * its timeout, or with the constructor's {@link IllegalArgumentException} if the graph is invalid.
+     */
+    public CompletableFuture<Opportunity> assemble(Person person, Job job, Bank bank, Tax tax, Insurance insurance) {
+        if (person == null) {
+            throw new IllegalArgumentException("Person cannot be null");
+        }
+        String nationalInsuranceNumber = person.getNationalInsuranceNumber();
+        if (nationalInsuranceNumber == null) {
+            throw new IllegalArgumentException("National Insurance number is required for lookups");
+        }
+        CompletableFuture<Opportunity.CreditHistory> creditHistory = creditHistories.get(nationalInsuranceNumber)
+                .orTimeout(creditHistoryTimeoutNanos, TimeUnit.NANOSECONDS);
+        CompletableFuture<Opportunity.EmploymentVerification> verification = employmentVerifications
+                .get(nationalInsuranceNumber)
+                .orTimeout(employmentVerificationTimeoutNanos, TimeUnit.NANOSECONDS);
+        return creditHistory.thenCombine(verification,
+                (history, verified) -> new Opportunity(person, job, bank, tax, insurance, history, verified));
+    }
+
+    public CreditHistoryProvider getCreditHistoryProvider() {
+        return creditHistoryProvider;
+    }
+
+    public EmploymentVerificationProvider getEmploymentVerificationProvider() {
+        return employmentVerificationProvider;
+    }
+
+    /**
+     * Lookups currently running or waiting for a permit, across both providers.
+     */
+    public int getInFlightLookups() {
+        return creditHistories.inFlight.size() + employmentVerifications.inFlight.size();
+    }
+
+    /**
+     * A thread-per-task executor on JDK 21 and later, using virtual threads. Otherwise a pool of at most
+     * {@value #DEFAULT_POOL_THREADS} daemon platform threads with room for
+     * {@value #DEFAULT_POOL_QUEUE} waiting lookups; beyond that, lookups fail with
+     * {@link RejectedExecutionException} rather than starting more threads.
+     */
+    public static ExecutorService defaultExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(DEFAULT_POOL_THREADS, DEFAULT_POOL_THREADS,
+                    60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(DEFAULT_POOL_QUEUE), task -> {
+                        Thread thread = new Thread(task, "opportunity-lookup");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    private static void checkTimeout(Duration timeout) {
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+    }
+
+    /**
+     * One provider's in-flight lookups by NI number. Callers get their own copy of the shared future,
+     * so one caller's timeout does not fail the others.
+     */
+    private final class Lookups<T> {
+        private final Function<String, T> provider;
+        private final long timeoutNanos;
+        private final ConcurrentHashMap<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+
+        Lookups(Function<String, T> provider, long timeoutNanos) {
+            this.provider = provider;
+            this.timeoutNanos = timeoutNanos;
+        }
+
+        CompletableFuture<T> get(String nationalInsuranceNumber) {
+            CompletableFuture<T> created = new CompletableFuture<>();
+            CompletableFuture<T> shared = inFlight.putIfAbsent(nationalInsuranceNumber, created);
+            if (shared == null) {
+                shared = created;
+                try {
+                    executor.execute(() -> run(nationalInsuranceNumber, created));
+                } catch (RejectedExecutionException e) {
+                    inFlight.remove(nationalInsuranceNumber, created);
+                    created.completeExceptionally(e);
+                }
+            }
+            return shared.copy();
+        }
+
+        // The entry is removed before the future completes, so a request arriving after completion
+        // starts a fresh lookup rather than picking up the finished one.
+        private void run(String nationalInsuranceNumber, CompletableFuture<T> result) {
+            T value = null;
+            Throwable failure = null;
+            try {
+                // Every caller has given up by the timeout, so a thread waiting longer would be wasted
+                if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new TimeoutException("No lookup permit free within the provider timeout");
+                }
+                try {
+                    value = provider.apply(nationalInsuranceNumber);
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+            } catch (Throwable t) {
+                failure = t;
+            }
+            inFlight.remove(nationalInsuranceNumber, result);
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.FactoryExample;
+
+import com.example.FactoryExample.LendingMetrics.Calculation;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable snapshot of every figure derived from an {@link Opportunity}.
+ * Tax and National Insurance are computed once and reused by the figures that depend on them.
+ * The maximum mortgage and qualification are taken under the {@link MortgageMultiplierTable} and
+ * {@link LendingRules} that were current when the snapshot was built; {@link #isCurrent()} tells
+ * whether both still are.
+ */
+public final class OpportunityAssessment {
+    private final BigDecimal maximumMortgage;
+    private final BigDecimal ukTaxPaid;
+    private final BigDecimal nationalInsurance;
+    private final BigDecimal maximumMonthlySpend;
+    private final BigDecimal disposableIncome;
+    private final BigDecimal effectiveTaxRate;
+    private final boolean qualifiesForMortgage;
+    private final MortgageMultiplierTable table;
+    private final LendingRules rules;
+
+    /**
+     * Assess {@code opportunity} under the policies in force. The figures that no policy affects are
+     * taken from {@code previous} when there is one.
+     */
+    OpportunityAssessment(Opportunity opportunity, OpportunityAssessment previous) {
+        this.table = MortgageMultiplierTable.current();
+        this.rules = LendingRules.current();
+        // Each step is timed from the end of the previous one; all of this is a no-op while metrics are off
+        long start = LendingMetrics.startTimer();
+        long step = start;
+        if (previous != null) {
+            this.ukTaxPaid = previous.ukTaxPaid;
+            this.nationalInsurance = previous.nationalInsurance;
+            this.maximumMonthlySpend = previous.maximumMonthlySpend;
+            this.disposableIncome = previous.disposableIncome;
+            this.effectiveTaxRate = previous.effectiveTaxRate;
+        } else {
+            this.ukTaxPaid = opportunity.computeUKTaxPaid();
+            step = LendingMetrics.recordLatency(Calculation.UK_TAX_PAID, step);
+            this.nationalInsurance = opportunity.computeNationalInsurance();
+            step = LendingMetrics.recordLatency(Calculation.NATIONAL_INSURANCE, step);
+            this.maximumMonthlySpend = opportunity.computeMaximumMonthlySpend(ukTaxPaid, nationalInsurance);
+            step = LendingMetrics.recordLatency(Calculation.MAXIMUM_MONTHLY_SPEND, step);
+            this.disposableIncome = opportunity.computeDisposableIncome(ukTaxPaid, nationalInsurance);
+            step = LendingMetrics.recordLatency(Calculation.DISPOSABLE_INCOME, step);
+            this.effectiveTaxRate = opportunity.computeEffectiveTaxRate(ukTaxPaid, nationalInsurance);
+            step = LendingMetrics.recordLatency(Calculation.EFFECTIVE_TAX_RATE, step);
+        }
+        this.maximumMortgage = opportunity.computeMaximumMortgage(table);
+        step = LendingMetrics.recordLatency(Calculation.MAXIMUM_MORTGAGE, step);
+        this.qualifiesForMortgage = opportunity.computeQualifiesForMortgage(rules);
+        LendingMetrics.recordLatency(Calculation.QUALIFIES_FOR_MORTGAGE, step);
+        LendingMetrics.recordLatency(Calculation.ASSESSMENT, start);
+    }
+
+    /**
+     * Whether the mortgage table and lending rules this snapshot was built under are still in force.
+     */
+    public boolean isCurrent() {
+        return table == MortgageMultiplierTable.current() && rules == LendingRules.current();
+    }
+
+    public BigDecimal getMaximumMortgage() {
+        return maximumMortgage;
+    }
+
+    public BigDecimal getUKTaxPaid() {
+        return ukTaxPaid;
+    }
+
+    public BigDecimal getNationalInsurance() {
+        return nationalInsurance;
+    }
+
+    public BigDecimal getMaximumMonthlySpend() {
+        return maximumMonthlySpend;
+    }
+
+    public BigDecimal getDisposableIncome() {
+        return disposableIncome;
+    }
+
+    public BigDecimal getEffectiveTaxRate() {
+        return effectiveTaxRate;
+    }
+
+    public boolean qualifiesForMortgage() {
+        return qualifiesForMortgage;
+    }
+}
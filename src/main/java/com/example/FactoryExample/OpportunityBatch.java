@@ -0,0 +1,205 @@
+package com.example.FactoryExample;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Structure-of-arrays form of many {@link Opportunity} assessments.
+ * <p>
+ * Each row keeps only the inputs the calculations read, in primitive columns, so the kernels below
+ * run as flat loops instead of walking the Person/Job/Bank/Tax graph per call. Results are written
+ * into caller-supplied arrays in pence (or basis points for rates) and match the per-object
+ * {@code calculate*Pence()} methods row for row.
+ */
+public final class OpportunityBatch {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private long[] salaryPence;
+    private int[] age;
+    private boolean[] senior;
+    private boolean[] minimumBalance;
+    private boolean[] overdrawn;
+    private int[] dependents;
+    private boolean[] hasDeductions;
+    private int size;
+
+    public OpportunityBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OpportunityBatch(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        this.salaryPence = new long[capacity];
+        this.age = new int[capacity];
+        this.senior = new boolean[capacity];
+        this.minimumBalance = new boolean[capacity];
+        this.overdrawn = new boolean[capacity];
+        this.dependents = new int[capacity];
+        this.hasDeductions = new boolean[capacity];
+    }
+
+    public static OpportunityBatch of(Collection<Opportunity> opportunities) {
+        if (opportunities == null) {
+            throw new IllegalArgumentException("Opportunities cannot be null");
+        }
+        OpportunityBatch batch = new OpportunityBatch(opportunities.size());
+        for (Opportunity opportunity : opportunities) {
+            batch.add(opportunity);
+        }
+        return batch;
+    }
+
+    public void add(Opportunity opportunity) {
+        if (opportunity == null) {
+            throw new IllegalArgumentException("Opportunity cannot be null");
+        }
+        Job job = opportunity.getJob();
+        Bank bank = opportunity.getBank();
+        Tax tax = opportunity.getTax();
+        add(job.getSalaryPence(), opportunity.getPerson().getAge(), job.isSenior(), bank.hasMinimumBalance(),
+                bank.isOverdrawn(), tax.getDependents(), tax.hasDeductions());
+    }
+
+    public void add(long salaryPence, int age, boolean senior, boolean minimumBalance, boolean overdrawn,
+                    int dependents, boolean hasDeductions) {
+        if (size == this.salaryPence.length) {
+            grow();
+        }
+        int row = size++;
+        this.salaryPence[row] = salaryPence;
+        this.age[row] = age;
+        this.senior[row] = senior;
+        this.minimumBalance[row] = minimumBalance;
+        this.overdrawn[row] = overdrawn;
+        this.dependents[row] = dependents;
+        this.hasDeductions[row] = hasDeductions;
+    }
+
+    /**
+     * Empty the batch, keeping the allocated columns for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void maximumMortgagePence(long[] out) {
+        maximumMortgagePence(MortgageMultiplierTable.current(), out);
+    }
+
+    /**
+     * Maximum mortgage under the given policy; every row uses one of its 12 combined multipliers.
+     */
+    public void maximumMortgagePence(MortgageMultiplierTable table, long[] out) {
+        checkOutput(out.length);
+        long denominator = table.denominator();
+        for (int i = 0; i < size; i++) {
+            long numerator = table.numerator(table.index(age[i], senior[i], minimumBalance[i]));
+            out[i] = Money.multiplyRatio(salaryPence[i], numerator, denominator);
+        }
+    }
+
+    public void ukTaxPaidPence(long[] out) {
+        ukTaxPaidPence(TaxYearSchedule.UK_2024_25, out);
+    }
+
+    public void ukTaxPaidPence(TaxYearSchedule schedule, long[] out) {
+        checkOutput(out.length);
+        for (int i = 0; i < size; i++) {
+            out[i] = schedule.incomeTaxPence(salaryPence[i], dependents[i], hasDeductions[i]);
+        }
+    }
+
+    public void nationalInsurancePence(long[] out) {
+        nationalInsurancePence(TaxYearSchedule.UK_2024_25, out);
+    }
+
+    public void nationalInsurancePence(TaxYearSchedule schedule, long[] out) {
+        checkOutput(out.length);
+        for (int i = 0; i < size; i++) {
+            out[i] = schedule.nationalInsurancePence(salaryPence[i]);
+        }
+    }
+
+    public void disposableIncomePence(long[] out) {
+        checkOutput(out.length);
+        TaxYearSchedule schedule = TaxYearSchedule.UK_2024_25;
+        for (int i = 0; i < size; i++) {
+            long salary = salaryPence[i];
+            out[i] = salary - schedule.incomeTaxPence(salary, dependents[i], hasDeductions[i])
+                    - schedule.nationalInsurancePence(salary);
+        }
+    }
+
+    public void maximumMonthlySpendPence(long[] out) {
+        checkOutput(out.length);
+        TaxYearSchedule schedule = TaxYearSchedule.UK_2024_25;
+        for (int i = 0; i < size; i++) {
+            long salary = salaryPence[i];
+            out[i] = Opportunity.maximumMonthlySpendPence(salary,
+                    schedule.incomeTaxPence(salary, dependents[i], hasDeductions[i]),
+                    schedule.nationalInsurancePence(salary));
+        }
+    }
+
+    /**
+     * Effective tax rate in hundredths of a percent, e.g. 2345 for the 23.45 returned by
+     * {@link Opportunity#getEffectiveTaxRate()}.
+     */
+    public void effectiveTaxRateBasisPoints(long[] out) {
+        checkOutput(out.length);
+        TaxYearSchedule schedule = TaxYearSchedule.UK_2024_25;
+        for (int i = 0; i < size; i++) {
+            long salary = salaryPence[i];
+            if (salary == 0) {
+                out[i] = 0;
+                continue;
+            }
+            long totalTax = schedule.incomeTaxPence(salary, dependents[i], hasDeductions[i])
+                    + schedule.nationalInsurancePence(salary);
+            out[i] = Money.divideHalfUp(totalTax * 10_000, salary);
+        }
+    }
+
+    public void qualifiesForMortgage(boolean[] out) {
+        qualifiesForMortgage(LendingRules.current(), out);
+    }
+
+    /**
+     * Mortgage qualification under the given rules.
+     */
+    public void qualifiesForMortgage(LendingRules rules, boolean[] out) {
+        checkOutput(out.length);
+        int minimumAge = rules.mortgageMinimumAge();
+        int retirementAge = rules.retirementAge();
+        boolean allowOverdrawn = rules.allowsOverdrawn();
+        long minimumSalary = rules.mortgageMinimumSalaryPence();
+        for (int i = 0; i < size; i++) {
+            int a = age[i];
+            out[i] = a >= minimumAge && a < retirementAge && (allowOverdrawn || !overdrawn[i])
+                    && salaryPence[i] >= minimumSalary;
+        }
+    }
+
+    private void checkOutput(int length) {
+        if (length < size) {
+            throw new IllegalArgumentException("Output array must hold at least " + size + " results");
+        }
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, salaryPence.length * 2);
+        salaryPence = Arrays.copyOf(salaryPence, capacity);
+        age = Arrays.copyOf(age, capacity);
+        senior = Arrays.copyOf(senior, capacity);
+        minimumBalance = Arrays.copyOf(minimumBalance, capacity);
+        overdrawn = Arrays.copyOf(overdrawn, capacity);
+        dependents = Arrays.copyOf(dependents, capacity);
+        hasDeductions = Arrays.copyOf(hasDeductions, capacity);
+    }
+}
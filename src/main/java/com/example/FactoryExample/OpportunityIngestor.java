@@ -0,0 +1,324 @@
+package com.example.FactoryExample;
+
+import com.example.FactoryExample.ApplicantRecordReader.Field;
+import com.example.FactoryExample.ApplicantRecordReader.MalformedRecordException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streams applicant records from CSV or NDJSON into scored opportunities.
+ * <p>
+ * Records are read through one fixed-size buffer, built into Opportunity graphs and scored in chunks
+ * of {@code chunkSize} with {@link OpportunityBatch}; each chunk's results are written out before the
+ * next is read, so memory use does not grow with the input. Records that fail parsing or any
+ * constructor rule go to the rejects output. A parse error or an invalid nested value object is
+ * reported on its own; otherwise the reason lists every rule the parts violate, and the rules spanning
+ * the whole opportunity are checked once the parts are valid.
+ * <p>
+ * Results are CSV: {@code line,nationalInsuranceNumber,maximumMortgage,maximumMonthlySpend,qualifiesForMortgage}.
+ * Rejects are CSV: {@code line,reason}. CSV input needs a header row of {@link Field} keys, in any order.
+ */
+public final class OpportunityIngestor {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 4096;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final String RESULTS_HEADER =
+            "line,nationalInsuranceNumber,maximumMortgage,maximumMonthlySpend,qualifiesForMortgage\n";
+    private static final String REJECTS_HEADER = "line,reason\n";
+
+    private final Format format;
+    private final int chunkSize;
+    private final int bufferSize;
+
+    public OpportunityIngestor(Format format) {
+        this(format, DEFAULT_CHUNK_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param chunkSize  opportunities built and scored per chunk
+     * @param bufferSize read buffer size in bytes; also the longest record accepted
+     */
+    public OpportunityIngestor(Format format, int chunkSize, int bufferSize) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format cannot be null");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("Buffer size must be at least 1024 bytes");
+        }
+        this.format = format;
+        this.chunkSize = chunkSize;
+        this.bufferSize = bufferSize;
+    }
+
+    public Summary ingest(Path input, Path results, Path rejects) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             Writer resultsWriter = Files.newBufferedWriter(results, StandardCharsets.UTF_8);
+             Writer rejectsWriter = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            return ingest(channel, resultsWriter, rejectsWriter);
+        }
+    }
+
+    /**
+     * Ingest everything readable from {@code input}. The writers are flushed but not closed.
+     */
+    public Summary ingest(ReadableByteChannel input, Writer results, Writer rejects) throws IOException {
+        ApplicantRecordReader reader = new ApplicantRecordReader(input, format, bufferSize);
+        Chunk chunk = new Chunk(chunkSize);
+        StringBuilder line = new StringBuilder(128);
+        long records = 0;
+        long rejected = 0;
+
+        results.write(RESULTS_HEADER);
+        rejects.write(REJECTS_HEADER);
+        while (true) {
+            boolean more;
+            try {
+                more = reader.next();
+            } catch (MalformedRecordException e) {
+                records++;
+                rejected++;
+                writeReject(rejects, line, reader.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (!more) {
+                break;
+            }
+            records++;
+            try {
+                chunk.add(reader.getLineNumber(), build(reader));
+            } catch (MalformedRecordException e) {
+                rejected++;
+                writeReject(rejects, line, reader.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (chunk.isFull()) {
+                chunk.score(results, line);
+            }
+        }
+        chunk.score(results, line);
+        results.flush();
+        rejects.flush();
+        return new Summary(records, records - rejected, rejected);
+    }
+
+    // Each part is validated once and then built without its rules running again
+    private static Opportunity build(ApplicantRecordReader r) {
+        // The nested value objects check their own arguments in their constructors
+        Job.Department department;
+        Job.Contract contract;
+        Bank.CreditScore creditScore;
+        Opportunity.CreditHistory creditHistory;
+        Opportunity.EmploymentVerification verification;
+        try {
+            department = Job.Department.of(r.string(Field.DEPARTMENT_NAME), r.string(Field.DEPARTMENT_CODE));
+            contract = Job.Contract.of(r.integer(Field.CONTRACT_MONTHS), r.bool(Field.CONTRACT_RENEWABLE));
+            creditScore = Bank.CreditScore.of(r.integer(Field.CREDIT_SCORE), r.string(Field.CREDIT_RATING));
+            creditHistory = new Opportunity.CreditHistory(r.bool(Field.DEFAULTS_IN_LAST_YEAR),
+                    r.integer(Field.LATE_PAYMENTS), r.date(Field.CREDIT_LAST_CHECKED));
+            verification = new Opportunity.EmploymentVerification(r.bool(Field.EMPLOYMENT_VERIFIED),
+                    r.date(Field.VERIFICATION_DATE), r.string(Field.VERIFICATION_METHOD));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedRecordException(e.getMessage());
+        }
+
+        Person.Address address = Person.Address.of(r.stringOrEmpty(Field.STREET), r.stringOrEmpty(Field.CITY),
+                r.stringOrEmpty(Field.POSTCODE), r.stringOrEmpty(Field.COUNTRY));
+        String firstName = r.string(Field.FIRST_NAME);
+        String lastName = r.string(Field.LAST_NAME);
+        int age = r.integer(Field.AGE);
+        String email = r.optionalString(Field.EMAIL);
+        String phoneNumber = r.optionalString(Field.PHONE_NUMBER);
+        String niNumber = r.optionalString(Field.NI_NUMBER);
+
+        String title = r.string(Field.JOB_TITLE);
+        String company = r.string(Field.COMPANY);
+        BigDecimal salary = r.decimal(Field.SALARY);
+        int yearsExperience = r.integer(Field.YEARS_EXPERIENCE);
+        Job.EmploymentType employmentType = r.enumValue(Field.EMPLOYMENT_TYPE, Job.EmploymentType.values());
+        LocalDate startDate = r.date(Field.START_DATE);
+
+        String accountNumber = r.string(Field.ACCOUNT_NUMBER);
+        String bankName = r.string(Field.BANK_NAME);
+        BigDecimal balance = r.decimal(Field.BALANCE);
+        Bank.AccountType accountType = r.enumValue(Field.ACCOUNT_TYPE, Bank.AccountType.values());
+        String sortCode = r.string(Field.SORT_CODE);
+        LocalDate openDate = r.date(Field.ACCOUNT_OPEN_DATE);
+        Bank.AccountHolder holder = Bank.AccountHolder.of(r.stringOrEmpty(Field.ACCOUNT_HOLDER_NAME),
+                r.stringOrEmpty(Field.ACCOUNT_HOLDER_DATE_OF_BIRTH), r.stringOrEmpty(Field.ACCOUNT_HOLDER_NATIONALITY));
+
+        int dependents = r.integer(Field.DEPENDENTS);
+        List<Tax.TaxDeduction> deductions = Collections.emptyList();
+
+        Insurance.InsuranceType insuranceType = r.enumValue(Field.INSURANCE_TYPE, Insurance.InsuranceType.values());
+        BigDecimal monthlyCost = r.decimal(Field.INSURANCE_MONTHLY_COST);
+        boolean insuranceActive = r.bool(Field.INSURANCE_ACTIVE);
+
+        // Every part is checked before any is rejected, so the reason lists all of their violations
+        List<String> violations = new ArrayList<>();
+        collect(violations, Person.validate(firstName, lastName, age, email, phoneNumber, niNumber, address));
+        collect(violations, Job.validate(title, company, salary, yearsExperience, employmentType, department,
+                startDate, contract));
+        collect(violations, Bank.validate(accountNumber, bankName, balance, accountType, sortCode, creditScore,
+                openDate, holder));
+        collect(violations, Tax.validate(salary, Tax.TaxRegion.UK, dependents, false, Tax.FilingStatus.SINGLE,
+                deductions, false));
+        collect(violations, Insurance.validate(insuranceType, monthlyCost, insuranceActive));
+        if (!violations.isEmpty()) {
+            throw new MalformedRecordException(String.join("; ", violations));
+        }
+
+        Person person = Person.trusted(firstName, lastName, age, email, phoneNumber, niNumber, address);
+        Job job = Job.trusted(title, company, salary, yearsExperience, employmentType, department, startDate,
+                contract);
+        Bank bank = Bank.trusted(accountNumber, bankName, balance, accountType, sortCode, creditScore, openDate,
+                holder);
+        Tax tax = Tax.trusted(salary, Tax.TaxRegion.UK, dependents, false, Tax.FilingStatus.SINGLE, deductions,
+                false);
+        Insurance insurance = Insurance.trusted(insuranceType, monthlyCost, insuranceActive);
+
+        collect(violations, Opportunity.validate(person, job, bank, tax, insurance, creditHistory, verification));
+        if (!violations.isEmpty()) {
+            throw new MalformedRecordException(String.join("; ", violations));
+        }
+        return Opportunity.trusted(person, job, bank, tax, insurance, creditHistory, verification);
+    }
+
+    private static void collect(List<String> violations, ValidationResult<?> result) {
+        if (!result.isValid()) {
+            violations.addAll(result.getMessages());
+        }
+    }
+
+    private static void writeReject(Writer rejects, StringBuilder line, long lineNumber, String reason)
+            throws IOException {
+        if (reason == null) {
+            reason = "Rejected";
+        }
+        line.setLength(0);
+        line.append(lineNumber).append(",\"");
+        for (int i = 0; i < reason.length(); i++) {
+            char c = reason.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        line.append("\"\n");
+        rejects.append(line);
+    }
+
+    static void appendPounds(StringBuilder out, long pence) {
+        if (pence < 0) {
+            out.append('-');
+            pence = -pence;
+        }
+        long pennies = pence % 100;
+        out.append(pence / 100).append('.');
+        if (pennies < 10) {
+            out.append('0');
+        }
+        out.append(pennies);
+    }
+
+    /**
+     * The opportunities built since the last flush, scored together through one reusable batch.
+     */
+    private static final class Chunk {
+        private final List<Opportunity> opportunities;
+        private final long[] lineNumbers;
+        private final OpportunityBatch batch;
+        private final long[] maximumMortgage;
+        private final long[] maximumMonthlySpend;
+        private final boolean[] qualifies;
+
+        Chunk(int capacity) {
+            this.opportunities = new ArrayList<>(capacity);
+            this.lineNumbers = new long[capacity];
+            this.batch = new OpportunityBatch(capacity);
+            this.maximumMortgage = new long[capacity];
+            this.maximumMonthlySpend = new long[capacity];
+            this.qualifies = new boolean[capacity];
+        }
+
+        void add(long lineNumber, Opportunity opportunity) {
+            lineNumbers[opportunities.size()] = lineNumber;
+            opportunities.add(opportunity);
+        }
+
+        boolean isFull() {
+            return opportunities.size() == lineNumbers.length;
+        }
+
+        void score(Writer results, StringBuilder line) throws IOException {
+            if (opportunities.isEmpty()) {
+                return;
+            }
+            batch.clear();
+            for (Opportunity opportunity : opportunities) {
+                batch.add(opportunity);
+            }
+            batch.maximumMortgagePence(maximumMortgage);
+            batch.maximumMonthlySpendPence(maximumMonthlySpend);
+            batch.qualifiesForMortgage(qualifies);
+            for (int i = 0; i < opportunities.size(); i++) {
+                line.setLength(0);
+                line.append(lineNumbers[i]).append(',')
+                        .append(opportunities.get(i).getPerson().getNationalInsuranceNumber()).append(',');
+                appendPounds(line, maximumMortgage[i]);
+                line.append(',');
+                appendPounds(line, maximumMonthlySpend[i]);
+                line.append(',').append(qualifies[i]).append('\n');
+                results.append(line);
+            }
+            opportunities.clear();
+        }
+    }
+
+    public static final class Summary {
+        private final long records;
+        private final long accepted;
+        private final long rejected;
+
+        Summary(long records, long accepted, long rejected) {
+            this.records = records;
+            this.accepted = accepted;
+            this.rejected = rejected;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getAccepted() {
+            return accepted;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary[records=" + records + ", accepted=" + accepted + ", rejected=" + rejected + "]";
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.FactoryExample;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scores a fixed collection of opportunities in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * The index range is split in halves, as a spliterator would, down to chunks of {@code chunkSize}. Each
+ * leaf loads its chunk into its worker thread's reusable {@link OpportunityBatch}, runs the batch kernels
+ * and copies the results into its own slice of the output arrays, so workers never write to shared
+ * state; the per-chunk totals are summed as the tasks join.
+ */
+public final class OpportunityPortfolio {
+
+    private static final int DEFAULT_CHUNK_SIZE = 2048;
+
+    private final Opportunity[] opportunities;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final ThreadLocal<Scratch> scratch;
+
+    public OpportunityPortfolio(Collection<Opportunity> opportunities) {
+        this(opportunities, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public OpportunityPortfolio(Collection<Opportunity> opportunities, ForkJoinPool pool, int chunkSize) {
+        if (opportunities == null) {
+            throw new IllegalArgumentException("Opportunities cannot be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.opportunities = opportunities.toArray(new Opportunity[0]);
+        for (Opportunity opportunity : this.opportunities) {
+            if (opportunity == null) {
+                throw new IllegalArgumentException("Portfolio cannot contain null opportunities");
+            }
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(chunkSize));
+    }
+
+    public int size() {
+        return opportunities.length;
+    }
+
+    /**
+     * Maximum mortgage, maximum monthly spend and mortgage qualification for every opportunity,
+     * in the order the collection was given.
+     */
+    public Scores score() {
+        Scores scores = new Scores(opportunities.length);
+        // One policy and rule set for the whole run, even if others are put into force part way through
+        MortgageMultiplierTable policy = MortgageMultiplierTable.current();
+        LendingRules rules = LendingRules.current();
+        Totals totals = pool.invoke(new ScoreTask(policy, rules, scores, 0, opportunities.length));
+        scores.qualifyingCount = totals.qualifyingCount;
+        scores.totalMaximumMortgagePence = totals.totalMaximumMortgagePence;
+        return scores;
+    }
+
+    private final class ScoreTask extends RecursiveTask<Totals> {
+        private static final long serialVersionUID = 1L;
+
+        private final MortgageMultiplierTable policy;
+        private final LendingRules rules;
+        private final Scores scores;
+        private final int from;
+        private final int to;
+
+        ScoreTask(MortgageMultiplierTable policy, LendingRules rules, Scores scores, int from, int to) {
+            this.policy = policy;
+            this.rules = rules;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= chunkSize) {
+                return scratch.get().score(policy, rules, opportunities, from, to, scores);
+            }
+            int middle = (from + to) >>> 1;
+            ScoreTask right = new ScoreTask(policy, rules, scores, middle, to);
+            right.fork();
+            Totals left = new ScoreTask(policy, rules, scores, from, middle).compute();
+            return left.add(right.join());
+        }
+    }
+
+    /**
+     * One worker's reusable batch and kernel output buffers.
+     */
+    private static final class Scratch {
+        private final OpportunityBatch batch;
+        private final long[] maximumMortgage;
+        private final long[] maximumMonthlySpend;
+        private final boolean[] qualifies;
+
+        Scratch(int chunkSize) {
+            this.batch = new OpportunityBatch(chunkSize);
+            this.maximumMortgage = new long[chunkSize];
+            this.maximumMonthlySpend = new long[chunkSize];
+            this.qualifies = new boolean[chunkSize];
+        }
+
+        Totals score(MortgageMultiplierTable policy, LendingRules rules, Opportunity[] opportunities, int from,
+                     int to, Scores scores) {
+            batch.clear();
+            for (int i = from; i < to; i++) {
+                batch.add(opportunities[i]);
+            }
+            batch.maximumMortgagePence(policy, maximumMortgage);
+            batch.maximumMonthlySpendPence(maximumMonthlySpend);
+            batch.qualifiesForMortgage(rules, qualifies);
+
+            int length = to - from;
+            System.arraycopy(maximumMortgage, 0, scores.maximumMortgagePence, from, length);
+            System.arraycopy(maximumMonthlySpend, 0, scores.maximumMonthlySpendPence, from, length);
+            System.arraycopy(qualifies, 0, scores.qualifiesForMortgage, from, length);
+
+            Totals totals = new Totals();
+            for (int i = 0; i < length; i++) {
+                totals.totalMaximumMortgagePence += maximumMortgage[i];
+                if (qualifies[i]) {
+                    totals.qualifyingCount++;
+                }
+            }
+            return totals;
+        }
+    }
+
+    private static final class Totals {
+        private long qualifyingCount;
+        private long totalMaximumMortgagePence;
+
+        Totals add(Totals other) {
+            qualifyingCount += other.qualifyingCount;
+            totalMaximumMortgagePence += other.totalMaximumMortgagePence;
+            return this;
+        }
+    }
+
+    /**
+     * Per-opportunity results in pence, indexed like the portfolio. The arrays are handed over to the
+     * caller rather than copied.
+     */
+    public static final class Scores {
+        private final long[] maximumMortgagePence;
+        private final long[] maximumMonthlySpendPence;
+        private final boolean[] qualifiesForMortgage;
+        private long qualifyingCount;
+        private long totalMaximumMortgagePence;
+
+        private Scores(int size) {
+            this.maximumMortgagePence = new long[size];
+            this.maximumMonthlySpendPence = new long[size];
+            this.qualifiesForMortgage = new boolean[size];
+        }
+
+        public long[] getMaximumMortgagePence() {
+            return maximumMortgagePence;
+        }
+
+        public long[] getMaximumMonthlySpendPence() {
+            return maximumMonthlySpendPence;
+        }
+
+        public boolean[] getQualifiesForMortgage() {
+            return qualifiesForMortgage;
+        }
+
+        public long getQualifyingCount() {
+            return qualifyingCount;
+        }
+
+        public long getTotalMaximumMortgagePence() {
+            return totalMaximumMortgagePence;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.FactoryExample;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Fixed-layout binary encoding of one {@link Opportunity} graph, shared by {@link PortfolioFile} and
+ * anything else that persists opportunities.
+ * <p>
+ * A record is {@link #SIZE} bytes. Money is stored as pence plus the amount's original scale (0-2),
+ * so amounts given to at most two decimal places come back exactly; finer amounts are rounded HALF_UP
+ * to the penny. Dates are epoch days, enums ordinals, account numbers and sort codes their digits, and
+ * every other string an id into a string table supplied by the caller ({@link #NULL_STRING} for null).
+ * Tax deductions are variable in number, so a record holds only the index and count of its
+ * {@link #DEDUCTION_SIZE}-byte entries, which the caller stores wherever suits it. Positions are
+ * absolute and buffers must be little-endian.
+ * <p>
+ * Besides the inputs, a record keeps the derived flags the calculations read (senior, minimum balance,
+ * overdrawn), so they can be scored without decoding the graph.
+ */
+final class OpportunityRecord {
+
+    static final int SIZE = 176;
+    static final int DEDUCTION_SIZE = 16;
+    static final int NULL_STRING = -1;
+
+    // Money, as pence
+    static final int SALARY = 0;
+    static final int BALANCE = 8;
+    static final int INCOME = 16;
+    static final int INSURANCE_COST = 24;
+    // Ints
+    static final int DEDUCTIONS_INDEX = 32;
+    static final int DEDUCTIONS_COUNT = 36;
+    static final int ACCOUNT_NUMBER = 40;
+    static final int SORT_CODE = 44;
+    static final int START_DATE = 48;
+    static final int OPEN_DATE = 52;
+    static final int LAST_CHECKED = 56;
+    static final int VERIFICATION_DATE = 60;
+    static final int YEARS_EXPERIENCE = 64;
+    static final int DEPENDENTS = 68;
+    static final int LATE_PAYMENTS = 72;
+    static final int AGE = 76;
+    static final int CREDIT_SCORE = 80;
+    static final int CONTRACT_MONTHS = 84;
+    // String ids
+    static final int FIRST_NAME = 88;
+    static final int LAST_NAME = 92;
+    static final int EMAIL = 96;
+    static final int PHONE_NUMBER = 100;
+    static final int NI_NUMBER = 104;
+    static final int STREET = 108;
+    static final int CITY = 112;
+    static final int POSTCODE = 116;
+    static final int COUNTRY = 120;
+    static final int TITLE = 124;
+    static final int COMPANY = 128;
+    static final int DEPARTMENT_NAME = 132;
+    static final int DEPARTMENT_CODE = 136;
+    static final int BANK_NAME = 140;
+    static final int CREDIT_RATING = 144;
+    static final int HOLDER_NAME = 148;
+    static final int HOLDER_DATE_OF_BIRTH = 152;
+    static final int HOLDER_NATIONALITY = 156;
+    static final int VERIFICATION_METHOD = 160;
+    // Bytes
+    static final int EMPLOYMENT_TYPE = 164;
+    static final int ACCOUNT_TYPE = 165;
+    static final int TAX_REGION = 166;
+    static final int FILING_STATUS = 167;
+    static final int INSURANCE_TYPE = 168;
+    static final int FLAGS = 169; // short
+    static final int SALARY_SCALE = 171;
+    static final int BALANCE_SCALE = 172;
+    static final int INCOME_SCALE = 173;
+    static final int INSURANCE_COST_SCALE = 174;
+    // 175 reserved
+
+    static final int CONTRACT_RENEWABLE = 1;
+    static final int HAS_DEDUCTIONS = 1 << 1;
+    static final int SELF_EMPLOYED = 1 << 2;
+    static final int INSURANCE_ACTIVE = 1 << 3;
+    static final int DEFAULTS_IN_LAST_YEAR = 1 << 4;
+    static final int EMPLOYMENT_VERIFIED = 1 << 5;
+    static final int SENIOR = 1 << 6;
+    static final int MINIMUM_BALANCE = 1 << 7;
+    static final int OVERDRAWN = 1 << 8;
+
+    // Deduction entry
+    private static final int DEDUCTION_AMOUNT = 0;
+    private static final int DEDUCTION_TYPE = 8;
+    private static final int DEDUCTION_SCALE = 12;
+    private static final int DEDUCTION_VERIFIED = 13;
+
+    private static final Job.EmploymentType[] EMPLOYMENT_TYPES = Job.EmploymentType.values();
+    private static final Bank.AccountType[] ACCOUNT_TYPES = Bank.AccountType.values();
+    private static final Tax.TaxRegion[] TAX_REGIONS = Tax.TaxRegion.values();
+    private static final Tax.FilingStatus[] FILING_STATUSES = Tax.FilingStatus.values();
+    private static final Insurance.InsuranceType[] INSURANCE_TYPES = Insurance.InsuranceType.values();
+
+    private OpportunityRecord() {
+    }
+
+    /**
+     * Write the record at {@code position}. Its deductions are written separately with
+     * {@link #encodeDeduction}, from {@code deductionsIndex} on.
+     */
+    static void encode(Opportunity opportunity, ByteBuffer out, int position, int deductionsIndex,
+                       ToIntFunction<String> strings) {
+        Person person = opportunity.getPerson();
+        Person.Address address = person.getAddress();
+        Job job = opportunity.getJob();
+        Bank bank = opportunity.getBank();
+        Bank.AccountHolder holder = bank.getAccountHolder();
+        Tax tax = opportunity.getTax();
+        Insurance insurance = opportunity.getInsurance();
+        Opportunity.CreditHistory creditHistory = opportunity.getCreditHistory();
+        Opportunity.EmploymentVerification verification = opportunity.getEmploymentVerification();
+
+        out.putLong(position + SALARY, job.getSalaryPence());
+        out.putLong(position + BALANCE, Money.ofPounds(bank.getBalance()));
+        out.putLong(position + INCOME, Money.ofPounds(tax.getIncome()));
+        out.putLong(position + INSURANCE_COST, Money.ofPounds(insurance.getMonthlyCost()));
+
+        out.putInt(position + DEDUCTIONS_INDEX, deductionsIndex);
+        out.putInt(position + DEDUCTIONS_COUNT, tax.getDeductions().size());
+        out.putInt(position + ACCOUNT_NUMBER, Integer.parseInt(bank.getAccountNumber()));
+        String sortCode = bank.getSortCode();
+        out.putInt(position + SORT_CODE, Integer.parseInt(sortCode.substring(0, 2)) * 10_000
+                + Integer.parseInt(sortCode.substring(3, 5)) * 100 + Integer.parseInt(sortCode.substring(6, 8)));
+        out.putInt(position + START_DATE, (int) job.getStartDate().toEpochDay());
+        out.putInt(position + OPEN_DATE, (int) bank.getAccountOpenDate().toEpochDay());
+        out.putInt(position + LAST_CHECKED, (int) creditHistory.getLastChecked().toEpochDay());
+        out.putInt(position + VERIFICATION_DATE, (int) verification.getVerificationDate().toEpochDay());
+        out.putInt(position + YEARS_EXPERIENCE, job.getYearsExperience());
+        out.putInt(position + DEPENDENTS, tax.getDependents());
+        out.putInt(position + LATE_PAYMENTS, creditHistory.getLatePaymentsCount());
+        out.putInt(position + AGE, person.getAge());
+        out.putInt(position + CREDIT_SCORE, bank.getCreditScore().getScore());
+        out.putInt(position + CONTRACT_MONTHS, job.getContract().getDurationMonths());
+
+        putString(out, position + FIRST_NAME, person.getFirstName(), strings);
+        putString(out, position + LAST_NAME, person.getLastName(), strings);
+        putString(out, position + EMAIL, person.getEmail(), strings);
+        putString(out, position + PHONE_NUMBER, person.getPhoneNumber(), strings);
+        putString(out, position + NI_NUMBER, person.getNationalInsuranceNumber(), strings);
+        putString(out, position + STREET, address.getStreet(), strings);
+        putString(out, position + CITY, address.getCity(), strings);
+        putString(out, position + POSTCODE, address.getPostcode(), strings);
+        putString(out, position + COUNTRY, address.getCountry(), strings);
+        putString(out, position + TITLE, job.getTitle(), strings);
+        putString(out, position + COMPANY, job.getCompany(), strings);
+        putString(out, position + DEPARTMENT_NAME, job.getDepartment().getName(), strings);
+        putString(out, position + DEPARTMENT_CODE, job.getDepartment().getCode(), strings);
+        putString(out, position + BANK_NAME, bank.getBankName(), strings);
+        putString(out, position + CREDIT_RATING, bank.getCreditScore().getRating(), strings);
+        putString(out, position + HOLDER_NAME, holder.getFullName(), strings);
+        putString(out, position + HOLDER_DATE_OF_BIRTH, holder.getDateOfBirth(), strings);
+        putString(out, position + HOLDER_NATIONALITY, holder.getNationality(), strings);
+        putString(out, position + VERIFICATION_METHOD, verification.getVerificationMethod(), strings);
+
+        out.put(position + EMPLOYMENT_TYPE, (byte) job.getEmploymentType().ordinal());
+        out.put(position + ACCOUNT_TYPE, (byte) bank.getAccountType().ordinal());
+        out.put(position + TAX_REGION, (byte) tax.getTaxRegion().ordinal());
+        out.put(position + FILING_STATUS, (byte) tax.getFilingStatus().ordinal());
+        out.put(position + INSURANCE_TYPE, (byte) insurance.getType().ordinal());
+        int flags = (job.getContract().isRenewable() ? CONTRACT_RENEWABLE : 0)
+                | (tax.hasDeductions() ? HAS_DEDUCTIONS : 0)
+                | (tax.isSelfEmployed() ? SELF_EMPLOYED : 0)
+                | (insurance.isActive() ? INSURANCE_ACTIVE : 0)
+                | (creditHistory.hasDefaultsInLastYear() ? DEFAULTS_IN_LAST_YEAR : 0)
+                | (verification.isVerified() ? EMPLOYMENT_VERIFIED : 0)
+                | (job.isSenior() ? SENIOR : 0)
+                | (bank.hasMinimumBalance() ? MINIMUM_BALANCE : 0)
+                | (bank.isOverdrawn() ? OVERDRAWN : 0);
+        out.putShort(position + FLAGS, (short) flags);
+        out.put(position + SALARY_SCALE, scale(job.getSalary()));
+        out.put(position + BALANCE_SCALE, scale(bank.getBalance()));
+        out.put(position + INCOME_SCALE, scale(tax.getIncome()));
+        out.put(position + INSURANCE_COST_SCALE, scale(insurance.getMonthlyCost()));
+        out.put(position + 175, (byte) 0);
+    }
+
+    static void encodeDeduction(Tax.TaxDeduction deduction, ByteBuffer out, int position,
+                                ToIntFunction<String> strings) {
+        out.putLong(position + DEDUCTION_AMOUNT, Money.ofPounds(deduction.getAmount()));
+        putString(out, position + DEDUCTION_TYPE, deduction.getType(), strings);
+        out.put(position + DEDUCTION_SCALE, scale(deduction.getAmount()));
+        out.put(position + DEDUCTION_VERIFIED, (byte) (deduction.isVerified() ? 1 : 0));
+        out.putShort(position + 14, (short) 0);
+    }
+
+    /**
+     * Rebuild the graph. With {@code recheck}, the job, account and opportunity go through their public
+     * constructors, so every rule is checked again; without it they are restored as written, so a record
+     * stays readable after the catalogue or lending rules change. Deduction {@code i} of the record is
+     * read from {@code deductions} at {@code deductionsBase + i * DEDUCTION_SIZE} relative to the
+     * record's deductions index.
+     */
+    static Opportunity decode(ByteBuffer in, int position, ByteBuffer deductions, int deductionsBase,
+                              IntFunction<String> strings, boolean recheck) {
+        int flags = in.getShort(position + FLAGS);
+
+        Person person = new Person(string(in, position + FIRST_NAME, strings),
+                string(in, position + LAST_NAME, strings), in.getInt(position + AGE),
+                string(in, position + EMAIL, strings), string(in, position + PHONE_NUMBER, strings),
+                string(in, position + NI_NUMBER, strings),
+                Person.Address.of(string(in, position + STREET, strings), string(in, position + CITY, strings),
+                        string(in, position + POSTCODE, strings), string(in, position + COUNTRY, strings)));
+
+        String title = string(in, position + TITLE, strings);
+        String company = string(in, position + COMPANY, strings);
+        BigDecimal salary = money(in, position + SALARY, position + SALARY_SCALE);
+        int yearsExperience = in.getInt(position + YEARS_EXPERIENCE);
+        Job.EmploymentType employmentType = EMPLOYMENT_TYPES[in.get(position + EMPLOYMENT_TYPE)];
+        Job.Department department = Job.Department.of(string(in, position + DEPARTMENT_NAME, strings),
+                string(in, position + DEPARTMENT_CODE, strings));
+        LocalDate startDate = LocalDate.ofEpochDay(in.getInt(position + START_DATE));
+        Job.Contract contract = Job.Contract.of(in.getInt(position + CONTRACT_MONTHS),
+                (flags & CONTRACT_RENEWABLE) != 0);
+        Job job = recheck
+                ? new Job(title, company, salary, yearsExperience, employmentType, department, startDate, contract)
+                : Job.trusted(title, company, salary, yearsExperience, employmentType, department, startDate,
+                        contract);
+
+        int sortCode = in.getInt(position + SORT_CODE);
+        String accountNumber = digits(in.getInt(position + ACCOUNT_NUMBER), 8);
+        String bankName = string(in, position + BANK_NAME, strings);
+        BigDecimal balance = money(in, position + BALANCE, position + BALANCE_SCALE);
+        Bank.AccountType accountType = ACCOUNT_TYPES[in.get(position + ACCOUNT_TYPE)];
+        String sortCodeText = digits(sortCode / 10_000, 2) + '-' + digits(sortCode / 100 % 100, 2) + '-'
+                + digits(sortCode % 100, 2);
+        Bank.CreditScore creditScore = Bank.CreditScore.of(in.getInt(position + CREDIT_SCORE),
+                string(in, position + CREDIT_RATING, strings));
+        LocalDate openDate = LocalDate.ofEpochDay(in.getInt(position + OPEN_DATE));
+        Bank.AccountHolder holder = Bank.AccountHolder.of(string(in, position + HOLDER_NAME, strings),
+                string(in, position + HOLDER_DATE_OF_BIRTH, strings),
+                string(in, position + HOLDER_NATIONALITY, strings));
+        Bank bank = recheck
+                ? new Bank(accountNumber, bankName, balance, accountType, sortCodeText, creditScore, openDate, holder)
+                : Bank.trusted(accountNumber, bankName, balance, accountType, sortCodeText, creditScore, openDate,
+                        holder);
+
+        int deductionsCount = in.getInt(position + DEDUCTIONS_COUNT);
+        List<Tax.TaxDeduction> taxDeductions = new ArrayList<>(deductionsCount);
+        for (int i = 0; i < deductionsCount; i++) {
+            int entry = deductionsBase + i * DEDUCTION_SIZE;
+            taxDeductions.add(new Tax.TaxDeduction(string(deductions, entry + DEDUCTION_TYPE, strings),
+                    money(deductions, entry + DEDUCTION_AMOUNT, entry + DEDUCTION_SCALE),
+                    deductions.get(entry + DEDUCTION_VERIFIED) != 0));
+        }
+        Tax tax = new Tax(money(in, position + INCOME, position + INCOME_SCALE),
+                TAX_REGIONS[in.get(position + TAX_REGION)], in.getInt(position + DEPENDENTS),
+                (flags & HAS_DEDUCTIONS) != 0, FILING_STATUSES[in.get(position + FILING_STATUS)], taxDeductions,
+                (flags & SELF_EMPLOYED) != 0);
+
+        Insurance insurance = Insurance.of(INSURANCE_TYPES[in.get(position + INSURANCE_TYPE)],
+                money(in, position + INSURANCE_COST, position + INSURANCE_COST_SCALE),
+                (flags & INSURANCE_ACTIVE) != 0);
+        Opportunity.CreditHistory creditHistory = new Opportunity.CreditHistory(
+                (flags & DEFAULTS_IN_LAST_YEAR) != 0, in.getInt(position + LATE_PAYMENTS),
+                LocalDate.ofEpochDay(in.getInt(position + LAST_CHECKED)));
+        Opportunity.EmploymentVerification verification = new Opportunity.EmploymentVerification(
+                (flags & EMPLOYMENT_VERIFIED) != 0, LocalDate.ofEpochDay(in.getInt(position + VERIFICATION_DATE)),
+                string(in, position + VERIFICATION_METHOD, strings));
+
+        return recheck
+                ? new Opportunity(person, job, bank, tax, insurance, creditHistory, verification)
+                : Opportunity.trusted(person, job, bank, tax, insurance, creditHistory, verification);
+    }
+
+    private static void putString(ByteBuffer out, int position, String value, ToIntFunction<String> strings) {
+        out.putInt(position, value == null ? NULL_STRING : strings.applyAsInt(value));
+    }
+
+    private static String string(ByteBuffer in, int position, IntFunction<String> strings) {
+        int id = in.getInt(position);
+        return id == NULL_STRING ? null : strings.apply(id);
+    }
+
+    private static byte scale(BigDecimal amount) {
+        return (byte) Math.max(0, Math.min(2, amount.scale()));
+    }
+
+    private static BigDecimal money(ByteBuffer in, int position, int scalePosition) {
+        BigDecimal amount = Money.toBigDecimal(in.getLong(position));
+        int scale = in.get(scalePosition);
+        // Exact: an amount stored with scale below 2 has no fractional pence or pennies to drop
+        return scale == 2 ? amount : amount.setScale(scale);
+    }
+
+    private static String digits(int value, int width) {
+        String digits = Integer.toString(value);
+        if (digits.length() >= width) {
+            return digits;
+        }
+        StringBuilder padded = new StringBuilder(width);
+        for (int i = digits.length(); i < width; i++) {
+            padded.append('0');
+        }
+        return padded.append(digits).toString();
+    }
+}
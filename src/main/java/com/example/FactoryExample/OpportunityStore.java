@@ -0,0 +1,827 @@
+package com.example.FactoryExample;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable in-memory portfolio of {@link Opportunity} graphs keyed by National Insurance number,
+ * persisted as an append-only write-ahead log plus periodic {@link PortfolioFile} snapshots.
+ * <p>
+ * Each upsert or removal is appended to the current log segment as a frame, little-endian:
+ * <pre>
+ * length    int, payload bytes
+ * checksum  int, CRC32C of everything after it
+ * sequence  long, increasing across segments
+ * type      byte, upsert or remove
+ * payload   key, then for upserts an {@link OpportunityRecord}, its deductions and its own string table
+ * </pre>
+ * {@link #upsert} and {@link #remove} return once their frame is on disk. Callers that arrive while a
+ * write is in progress queue their frames, and the next one of them writes and forces the whole queue
+ * at once (group commit), so concurrent writers share each fsync. Segments roll over at a configurable
+ * size.
+ * <p>
+ * A snapshot writes the live portfolio as a PortfolioFile named after the last sequence it covers;
+ * older snapshots and the segments it covers are then deleted. On open, the latest snapshot is decoded
+ * in parallel and only the log tail after it is replayed: segments are scanned in parallel, collapsed
+ * to the last entry per key, and the surviving upserts decoded in parallel. Records are restored as
+ * written, without checking the catalogue or lending rules again, so a policy change since they were
+ * stored cannot stop the store from opening. A torn frame at the end of the last segment, left by a
+ * crash mid-write, is truncated away; damage anywhere else fails the open.
+ * <p>
+ * Changes are visible to {@link #get} as soon as they are appended, slightly before they are durable.
+ */
+public final class OpportunityStore implements AutoCloseable {
+
+    static final int SEGMENT_MAGIC = 0x4c57504f; // "OPWL" read little-endian
+    static final short VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 16;
+    static final int FRAME_HEADER_SIZE = 17;
+
+    private static final byte UPSERT = 1;
+    private static final byte REMOVE = 2;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".oppf";
+    private static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long snapshotInterval;
+    private final ConcurrentHashMap<String, Opportunity> opportunities = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ExecutorService snapshotter;
+    private final Recovery recovery;
+
+    // Guarded by lock
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private ByteBuffer pending = frameBuffer(1 << 16);
+    private ByteBuffer spare = frameBuffer(1 << 16);
+    private final CRC32C checksum = new CRC32C();
+    private long lastSequence;
+    private long durableSequence;
+    private long appendedSinceSnapshot;
+    private boolean flushing;
+    private boolean snapshotScheduled;
+    private boolean closed;
+    private IOException failure;
+    private volatile IOException snapshotFailure;
+
+    // Only touched by the thread currently flushing
+    private FileChannel channel;
+    private long segmentBytes;
+
+    private OpportunityStore(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.snapshotInterval = builder.snapshotInterval;
+        Files.createDirectories(directory);
+        this.recovery = recover(builder.recoveryThreads);
+        this.durableSequence = lastSequence;
+        Path segment = createSegment(lastSequence + 1);
+        segments.put(lastSequence + 1, segment);
+        this.snapshotter = snapshotInterval > 0 ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "opportunity-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Open the store in {@code directory} with the default settings, recovering whatever it holds.
+     */
+    public static OpportunityStore open(Path directory) throws IOException {
+        return builder(directory).open();
+    }
+
+    public Opportunity get(String nationalInsuranceNumber) {
+        return nationalInsuranceNumber == null ? null : opportunities.get(nationalInsuranceNumber);
+    }
+
+    public int size() {
+        return opportunities.size();
+    }
+
+    /**
+     * A live, unmodifiable view of every stored opportunity.
+     */
+    public Collection<Opportunity> opportunities() {
+        return Collections.unmodifiableCollection(opportunities.values());
+    }
+
+    public Recovery getRecovery() {
+        return recovery;
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Insert or replace the opportunity stored under its National Insurance number, returning once the
+     * change is durable.
+     */
+    public void upsert(Opportunity opportunity) throws IOException {
+        if (opportunity == null) {
+            throw new IllegalArgumentException("Opportunity cannot be null");
+        }
+        String key = opportunity.getPerson().getNationalInsuranceNumber();
+        if (key == null) {
+            throw new IllegalArgumentException("Opportunity must have a National Insurance Number to be stored");
+        }
+        byte[] payload = encodeUpsert(key, opportunity);
+        long sequence;
+        lock.lock();
+        try {
+            sequence = append(UPSERT, payload);
+            opportunities.put(key, opportunity);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Remove the opportunity stored under {@code nationalInsuranceNumber}, returning once the removal is
+     * durable. Nothing is logged if there is no such opportunity.
+     */
+    public boolean remove(String nationalInsuranceNumber) throws IOException {
+        if (nationalInsuranceNumber == null) {
+            throw new IllegalArgumentException("National Insurance Number cannot be null");
+        }
+        byte[] payload = encodeKey(nationalInsuranceNumber, 0);
+        long sequence;
+        lock.lock();
+        try {
+            if (!opportunities.containsKey(nationalInsuranceNumber)) {
+                return false;
+            }
+            sequence = append(REMOVE, payload);
+            opportunities.remove(nationalInsuranceNumber);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * Write a snapshot of the portfolio as it stands, then delete the log segments and older snapshots
+     * it makes redundant. Returns the last sequence the snapshot covers.
+     */
+    public long snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            List<Opportunity> cut;
+            long sequence;
+            lock.lock();
+            try {
+                checkOpen();
+                cut = new ArrayList<>(opportunities.values());
+                sequence = lastSequence;
+                appendedSinceSnapshot = 0;
+            } finally {
+                lock.unlock();
+            }
+            // A snapshot must not contain changes that could still fail to reach the log
+            awaitDurable(sequence);
+            PortfolioFile.write(directory.resolve(name(SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX)), cut);
+            syncDirectory();
+
+            List<Path> obsolete = new ArrayList<>();
+            lock.lock();
+            try {
+                // A segment is covered once the segment after it starts at or before the snapshot's next sequence
+                while (segments.size() > 1) {
+                    Map.Entry<Long, Path> first = segments.firstEntry();
+                    if (segments.higherKey(first.getKey()) > sequence + 1) {
+                        break;
+                    }
+                    obsolete.add(first.getValue());
+                    segments.pollFirstEntry();
+                }
+            } finally {
+                lock.unlock();
+            }
+            for (Map.Entry<Long, Path> snapshot : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).entrySet()) {
+                if (snapshot.getKey() < sequence) {
+                    obsolete.add(snapshot.getValue());
+                }
+            }
+            for (Path path : obsolete) {
+                Files.deleteIfExists(path);
+            }
+            return sequence;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Wait for queued changes to reach disk and any background snapshot to finish, then release the log.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+            try {
+                snapshotter.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            // A snapshot finishing during shutdown may have led one more group commit
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            flush();
+        } finally {
+            lock.unlock();
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (snapshotFailure != null) {
+            throw snapshotFailure;
+        }
+    }
+
+    // Called with lock held
+    private long append(byte type, byte[] payload) throws IOException {
+        checkOpen();
+        long sequence = ++lastSequence;
+        int required = FRAME_HEADER_SIZE + payload.length;
+        if (pending.remaining() < required) {
+            ByteBuffer grown = frameBuffer(Math.max(pending.capacity() * 2, pending.position() + required));
+            pending = grown.put(pending.flip());
+        }
+        int start = pending.position();
+        pending.putInt(payload.length).putInt(0).putLong(sequence).put(type).put(payload);
+        checksum.reset();
+        checksum.update(pending.duplicate().position(start + 8).limit(pending.position()));
+        pending.putInt(start + 4, (int) checksum.getValue());
+        appendedSinceSnapshot++;
+        return sequence;
+    }
+
+    private void awaitDurable(long sequence) throws IOException {
+        boolean snapshotDue = false;
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new IOException("Write-ahead log failed", failure);
+                }
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                } else {
+                    flush();
+                }
+            }
+            if (snapshotter != null && !closed && !snapshotScheduled && appendedSinceSnapshot >= snapshotInterval) {
+                snapshotScheduled = true;
+                snapshotDue = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (snapshotDue) {
+            snapshotter.execute(this::backgroundSnapshot);
+        }
+    }
+
+    /**
+     * Write and force everything queued, as the leader of one group commit. Called with lock held; the
+     * lock is released during the I/O so other writers can queue the next group.
+     */
+    private void flush() {
+        if (pending.position() == 0 || failure != null) {
+            return;
+        }
+        flushing = true;
+        ByteBuffer batch = pending;
+        pending = spare;
+        spare = null;
+        long batchSequence = lastSequence;
+        lock.unlock();
+        IOException error = null;
+        Path rolled = null;
+        try {
+            batch.flip();
+            segmentBytes += batch.remaining();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            channel.force(false);
+            if (segmentBytes >= segmentSize) {
+                channel.close();
+                rolled = createSegment(batchSequence + 1);
+            }
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+        }
+        spare = batch.clear();
+        if (rolled != null) {
+            segments.put(batchSequence + 1, rolled);
+        }
+        if (error != null) {
+            failure = error;
+        } else {
+            durableSequence = batchSequence;
+        }
+        flushing = false;
+        flushed.signalAll();
+    }
+
+    private void backgroundSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            snapshotFailure = e;
+        } catch (IllegalStateException e) {
+            // Closed while the snapshot was queued
+        } finally {
+            lock.lock();
+            try {
+                snapshotScheduled = false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Opportunity store is closed");
+        }
+    }
+
+    private Path createSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(name(SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(SEGMENT_MAGIC).putShort(VERSION).putShort((short) 0).putLong(firstSequence).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+        syncDirectory();
+        segmentBytes = SEGMENT_HEADER_SIZE;
+        return path;
+    }
+
+    // Make new and renamed files survive a crash; not every platform can open a directory for this
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+
+    // ---- Recovery ----
+
+    private Recovery recover(int threads) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "opportunity-store-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long snapshotSequence = 0;
+            int snapshotRecords = 0;
+            TreeMap<Long, Path> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            if (!snapshots.isEmpty()) {
+                snapshotSequence = snapshots.lastKey();
+                snapshotRecords = loadSnapshot(snapshots.lastEntry().getValue(), pool, threads);
+            }
+            lastSequence = snapshotSequence;
+
+            TreeMap<Long, Path> found = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            List<Long> firstSequences = new ArrayList<>(found.keySet());
+            List<Path> paths = new ArrayList<>(found.values());
+            List<Callable<Segment>> scans = new ArrayList<>();
+            for (int i = 0; i < paths.size(); i++) {
+                Path path = paths.get(i);
+                boolean last = i == paths.size() - 1;
+                scans.add(() -> Segment.scan(path, last));
+            }
+            List<Segment> scanned = invokeAll(pool, scans);
+
+            Map<String, Entry> tail = new HashMap<>();
+            long replayed = 0;
+            for (int i = 0; i < scanned.size(); i++) {
+                Segment segment = scanned.get(i);
+                if (segment.firstSequence != firstSequences.get(i)) {
+                    throw new IOException("Write-ahead log segment " + paths.get(i) + " has the wrong header");
+                }
+                for (Entry entry : segment.entries.values()) {
+                    if (entry.sequence > snapshotSequence) {
+                        tail.merge(entry.key, entry, (a, b) -> b.sequence > a.sequence ? b : a);
+                        replayed++;
+                    }
+                }
+                lastSequence = Math.max(lastSequence, segment.lastSequence);
+                if (segment.lastSequence <= snapshotSequence) {
+                    // Covered by the snapshot, or empty
+                    Files.deleteIfExists(paths.get(i));
+                } else {
+                    segments.put(segment.firstSequence, paths.get(i));
+                }
+            }
+
+            List<Entry> upserts = new ArrayList<>();
+            for (Entry entry : tail.values()) {
+                if (entry.type == REMOVE) {
+                    opportunities.remove(entry.key);
+                } else {
+                    upserts.add(entry);
+                }
+            }
+            List<Callable<Void>> decodes = new ArrayList<>();
+            int chunk = Math.max(1, (upserts.size() + threads * 4 - 1) / (threads * 4));
+            for (int from = 0; from < upserts.size(); from += chunk) {
+                List<Entry> part = upserts.subList(from, Math.min(upserts.size(), from + chunk));
+                decodes.add(() -> {
+                    for (Entry entry : part) {
+                        opportunities.put(entry.key, entry.decode());
+                    }
+                    return null;
+                });
+            }
+            invokeAll(pool, decodes);
+            return new Recovery(snapshotSequence, snapshotRecords, replayed, tail.size(), System.nanoTime() - start);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int loadSnapshot(Path path, ExecutorService pool, int threads) throws IOException {
+        try (PortfolioFile file = PortfolioFile.open(path)) {
+            int size = file.size();
+            int chunk = Math.max(1, (size + threads * 4 - 1) / (threads * 4));
+            List<Callable<Void>> loads = new ArrayList<>();
+            for (int from = 0; from < size; from += chunk) {
+                int first = from;
+                int last = Math.min(size, from + chunk);
+                loads.add(() -> {
+                    for (int i = first; i < last; i++) {
+                        Opportunity opportunity = file.restore(i);
+                        opportunities.put(opportunity.getPerson().getNationalInsuranceNumber(), opportunity);
+                    }
+                    return null;
+                });
+            }
+            invokeAll(pool, loads);
+            return size;
+        }
+    }
+
+    private static <T> List<T> invokeAll(ExecutorService pool, List<Callable<T>> tasks) throws IOException {
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Recovery interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Recovery failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private TreeMap<Long, Path> list(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), path);
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return files;
+    }
+
+    private static String name(String prefix, long sequence, String suffix) {
+        return prefix + String.format("%020d", sequence) + suffix;
+    }
+
+    // ---- Encoding ----
+
+    private static ByteBuffer frameBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static byte[] encodeKey(String key, int extra) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer out = frameBuffer(4 + bytes.length + extra);
+        out.putInt(bytes.length).put(bytes);
+        return out.array();
+    }
+
+    private static byte[] encodeUpsert(String key, Opportunity opportunity) {
+        PortfolioFile.StringTable strings = new PortfolioFile.StringTable();
+        List<Tax.TaxDeduction> deductions = opportunity.getTax().getDeductions();
+        ByteBuffer body = frameBuffer(OpportunityRecord.SIZE + deductions.size() * OpportunityRecord.DEDUCTION_SIZE);
+        OpportunityRecord.encode(opportunity, body, 0, 0, strings::id);
+        for (int i = 0; i < deductions.size(); i++) {
+            OpportunityRecord.encodeDeduction(deductions.get(i), body,
+                    OpportunityRecord.SIZE + i * OpportunityRecord.DEDUCTION_SIZE, strings::id);
+        }
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        int stringBytes = 4;
+        for (String value : strings.values()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            stringBytes += 4 + bytes.length;
+        }
+        byte[] keyed = encodeKey(key, body.capacity() + stringBytes);
+        ByteBuffer out = ByteBuffer.wrap(keyed).order(ByteOrder.LITTLE_ENDIAN);
+        out.position(keyed.length - body.capacity() - stringBytes);
+        out.put(body.array()).putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            out.putInt(bytes.length).put(bytes);
+        }
+        return keyed;
+    }
+
+    /**
+     * One frame found during recovery, still in its mapped segment.
+     */
+    private static final class Entry {
+        final String key;
+        final long sequence;
+        final byte type;
+        final ByteBuffer segment;
+        final int body;
+
+        Entry(String key, long sequence, byte type, ByteBuffer segment, int body) {
+            this.key = key;
+            this.sequence = sequence;
+            this.type = type;
+            this.segment = segment;
+            this.body = body;
+        }
+
+        Opportunity decode() {
+            int deductions = segment.getInt(body + OpportunityRecord.DEDUCTIONS_COUNT);
+            int position = body + OpportunityRecord.SIZE + deductions * OpportunityRecord.DEDUCTION_SIZE;
+            String[] strings = new String[segment.getInt(position)];
+            position += 4;
+            for (int i = 0; i < strings.length; i++) {
+                int length = segment.getInt(position);
+                byte[] bytes = new byte[length];
+                segment.get(position + 4, bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                position += 4 + length;
+            }
+            return OpportunityRecord.decode(segment, body, segment, body + OpportunityRecord.SIZE, id -> {
+                if (id < 0 || id >= strings.length) {
+                    throw new IllegalArgumentException("Invalid string id " + id);
+                }
+                return strings[id];
+            }, false);
+        }
+    }
+
+    /**
+     * The last entry per key in one segment, plus its sequence range.
+     */
+    private static final class Segment {
+        final long firstSequence;
+        final long lastSequence;
+        final Map<String, Entry> entries;
+
+        private Segment(long firstSequence, long lastSequence, Map<String, Entry> entries) {
+            this.firstSequence = firstSequence;
+            this.lastSequence = lastSequence;
+            this.entries = entries;
+        }
+
+        static Segment scan(Path path, boolean last) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long length = channel.size();
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("Write-ahead log segment " + path + " is too large");
+                }
+                MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                in.order(ByteOrder.LITTLE_ENDIAN);
+                if (length < SEGMENT_HEADER_SIZE || in.getInt(0) != SEGMENT_MAGIC) {
+                    throw new IOException("Not a write-ahead log segment: " + path);
+                }
+                if (in.getShort(4) != VERSION) {
+                    throw new IOException("Unsupported write-ahead log version " + in.getShort(4) + " in " + path);
+                }
+                long firstSequence = in.getLong(8);
+                long lastSequence = firstSequence - 1;
+                Map<String, Entry> entries = new HashMap<>();
+                CRC32C checksum = new CRC32C();
+                int position = SEGMENT_HEADER_SIZE;
+                while (position < length) {
+                    String damage = null;
+                    int payload = position + 4 <= length ? in.getInt(position) : -1;
+                    if (payload < 0 || position + (long) FRAME_HEADER_SIZE + payload > length) {
+                        damage = "truncated";
+                    } else {
+                        checksum.reset();
+                        checksum.update(in.duplicate().position(position + 8)
+                                .limit(position + FRAME_HEADER_SIZE + payload));
+                        if ((int) checksum.getValue() != in.getInt(position + 4)) {
+                            damage = "checksum mismatch";
+                        } else if (in.getLong(position + 8) <= lastSequence) {
+                            damage = "sequence out of order";
+                        }
+                    }
+                    if (damage != null) {
+                        if (!last) {
+                            throw new IOException("Write-ahead log segment " + path + " is corrupt at offset "
+                                    + position + ": " + damage);
+                        }
+                        // A crash mid-write; everything before this frame was acknowledged
+                        channel.truncate(position);
+                        channel.force(true);
+                        break;
+                    }
+                    long sequence = in.getLong(position + 8);
+                    byte type = in.get(position + 16);
+                    int keyLength = in.getInt(position + FRAME_HEADER_SIZE);
+                    byte[] key = new byte[keyLength];
+                    in.get(position + FRAME_HEADER_SIZE + 4, key);
+                    String keyString = new String(key, StandardCharsets.UTF_8);
+                    entries.put(keyString, new Entry(keyString, sequence, type, in,
+                            position + FRAME_HEADER_SIZE + 4 + keyLength));
+                    lastSequence = sequence;
+                    position += FRAME_HEADER_SIZE + payload;
+                }
+                return new Segment(firstSequence, lastSequence, entries);
+            }
+        }
+    }
+
+    /**
+     * What {@link #open} found: the snapshot it started from and how much log it replayed on top.
+     */
+    public static final class Recovery {
+        private final long snapshotSequence;
+        private final int snapshotRecords;
+        private final long replayedEntries;
+        private final int appliedEntries;
+        private final long elapsedNanos;
+
+        Recovery(long snapshotSequence, int snapshotRecords, long replayedEntries, int appliedEntries,
+                 long elapsedNanos) {
+            this.snapshotSequence = snapshotSequence;
+            this.snapshotRecords = snapshotRecords;
+            this.replayedEntries = replayedEntries;
+            this.appliedEntries = appliedEntries;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getSnapshotSequence() {
+            return snapshotSequence;
+        }
+
+        public int getSnapshotRecords() {
+            return snapshotRecords;
+        }
+
+        /**
+         * Log entries after the snapshot, counting only the last one per key within each segment.
+         */
+        public long getReplayedEntries() {
+            return replayedEntries;
+        }
+
+        /**
+         * Upserts and removals applied after collapsing the tail to the last entry per key.
+         */
+        public int getAppliedEntries() {
+            return appliedEntries;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Recovery[snapshotSequence=" + snapshotSequence + ", snapshotRecords=" + snapshotRecords
+                    + ", replayedEntries=" + replayedEntries + ", appliedEntries=" + appliedEntries
+                    + ", elapsedMillis=" + elapsedNanos / 1_000_000 + "]";
+        }
+    }
+
+    public static final class Builder {
+        private final Path directory;
+        private long segmentSize = DEFAULT_SEGMENT_SIZE;
+        private long snapshotInterval;
+        private int recoveryThreads = Runtime.getRuntime().availableProcessors();
+
+        private Builder(Path directory) {
+            if (directory == null) {
+                throw new IllegalArgumentException("Directory cannot be null");
+            }
+            this.directory = directory;
+        }
+
+        /**
+         * Start a new log segment once the current one reaches {@code bytes}; 64MB unless set.
+         */
+        public Builder segmentSize(long bytes) {
+            if (bytes < 4096 || bytes > MAX_SEGMENT_SIZE) {
+                throw new IllegalArgumentException("Segment size must be between 4KB and 1GB");
+            }
+            this.segmentSize = bytes;
+            return this;
+        }
+
+        /**
+         * Snapshot in the background after every {@code entries} logged changes; 0, the default, leaves
+         * snapshots to {@link OpportunityStore#snapshot()}.
+         */
+        public Builder snapshotEvery(long entries) {
+            if (entries < 0) {
+                throw new IllegalArgumentException("Snapshot interval cannot be negative");
+            }
+            this.snapshotInterval = entries;
+            return this;
+        }
+
+        public Builder recoveryThreads(int threads) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("Recovery threads must be positive");
+            }
+            this.recoveryThreads = threads;
+            return this;
+        }
+
+        public OpportunityStore open() throws IOException {
+            return new OpportunityStore(this);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.FactoryExample;
+
+import java.util.Arrays;
+
+/**
+ * What-if sweeps for one applicant: maximum mortgage, maximum monthly spend and mortgage
+ * qualification over a grid of salaries, ages or balances, everything else held fixed.
+ * <p>
+ * Whatever does not vary along the grid (the combined mortgage multiplier, the tax and NI figures,
+ * the qualification flags) is worked out once, leaving each kernel a counted loop over primitive
+ * arrays with no calls and no branches beyond selects, the shape C2 unrolls and vectorises best.
+ * Results go into a caller-owned {@link Result} that is reused between sweeps, and match the
+ * {@code calculate*Pence()} methods of an Opportunity with the grid value substituted. Grid points
+ * are not checked against the constructor rules.
+ */
+public final class OpportunitySweep {
+
+    private final TaxYearSchedule schedule;
+    private final long salaryPence;
+    private final int age;
+    private final boolean senior;
+    private final boolean minimumBalance;
+    private final boolean overdrawn;
+    private final int dependents;
+    private final boolean hasDeductions;
+
+    public OpportunitySweep(Opportunity opportunity) {
+        this(opportunity, TaxYearSchedule.UK_2024_25);
+    }
+
+    public OpportunitySweep(Opportunity opportunity, TaxYearSchedule schedule) {
+        if (opportunity == null) {
+            throw new IllegalArgumentException("Opportunity cannot be null");
+        }
+        if (schedule == null) {
+            throw new IllegalArgumentException("Schedule cannot be null");
+        }
+        this.schedule = schedule;
+        this.salaryPence = opportunity.getJob().getSalaryPence();
+        this.age = opportunity.getPerson().getAge();
+        this.senior = opportunity.getJob().isSenior();
+        this.minimumBalance = opportunity.getBank().hasMinimumBalance();
+        this.overdrawn = opportunity.getBank().isOverdrawn();
+        this.dependents = opportunity.getTax().getDependents();
+        this.hasDeductions = opportunity.getTax().hasDeductions();
+    }
+
+    /**
+     * {@code points} evenly spaced values from {@code from} to {@code to} inclusive, e.g. a salary grid in pence.
+     */
+    public static long[] grid(long from, long to, int points) {
+        if (points < 2 || from > to) {
+            throw new IllegalArgumentException("Grid needs at least two points and from <= to");
+        }
+        long[] grid = new long[points];
+        for (int i = 0; i < points; i++) {
+            grid[i] = from + (long) ((double) (to - from) * i / (points - 1));
+        }
+        grid[points - 1] = to;
+        return grid;
+    }
+
+    public Result salaries(long[] salaryPence, Result out) {
+        int n = salaryPence.length;
+        out.resize(n);
+        MortgageMultiplierTable table = MortgageMultiplierTable.current();
+        long multiplier = table.numerator(table.index(age, senior, minimumBalance));
+        long denominator = table.denominator();
+        long maxSalary = (Long.MAX_VALUE - denominator / 2) / multiplier;
+        boolean fits = true;
+        for (int i = 0; i < n; i++) {
+            long salary = salaryPence[i];
+            if (salary < 0) {
+                throw new IllegalArgumentException("Salary grid values cannot be negative");
+            }
+            fits &= salary <= maxSalary;
+        }
+
+        long[] mortgage = out.maximumMortgagePence;
+        if (fits) {
+            for (int i = 0; i < n; i++) {
+                // HALF_UP for a non-negative dividend over an even divisor
+                mortgage[i] = (salaryPence[i] * multiplier + denominator / 2) / denominator;
+            }
+        } else {
+            // A fine-grained table can overflow the product before the division brings it back down
+            for (int i = 0; i < n; i++) {
+                mortgage[i] = Money.multiplyRatio(salaryPence[i], multiplier, denominator);
+            }
+        }
+
+        long[] spend = out.maximumMonthlySpendPence;
+        for (int i = 0; i < n; i++) {
+            long salary = salaryPence[i];
+            spend[i] = Opportunity.maximumMonthlySpendPence(salary,
+                    schedule.incomeTaxPence(salary, dependents, hasDeductions), schedule.nationalInsurancePence(salary));
+        }
+
+        LendingRules rules = LendingRules.current();
+        boolean eligible = rules.qualifiesForMortgage(age, overdrawn, Long.MAX_VALUE);
+        long minimumSalary = rules.mortgageMinimumSalaryPence();
+        boolean[] qualifies = out.qualifiesForMortgage;
+        for (int i = 0; i < n; i++) {
+            qualifies[i] = eligible & salaryPence[i] >= minimumSalary;
+        }
+        return out;
+    }
+
+    public Result ages(int[] ages, Result out) {
+        int n = ages.length;
+        out.resize(n);
+        // Age only selects one of three multipliers
+        MortgageMultiplierTable table = MortgageMultiplierTable.current();
+        int flags = table.index(0, senior, minimumBalance);
+        long young = mortgagePence(table, flags);
+        long middle = mortgagePence(table, 4 + flags);
+        long older = mortgagePence(table, 8 + flags);
+        long[] mortgage = out.maximumMortgagePence;
+        for (int i = 0; i < n; i++) {
+            int band = table.index(ages[i], false, false);
+            mortgage[i] = band == 8 ? older : band == 4 ? middle : young;
+        }
+
+        Arrays.fill(out.maximumMonthlySpendPence, 0, n, monthlySpendPence());
+
+        LendingRules rules = LendingRules.current();
+        boolean eligible = (rules.allowsOverdrawn() || !overdrawn) && salaryPence >= rules.mortgageMinimumSalaryPence();
+        int minimumAge = rules.mortgageMinimumAge();
+        int retirementAge = rules.retirementAge();
+        boolean[] qualifies = out.qualifiesForMortgage;
+        for (int i = 0; i < n; i++) {
+            int a = ages[i];
+            qualifies[i] = eligible & a >= minimumAge & a < retirementAge;
+        }
+        return out;
+    }
+
+    public Result balances(long[] balancePence, Result out) {
+        int n = balancePence.length;
+        out.resize(n);
+        // The balance only decides the minimum-balance factor and whether the account is overdrawn
+        MortgageMultiplierTable table = MortgageMultiplierTable.current();
+        long withMinimum = mortgagePence(table, table.index(age, senior, true));
+        long withoutMinimum = mortgagePence(table, table.index(age, senior, false));
+        long[] mortgage = out.maximumMortgagePence;
+        for (int i = 0; i < n; i++) {
+            mortgage[i] = balancePence[i] >= Bank.MINIMUM_BALANCE_PENCE ? withMinimum : withoutMinimum;
+        }
+
+        Arrays.fill(out.maximumMonthlySpendPence, 0, n, monthlySpendPence());
+
+        LendingRules rules = LendingRules.current();
+        boolean eligible = rules.qualifiesForMortgage(age, false, salaryPence);
+        boolean allowOverdrawn = rules.allowsOverdrawn();
+        boolean[] qualifies = out.qualifiesForMortgage;
+        for (int i = 0; i < n; i++) {
+            qualifies[i] = eligible & (allowOverdrawn | balancePence[i] >= 0);
+        }
+        return out;
+    }
+
+    private long mortgagePence(MortgageMultiplierTable table, int index) {
+        return Money.multiplyRatio(salaryPence, table.numerator(index), table.denominator());
+    }
+
+    private long monthlySpendPence() {
+        return Opportunity.maximumMonthlySpendPence(salaryPence,
+                schedule.incomeTaxPence(salaryPence, dependents, hasDeductions),
+                schedule.nationalInsurancePence(salaryPence));
+    }
+
+    /**
+     * Output of one sweep, row i for grid point i. The arrays grow as needed and are reused, so only
+     * the first {@link #size()} entries belong to the latest sweep.
+     */
+    public static final class Result {
+        private long[] maximumMortgagePence;
+        private long[] maximumMonthlySpendPence;
+        private boolean[] qualifiesForMortgage;
+        private int size;
+
+        public Result() {
+            this(1024);
+        }
+
+        public Result(int capacity) {
+            if (capacity < 0) {
+                throw new IllegalArgumentException("Capacity cannot be negative");
+            }
+            this.maximumMortgagePence = new long[capacity];
+            this.maximumMonthlySpendPence = new long[capacity];
+            this.qualifiesForMortgage = new boolean[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long[] getMaximumMortgagePence() {
+            return maximumMortgagePence;
+        }
+
+        public long[] getMaximumMonthlySpendPence() {
+            return maximumMonthlySpendPence;
+        }
+
+        public boolean[] getQualifiesForMortgage() {
+            return qualifiesForMortgage;
+        }
+
+        private void resize(int size) {
+            if (size > maximumMortgagePence.length) {
+                maximumMortgagePence = new long[size];
+                maximumMonthlySpendPence = new long[size];
+                qualifiesForMortgage = new boolean[size];
+            }
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.FactoryExample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A minimal perfect hash of a fixed set of strings, mapping each to its index in the list it was
+ * built from, or any other string to -1.
+ * <p>
+ * Built by hash and displace, as in CHD: the keys are split into buckets of about
+ * {@value #BUCKET_SIZE}, and the buckets, largest first, are each given the first displacement that
+ * sends all their keys to free slots of an n-slot table. Single-key buckets go straight to the slots
+ * left over. A lookup hashes the key once, reads its bucket's displacement and compares the one key
+ * in the slot it names, so its cost does not grow with the number of keys.
+ * <p>
+ * Keys are hashed from their {@link String#hashCode()} and length, which a String caches, so a title
+ * or bank name seen before costs no pass over its characters. If two keys share both, no salt can
+ * separate them and the hash falls back to one computed over the characters on every lookup. Building
+ * gives up with an {@link IllegalArgumentException} after {@value #MAX_SALTS} salts.
+ */
+final class PerfectHash {
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int MAX_DISPLACEMENT = 1 << 20;
+    private static final int MAX_SALTS = 64;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private final long salt;
+    private final boolean charHash;
+    // Per bucket: a displacement d >= 0, or -(slot + 1) for a bucket of one key
+    private final int[] displacements;
+    private final String[] keys;
+    private final int[] ids;
+
+    private PerfectHash(long salt, boolean charHash, int[] displacements, String[] keys, int[] ids) {
+        this.salt = salt;
+        this.charHash = charHash;
+        this.displacements = displacements;
+        this.keys = keys;
+        this.ids = ids;
+    }
+
+    /**
+     * Build over {@code keys}, which must be distinct and not null.
+     */
+    static PerfectHash of(List<String> keys) {
+        if (new HashSet<>(keys).size() != keys.size()) {
+            throw new IllegalArgumentException("Perfect hash keys must be distinct");
+        }
+        boolean charHash = !distinctStringHashes(keys);
+        // A salt fails only on a full 64-bit hash collision or a bucket that will not place; try the next
+        long salt = GOLDEN;
+        for (int attempt = 0; attempt < MAX_SALTS; attempt++, salt += GOLDEN) {
+            PerfectHash hash = tryBuild(salt, charHash, keys);
+            if (hash != null) {
+                return hash;
+            }
+        }
+        throw new IllegalArgumentException("No perfect hash found for " + keys.size() + " keys in " + MAX_SALTS
+                + " attempts");
+    }
+
+    /**
+     * The index in the build list of {@code key}, or -1 if it is not one of the keys.
+     */
+    int id(String key) {
+        if (key == null || keys.length == 0) {
+            return -1;
+        }
+        int slot = slot(hash(salt, charHash, key));
+        return key.equals(keys[slot]) ? ids[slot] : -1;
+    }
+
+    private int slot(long hash) {
+        int displacement = displacements[bucket(hash, displacements.length)];
+        return displacement < 0 ? -displacement - 1 : slot(hash, displacement, keys.length);
+    }
+
+    private static boolean distinctStringHashes(List<String> keys) {
+        long[] hashes = new long[keys.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = stringHash(0, keys.get(i).length(), keys.get(i).hashCode());
+        }
+        return distinct(hashes);
+    }
+
+    private static PerfectHash tryBuild(long salt, boolean charHash, List<String> keyList) {
+        int n = keyList.size();
+        long[] hashes = new long[n];
+        for (int i = 0; i < n; i++) {
+            hashes[i] = hash(salt, charHash, keyList.get(i));
+        }
+        if (!distinct(hashes)) {
+            return null;
+        }
+
+        int bucketCount = Math.max(1, (n + BUCKET_SIZE - 1) / BUCKET_SIZE);
+        List<List<Integer>> buckets = new ArrayList<>(bucketCount);
+        for (int b = 0; b < bucketCount; b++) {
+            buckets.add(new ArrayList<>(BUCKET_SIZE));
+        }
+        for (int i = 0; i < n; i++) {
+            buckets.get(bucket(hashes[i], bucketCount)).add(i);
+        }
+        Integer[] order = new Integer[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            order[b] = b;
+        }
+        Arrays.sort(order, (x, y) -> buckets.get(y).size() - buckets.get(x).size());
+
+        int[] displacements = new int[bucketCount];
+        String[] keys = new String[n];
+        int[] ids = new int[n];
+        int[] slots = new int[BUCKET_SIZE * 4];
+        int nextFree = 0;
+        for (int b : order) {
+            List<Integer> bucket = buckets.get(b);
+            if (bucket.isEmpty()) {
+                break;
+            }
+            if (bucket.size() == 1) {
+                while (keys[nextFree] != null) {
+                    nextFree++;
+                }
+                displacements[b] = -nextFree - 1;
+                place(keys, ids, nextFree, keyList, bucket.get(0));
+                continue;
+            }
+            if (bucket.size() > slots.length) {
+                return null;
+            }
+            int displacement = 0;
+            while (!fits(bucket, hashes, displacement, keys, slots)) {
+                if (++displacement == MAX_DISPLACEMENT) {
+                    return null;
+                }
+            }
+            displacements[b] = displacement;
+            for (int k = 0; k < bucket.size(); k++) {
+                place(keys, ids, slots[k], keyList, bucket.get(k));
+            }
+        }
+        return new PerfectHash(salt, charHash, displacements, keys, ids);
+    }
+
+    private static boolean distinct(long[] hashes) {
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether every key of the bucket lands on a distinct free slot under displacement; slots gets them
+    private static boolean fits(List<Integer> bucket, long[] hashes, int displacement, String[] keys, int[] slots) {
+        for (int k = 0; k < bucket.size(); k++) {
+            int slot = slot(hashes[bucket.get(k)], displacement, keys.length);
+            if (keys[slot] != null) {
+                return false;
+            }
+            for (int j = 0; j < k; j++) {
+                if (slots[j] == slot) {
+                    return false;
+                }
+            }
+            slots[k] = slot;
+        }
+        return true;
+    }
+
+    private static void place(String[] keys, int[] ids, int slot, List<String> keyList, int id) {
+        keys[slot] = keyList.get(id);
+        ids[slot] = id;
+    }
+
+    private static long hash(long salt, boolean charHash, String key) {
+        return charHash ? charHash(salt, key) : stringHash(salt, key.length(), key.hashCode());
+    }
+
+    // Mixes the length and String hash code, which a String caches. Odd multiplies and xor-shifts are
+    // invertible, so keys differing in either keep different hashes under every salt
+    private static long stringHash(long salt, int length, int hashCode) {
+        long h = (salt ^ ((long) length << 32 | (hashCode & 0xFFFFFFFFL))) * GOLDEN;
+        h = (h ^ (h >>> 32)) * 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 32);
+    }
+
+    // Four chars per block, each block mixed into the salted state. The full mix per block keeps the
+    // difference two keys make to the state dependent on the salt, so no pair collides under every salt
+    private static long charHash(long salt, String key) {
+        int length = key.length();
+        long h = salt ^ length;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long block = key.charAt(i) | (long) key.charAt(i + 1) << 16 | (long) key.charAt(i + 2) << 32
+                    | (long) key.charAt(i + 3) << 48;
+            h = mix(h ^ block);
+        }
+        for (; i < length; i++) {
+            h = mix(h ^ key.charAt(i));
+        }
+        return mix(h);
+    }
+
+    // The bucket comes from the top of the low word, the slot from the high word displaced by a multiple
+    // of the low word, which differs between keys of one bucket
+    private static int bucket(long hash, int bucketCount) {
+        return (int) (((hash & 0xFFFFFFFFL) * bucketCount) >>> 32);
+    }
+
+    private static int slot(long hash, int displacement, int slotCount) {
+        int h = (int) (hash >>> 32) + displacement * ((int) hash | 1);
+        return (int) (((h & 0xFFFFFFFFL) * slotCount) >>> 32);
+    }
+
+    // The MurmurHash3 64-bit finaliser
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
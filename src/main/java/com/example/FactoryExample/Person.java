@@ -1,6 +1,6 @@
 package com.example.FactoryExample;
 
-import java.util.regex.Pattern;
+import java.util.Objects;
 
 public class Person {
     private final String firstName;
@@ -11,35 +11,19 @@ public class Person {
     private final String nationalInsuranceNumber;
     private final Address address;
 
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
-    private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+?[0-9]{10,15}$");
-    private static final Pattern NI_PATTERN = Pattern.compile("^[A-Z]{2}[0-9]{6}[A-Z]$");
+    private static final Address EMPTY_ADDRESS = Address.EMPTY;
+    private static final ValidationResult<Rule> VALID = new ValidationResult<>(Rule.VALUES, 0);
 
     public Person(String firstName, String lastName, int age, String email, String phoneNumber,
                   String nationalInsuranceNumber, Address address) {
-        if (firstName == null || firstName.trim().isEmpty()) {
-            throw new IllegalArgumentException("First name cannot be null or empty");
-        }
-        if (lastName == null || lastName.trim().isEmpty()) {
-            throw new IllegalArgumentException("Last name cannot be null or empty");
-        }
-        if (age < 0 || age > 150) {
-            throw new IllegalArgumentException("Age must be between 0 and 150");
-        }
-        if (email != null && !EMAIL_PATTERN.matcher(email).matches()) {
-            throw new IllegalArgumentException("Invalid email format");
-        }
-        if (phoneNumber != null && !PHONE_PATTERN.matcher(phoneNumber).matches()) {
-            throw new IllegalArgumentException("Invalid phone number format");
-        }
-        if (nationalInsuranceNumber != null && !NI_PATTERN.matcher(nationalInsuranceNumber).matches()) {
-            throw new IllegalArgumentException("Invalid National Insurance Number format");
-        }
-        if (address == null) {
-            throw new IllegalArgumentException("Address cannot be null");
-        }
-        if (age >= 16 && nationalInsuranceNumber == null) {
-            throw new IllegalArgumentException("National Insurance Number required for persons aged 16 or over");
+        this(firstName, lastName, age, email, phoneNumber, nationalInsuranceNumber, address,
+                violations(firstName, lastName, age, email, phoneNumber, nationalInsuranceNumber, address));
+    }
+
+    private Person(String firstName, String lastName, int age, String email, String phoneNumber,
+                   String nationalInsuranceNumber, Address address, long violations) {
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
         }
 
         this.firstName = firstName;
@@ -51,15 +35,107 @@ public class Person {
         this.address = address;
     }
 
+    // Derivation of an already valid person; the with* methods check the rules on the fields they change
+    private Person(Person base, int age, Address address) {
+        this.firstName = base.firstName;
+        this.lastName = base.lastName;
+        this.age = age;
+        this.email = base.email;
+        this.phoneNumber = base.phoneNumber;
+        this.nationalInsuranceNumber = base.nationalInsuranceNumber;
+        this.address = address;
+    }
+
     public Person(String firstName, String lastName, int age) {
-        this(firstName, lastName, age, null, null, null, new Address("", "", "", ""));
+        this(firstName, lastName, age, null, null, null, EMPTY_ADDRESS);
     }
 
     public Person(String firstName, String lastName) {
-        this(firstName, lastName, 0, null, null, null, new Address("", "", "", ""));
+        this(firstName, lastName, 0, null, null, null, EMPTY_ADDRESS);
+    }
+
+    /**
+     * A person from arguments that have already passed {@link #validate}. No rule is checked again.
+     */
+    static Person trusted(String firstName, String lastName, int age, String email, String phoneNumber,
+                          String nationalInsuranceNumber, Address address) {
+        return new Person(firstName, lastName, age, email, phoneNumber, nationalInsuranceNumber, address, 0);
+    }
+
+    /**
+     * Check every constructor rule without throwing, reporting all the rules the arguments break.
+     */
+    public static ValidationResult<Rule> validate(String firstName, String lastName, int age, String email,
+                                                  String phoneNumber, String nationalInsuranceNumber,
+                                                  Address address) {
+        long violations = violations(firstName, lastName, age, email, phoneNumber, nationalInsuranceNumber, address);
+        return violations == 0 ? VALID : new ValidationResult<>(Rule.VALUES, violations);
+    }
+
+    private static long violations(String firstName, String lastName, int age, String email, String phoneNumber,
+                                   String nationalInsuranceNumber, Address address) {
+        long violations = 0;
+        if (firstName == null || firstName.trim().isEmpty()) {
+            violations |= Rule.FIRST_NAME_REQUIRED.bit();
+        }
+        if (lastName == null || lastName.trim().isEmpty()) {
+            violations |= Rule.LAST_NAME_REQUIRED.bit();
+        }
+        violations |= ageViolations(age, nationalInsuranceNumber);
+        if (email != null && !FieldValidators.isEmail(email)) {
+            violations |= Rule.EMAIL_FORMAT.bit();
+        }
+        if (phoneNumber != null && !FieldValidators.isPhoneNumber(phoneNumber)) {
+            violations |= Rule.PHONE_FORMAT.bit();
+        }
+        if (nationalInsuranceNumber != null && !FieldValidators.isNationalInsuranceNumber(nationalInsuranceNumber)) {
+            violations |= Rule.NI_NUMBER_FORMAT.bit();
+        }
+        if (address == null) {
+            violations |= Rule.ADDRESS_REQUIRED.bit();
+        }
+        return violations;
+    }
+
+    private static long ageViolations(int age, String nationalInsuranceNumber) {
+        long violations = 0;
+        if (age < 0 || age > 150) {
+            violations |= Rule.AGE_RANGE.bit();
+        }
+        if (age >= 16 && nationalInsuranceNumber == null) {
+            violations |= Rule.NI_NUMBER_REQUIRED.bit();
+        }
+        return violations;
+    }
+
+    public enum Rule implements ValidationRule {
+        FIRST_NAME_REQUIRED("First name cannot be null or empty"),
+        LAST_NAME_REQUIRED("Last name cannot be null or empty"),
+        AGE_RANGE("Age must be between 0 and 150"),
+        EMAIL_FORMAT("Invalid email format"),
+        PHONE_FORMAT("Invalid phone number format"),
+        NI_NUMBER_FORMAT("Invalid National Insurance Number format"),
+        ADDRESS_REQUIRED("Address cannot be null"),
+        NI_NUMBER_REQUIRED("National Insurance Number required for persons aged 16 or over");
+
+        private static final Rule[] VALUES = values();
+
+        private final String message;
+
+        Rule(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
     }
 
     public static class Address {
+        // Only the empty address is shared; real addresses are per applicant and are not kept in a table
+        private static final Address EMPTY = new Address("", "", "", "");
+
         private final String street;
         private final String city;
         private final String postcode;
@@ -94,6 +170,38 @@ public class Person {
                     postcode != null && !postcode.isEmpty() &&
                     country != null && !country.isEmpty();
         }
+
+        /**
+         * An address equal to {@code new Address(street, city, postcode, country)}, shared when every
+         * field is empty.
+         */
+        public static Address of(String street, String city, String postcode, String country) {
+            if ("".equals(street) && "".equals(city) && "".equals(postcode) && "".equals(country)) {
+                return EMPTY;
+            }
+            return new Address(street, city, postcode, country);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Address other = (Address) o;
+            return Objects.equals(street, other.street) && Objects.equals(city, other.city)
+                    && Objects.equals(postcode, other.postcode) && Objects.equals(country, other.country);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hashCode(street);
+            result = 31 * result + Objects.hashCode(city);
+            result = 31 * result + Objects.hashCode(postcode);
+            return 31 * result + Objects.hashCode(country);
+        }
     }
 
     public String getFirstName() {
@@ -112,6 +220,18 @@ public class Person {
         return email;
     }
 
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public String getNationalInsuranceNumber() {
+        return nationalInsuranceNumber;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+
     public String getFullName() {
         return firstName + " " + lastName;
     }
@@ -120,6 +240,25 @@ public class Person {
         return age >= 18;
     }
 
+    /**
+     * This person at a different age. Only the age range and the NI number requirement from 16 are
+     * checked; everything else is shared.
+     */
+    public Person withAge(int age) {
+        long violations = ageViolations(age, nationalInsuranceNumber);
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
+        }
+        return new Person(this, age, address);
+    }
+
+    public Person withAddress(Address address) {
+        if (address == null) {
+            throw ValidationResult.rejection(Rule.VALUES, Rule.ADDRESS_REQUIRED.bit());
+        }
+        return new Person(this, age, address);
+    }
+
     public boolean hasEmail() {
         return email != null && !email.isEmpty();
     }
@@ -0,0 +1,444 @@
+package com.example.FactoryExample;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, versioned checkpoint of a portfolio of {@link Opportunity} graphs, read back through
+ * memory-mapped, zero-copy views.
+ * <p>
+ * Layout, all little-endian:
+ * <pre>
+ * header       64 bytes: magic "OPPF", version, record size, record count,
+ *              offset and count of the deductions and strings sections
+ * records      record count x {@link OpportunityRecord#SIZE} bytes
+ * deductions   deduction count x {@link OpportunityRecord#DEDUCTION_SIZE} bytes
+ * strings      string count, then count + 1 int offsets into the UTF-8 bytes that follow
+ * </pre>
+ * Each distinct string is stored once. A {@link Record} reads the mapped bytes in place, so
+ * opportunities can be scored from the file without building their graphs; {@link #read(int)} builds
+ * the full graph when it is needed. Files are written to a temporary sibling and moved into place, so
+ * a crash mid-write leaves the previous checkpoint intact.
+ */
+public final class PortfolioFile implements AutoCloseable {
+
+    static final int MAGIC = 0x4650504f; // "OPPF" read little-endian
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 64;
+
+    private static final int WRITE_BATCH = 1024;
+
+    private final FileChannel channel;
+    private final int size;
+    // Records are mapped in slices, as one mapping cannot exceed 2GB
+    private final ByteBuffer[] records;
+    private final int recordsPerSlice;
+    private final ByteBuffer deductions;
+    private final ByteBuffer strings;
+    private final int stringCount;
+    private final String[] decoded;
+
+    private PortfolioFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.read(header, 0) != HEADER_SIZE) {
+            throw new IOException("Portfolio file is truncated");
+        }
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a portfolio file");
+        }
+        if (header.getShort(4) != VERSION) {
+            throw new IOException("Unsupported portfolio file version " + header.getShort(4));
+        }
+        if (header.getShort(6) != OpportunityRecord.SIZE) {
+            throw new IOException("Unexpected record size " + header.getShort(6));
+        }
+        long recordCount = header.getLong(8);
+        long deductionsOffset = header.getLong(16);
+        long deductionCount = header.getLong(24);
+        long stringsOffset = header.getLong(32);
+        this.stringCount = header.getInt(40);
+        if (recordCount > Integer.MAX_VALUE || stringsOffset > channel.size()) {
+            throw new IOException("Portfolio file is truncated or corrupt");
+        }
+
+        this.size = (int) recordCount;
+        this.recordsPerSlice = Integer.MAX_VALUE / OpportunityRecord.SIZE;
+        int slices = (int) ((recordCount + recordsPerSlice - 1) / recordsPerSlice);
+        this.records = new ByteBuffer[slices];
+        for (int i = 0; i < slices; i++) {
+            long first = (long) i * recordsPerSlice;
+            long count = Math.min(recordsPerSlice, recordCount - first);
+            records[i] = map(HEADER_SIZE + first * OpportunityRecord.SIZE, count * OpportunityRecord.SIZE);
+        }
+        this.deductions = map(deductionsOffset, deductionCount * OpportunityRecord.DEDUCTION_SIZE);
+        this.strings = map(stringsOffset, channel.size() - stringsOffset);
+        this.decoded = new String[stringCount];
+    }
+
+    /**
+     * Map an existing portfolio file for reading.
+     */
+    public static PortfolioFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new PortfolioFile(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write the opportunities to {@code path}, replacing any existing file once the new one is complete.
+     */
+    public static void write(Path path, Iterable<Opportunity> opportunities) throws IOException {
+        if (path == null || opportunities == null) {
+            throw new IllegalArgumentException("Path and opportunities cannot be null");
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        StringTable strings = new StringTable();
+        ByteBuffer deductions = ByteBuffer.allocate(64 * OpportunityRecord.DEDUCTION_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer batch = ByteBuffer.allocate(WRITE_BATCH * OpportunityRecord.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int deductionCount = 0;
+        long recordCount = 0;
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_SIZE);
+            for (Opportunity opportunity : opportunities) {
+                if (opportunity == null) {
+                    throw new IllegalArgumentException("Portfolio cannot contain null opportunities");
+                }
+                List<Tax.TaxDeduction> taxDeductions = opportunity.getTax().getDeductions();
+                deductions = ensureCapacity(deductions, (deductionCount + taxDeductions.size())
+                        * OpportunityRecord.DEDUCTION_SIZE);
+                OpportunityRecord.encode(opportunity, batch, batch.position(), deductionCount, strings::id);
+                for (Tax.TaxDeduction deduction : taxDeductions) {
+                    OpportunityRecord.encodeDeduction(deduction, deductions,
+                            deductionCount++ * OpportunityRecord.DEDUCTION_SIZE, strings::id);
+                }
+                batch.position(batch.position() + OpportunityRecord.SIZE);
+                recordCount++;
+                if (!batch.hasRemaining()) {
+                    writeFully(channel, batch.flip());
+                    batch.clear();
+                }
+            }
+            if (recordCount > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Portfolio cannot hold more than " + Integer.MAX_VALUE
+                        + " opportunities");
+            }
+            writeFully(channel, batch.flip());
+
+            long deductionsOffset = channel.position();
+            writeFully(channel, deductions.limit(deductionCount * OpportunityRecord.DEDUCTION_SIZE).position(0));
+            long stringsOffset = channel.position();
+            strings.writeTo(channel);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) OpportunityRecord.SIZE).putLong(recordCount)
+                    .putLong(deductionsOffset).putLong(deductionCount).putLong(stringsOffset)
+                    .putInt(strings.size());
+            header.position(HEADER_SIZE).flip();
+            channel.position(0);
+            writeFully(channel, header);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A reusable view, positioned on the first record.
+     */
+    public Record record() {
+        return new Record();
+    }
+
+    public Record record(int index) {
+        return new Record().moveTo(index);
+    }
+
+    /**
+     * Decode the full Opportunity graph of record {@code index}, re-running every constructor rule.
+     */
+    public Opportunity read(int index) {
+        return decode(index, true);
+    }
+
+    /**
+     * Decode record {@code index} as it was written, without checking the rules that depend on the
+     * catalogue or lending rules in force.
+     */
+    Opportunity restore(int index) {
+        return decode(index, false);
+    }
+
+    private Opportunity decode(int index, boolean recheck) {
+        checkIndex(index);
+        ByteBuffer slice = records[index / recordsPerSlice];
+        int position = (index % recordsPerSlice) * OpportunityRecord.SIZE;
+        int deductionsIndex = slice.getInt(position + OpportunityRecord.DEDUCTIONS_INDEX);
+        return OpportunityRecord.decode(slice, position, deductions,
+                deductionsIndex * OpportunityRecord.DEDUCTION_SIZE, this::string, recheck);
+    }
+
+    /**
+     * Load records {@code [from, to)} into {@code batch} straight from the mapped file, without
+     * decoding them into graphs.
+     */
+    public void addTo(OpportunityBatch batch, int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IllegalArgumentException("Invalid record range [" + from + ", " + to + ")");
+        }
+        Record record = new Record();
+        for (int i = from; i < to; i++) {
+            record.moveTo(i).addTo(batch);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    String string(int id) {
+        if (id < 0 || id >= stringCount) {
+            throw new IllegalArgumentException("Invalid string id " + id);
+        }
+        String value = decoded[id];
+        if (value == null) {
+            int offsets = 4;
+            int bytesStart = offsets + (stringCount + 1) * 4;
+            int start = strings.getInt(offsets + id * 4);
+            int end = strings.getInt(offsets + (id + 1) * 4);
+            byte[] bytes = new byte[end - start];
+            strings.get(bytesStart + start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            // Racing readers may decode the same string twice; either copy is fine to keep
+            decoded[id] = value;
+        }
+        return value;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Record index " + index + " out of range for size " + size);
+        }
+    }
+
+    private MappedByteBuffer map(long position, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, long required) {
+        if (required <= buffer.capacity()) {
+            return buffer;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Deductions section cannot exceed 2GB");
+        }
+        long capacity = Math.min(Integer.MAX_VALUE, Math.max(required, 2L * buffer.capacity()));
+        ByteBuffer grown = ByteBuffer.allocate((int) capacity).order(ByteOrder.LITTLE_ENDIAN);
+        grown.put(buffer.array(), 0, buffer.capacity());
+        return grown.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Flyweight over one mapped record; {@link #moveTo(int)} repositions it without allocating.
+     * A view is not safe to share between threads, but any number of views can read the file at once.
+     */
+    public final class Record {
+        private ByteBuffer slice;
+        private int position;
+        private int index;
+
+        private Record() {
+            if (size > 0) {
+                moveTo(0);
+            }
+        }
+
+        public Record moveTo(int index) {
+            checkIndex(index);
+            this.slice = records[index / recordsPerSlice];
+            this.position = (index % recordsPerSlice) * OpportunityRecord.SIZE;
+            this.index = index;
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getAge() {
+            return slice.getInt(position + OpportunityRecord.AGE);
+        }
+
+        public long getSalaryPence() {
+            return slice.getLong(position + OpportunityRecord.SALARY);
+        }
+
+        public long getBalancePence() {
+            return slice.getLong(position + OpportunityRecord.BALANCE);
+        }
+
+        public long getIncomePence() {
+            return slice.getLong(position + OpportunityRecord.INCOME);
+        }
+
+        public int getDependents() {
+            return slice.getInt(position + OpportunityRecord.DEPENDENTS);
+        }
+
+        public String getNationalInsuranceNumber() {
+            int id = slice.getInt(position + OpportunityRecord.NI_NUMBER);
+            return id == OpportunityRecord.NULL_STRING ? null : string(id);
+        }
+
+        public boolean isSenior() {
+            return flag(OpportunityRecord.SENIOR);
+        }
+
+        public boolean hasMinimumBalance() {
+            return flag(OpportunityRecord.MINIMUM_BALANCE);
+        }
+
+        public boolean isOverdrawn() {
+            return flag(OpportunityRecord.OVERDRAWN);
+        }
+
+        public boolean hasDeductions() {
+            return flag(OpportunityRecord.HAS_DEDUCTIONS);
+        }
+
+        public boolean hasDefaultsInLastYear() {
+            return flag(OpportunityRecord.DEFAULTS_IN_LAST_YEAR);
+        }
+
+        public boolean isInsuranceActive() {
+            return flag(OpportunityRecord.INSURANCE_ACTIVE);
+        }
+
+        public boolean isEmploymentVerified() {
+            return flag(OpportunityRecord.EMPLOYMENT_VERIFIED);
+        }
+
+        /**
+         * Same as {@link Opportunity#calculateMaximumMortgagePence()} for the stored graph.
+         */
+        public long calculateMaximumMortgagePence() {
+            return MortgageMultiplierTable.current().maximumMortgagePence(getSalaryPence(), getAge(), isSenior(),
+                    hasMinimumBalance());
+        }
+
+        /**
+         * Same as {@link Opportunity#calculateMaximumMonthlySpendPence()} for the stored graph.
+         */
+        public long calculateMaximumMonthlySpendPence() {
+            TaxYearSchedule schedule = TaxYearSchedule.UK_2024_25;
+            long salary = getSalaryPence();
+            return Opportunity.maximumMonthlySpendPence(salary,
+                    schedule.incomeTaxPence(salary, getDependents(), hasDeductions()),
+                    schedule.nationalInsurancePence(salary));
+        }
+
+        /**
+         * Same as {@link Opportunity#qualifiesForMortgage()} for the stored graph.
+         */
+        public boolean qualifiesForMortgage() {
+            return LendingRules.current().qualifiesForMortgage(getAge(), isOverdrawn(), getSalaryPence());
+        }
+
+        public void addTo(OpportunityBatch batch) {
+            batch.add(getSalaryPence(), getAge(), isSenior(), hasMinimumBalance(), isOverdrawn(), getDependents(),
+                    hasDeductions());
+        }
+
+        public Opportunity toOpportunity() {
+            return read(index);
+        }
+
+        private boolean flag(int mask) {
+            return (slice.getShort(position + OpportunityRecord.FLAGS) & mask) != 0;
+        }
+    }
+
+    /**
+     * Assigns each distinct string an id in first-seen order while writing.
+     */
+    static final class StringTable {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int id(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        List<String> values() {
+            return values;
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            List<byte[]> encoded = new ArrayList<>(values.size());
+            long length = 0;
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                length += bytes.length;
+            }
+            if (length + 4L * (values.size() + 2) > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("String dictionary cannot exceed 2GB");
+            }
+            ByteBuffer index = ByteBuffer.allocate(4 * (values.size() + 2)).order(ByteOrder.LITTLE_ENDIAN);
+            index.putInt(values.size());
+            int offset = 0;
+            index.putInt(offset);
+            for (byte[] bytes : encoded) {
+                offset += bytes.length;
+                index.putInt(offset);
+            }
+            writeFully(channel, index.flip());
+            for (byte[] bytes : encoded) {
+                writeFully(channel, ByteBuffer.wrap(bytes));
+            }
+        }
+    }
+}
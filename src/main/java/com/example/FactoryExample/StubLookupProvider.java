@@ -0,0 +1,71 @@
+package com.example.FactoryExample;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for the credit and employment services, for running and benchmarking
+ * {@link OpportunityAssembler} offline.
+ * <p>
+ * Every lookup sleeps for {@code latency}; a fraction {@code tailProbability} of them sleeps for
+ * {@code tailLatency} instead, to model a slow tail. Answers are derived from the NI number, so the
+ * same applicant always gets the same history: about one in ten has a default in the last year.
+ */
+public final class StubLookupProvider implements CreditHistoryProvider, EmploymentVerificationProvider {
+
+    private final long latencyNanos;
+    private final long tailLatencyNanos;
+    private final double tailProbability;
+    private final AtomicLong lookups = new AtomicLong();
+
+    public StubLookupProvider(Duration latency) {
+        this(latency, latency, 0.0);
+    }
+
+    public StubLookupProvider(Duration latency, Duration tailLatency, double tailProbability) {
+        if (latency == null || latency.isNegative()) {
+            throw new IllegalArgumentException("Latency cannot be null or negative");
+        }
+        if (tailLatency == null || tailLatency.isNegative()) {
+            throw new IllegalArgumentException("Tail latency cannot be null or negative");
+        }
+        if (!(tailProbability >= 0.0 && tailProbability <= 1.0)) {
+            throw new IllegalArgumentException("Tail probability must be between 0 and 1");
+        }
+        this.latencyNanos = latency.toNanos();
+        this.tailLatencyNanos = tailLatency.toNanos();
+        this.tailProbability = tailProbability;
+    }
+
+    @Override
+    public Opportunity.CreditHistory fetchCreditHistory(String nationalInsuranceNumber) {
+        pause();
+        int hash = nationalInsuranceNumber.hashCode() & Integer.MAX_VALUE;
+        return new Opportunity.CreditHistory(hash % 10 == 0, hash % 4, BusinessDate.today());
+    }
+
+    @Override
+    public Opportunity.EmploymentVerification fetchEmploymentVerification(String nationalInsuranceNumber) {
+        pause();
+        return new Opportunity.EmploymentVerification(true, BusinessDate.today(), "Stub");
+    }
+
+    /**
+     * Number of lookups of either kind served so far.
+     */
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    private void pause() {
+        lookups.incrementAndGet();
+        long nanos = tailProbability > 0.0 && ThreadLocalRandom.current().nextDouble() < tailProbability
+                ? tailLatencyNanos : latencyNanos;
+        long deadline = System.nanoTime() + nanos;
+        for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.FactoryExample;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.List;
 
@@ -16,33 +15,21 @@ public class Tax {
 
     private static final BigDecimal MIN_INCOME = BigDecimal.ZERO;
     private static final BigDecimal MAX_INCOME = new BigDecimal("10000000");
+    private static final BigDecimal PERSONAL_ALLOWANCE = new BigDecimal("12570");
+    private static final ValidationResult<Rule> VALID = new ValidationResult<>(Rule.VALUES, 0);
 
     public Tax(BigDecimal income, TaxRegion taxRegion, int dependents, boolean hasDeductions,
                FilingStatus filingStatus, List<TaxDeduction> deductions,
                boolean selfEmployed) {
-        if (income == null || income.compareTo(MIN_INCOME) < 0 || income.compareTo(MAX_INCOME) > 0) {
-            throw new IllegalArgumentException("Income must be between " + MIN_INCOME + " and " + MAX_INCOME);
-        }
-        if (taxRegion == null) {
-            throw new IllegalArgumentException("Tax region cannot be null");
-        }
-        if (dependents < 0 || dependents > 20) {
-            throw new IllegalArgumentException("Dependents must be between 0 and 20");
-        }
-        if (filingStatus == null) {
-            throw new IllegalArgumentException("Filing status cannot be null");
-        }
-        if (deductions == null) {
-            throw new IllegalArgumentException("Deductions list cannot be null");
-        }
-        if (hasDeductions && deductions.isEmpty()) {
-            throw new IllegalArgumentException("Cannot have deductions flag set without actual deductions");
-        }
-        if (filingStatus == FilingStatus.MARRIED_JOINT && dependents == 0) {
-            throw new IllegalArgumentException("Married joint filing typically requires at least one dependent");
-        }
-        if (selfEmployed && income.compareTo(new BigDecimal("12570")) < 0) {
-            throw new IllegalArgumentException("Self-employed individuals must report income above personal allowance threshold");
+        this(income, taxRegion, dependents, hasDeductions, filingStatus, deductions, selfEmployed,
+                violations(income, taxRegion, dependents, hasDeductions, filingStatus, deductions, selfEmployed));
+    }
+
+    private Tax(BigDecimal income, TaxRegion taxRegion, int dependents, boolean hasDeductions,
+                FilingStatus filingStatus, List<TaxDeduction> deductions, boolean selfEmployed,
+                long violations) {
+        if (violations != 0) {
+            throw ValidationResult.rejection(Rule.VALUES, violations);
         }
 
         this.income = income;
@@ -64,6 +51,83 @@ public class Tax {
              FilingStatus.SINGLE, Arrays.asList(), false);
     }
 
+    /**
+     * A tax profile from arguments that have already passed {@link #validate}. No rule is checked again.
+     */
+    static Tax trusted(BigDecimal income, TaxRegion taxRegion, int dependents, boolean hasDeductions,
+                       FilingStatus filingStatus, List<TaxDeduction> deductions, boolean selfEmployed) {
+        return new Tax(income, taxRegion, dependents, hasDeductions, filingStatus, deductions, selfEmployed, 0);
+    }
+
+    /**
+     * Check every constructor rule without throwing, reporting all the rules the arguments break.
+     */
+    public static ValidationResult<Rule> validate(BigDecimal income, TaxRegion taxRegion, int dependents,
+                                                  boolean hasDeductions, FilingStatus filingStatus,
+                                                  List<TaxDeduction> deductions, boolean selfEmployed) {
+        long violations = violations(income, taxRegion, dependents, hasDeductions, filingStatus, deductions,
+                selfEmployed);
+        return violations == 0 ? VALID : new ValidationResult<>(Rule.VALUES, violations);
+    }
+
+    private static long violations(BigDecimal income, TaxRegion taxRegion, int dependents, boolean hasDeductions,
+                                   FilingStatus filingStatus, List<TaxDeduction> deductions, boolean selfEmployed) {
+        long violations = 0;
+        if (income == null || income.compareTo(MIN_INCOME) < 0 || income.compareTo(MAX_INCOME) > 0) {
+            violations |= Rule.INCOME_RANGE.bit();
+        }
+        if (taxRegion == null) {
+            violations |= Rule.REGION_REQUIRED.bit();
+        }
+        if (dependents < 0 || dependents > 20) {
+            violations |= Rule.DEPENDENTS_RANGE.bit();
+        }
+        if (filingStatus == null) {
+            violations |= Rule.FILING_STATUS_REQUIRED.bit();
+        }
+        if (deductions == null) {
+            violations |= Rule.DEDUCTIONS_REQUIRED.bit();
+        } else if (hasDeductions && deductions.isEmpty()) {
+            violations |= Rule.DEDUCTIONS_FLAG_WITHOUT_DEDUCTIONS.bit();
+        }
+        if (filingStatus == FilingStatus.MARRIED_JOINT && dependents == 0) {
+            violations |= Rule.MARRIED_JOINT_DEPENDENTS.bit();
+        }
+        if (selfEmployed && income != null && income.compareTo(PERSONAL_ALLOWANCE) < 0) {
+            violations |= Rule.SELF_EMPLOYED_INCOME.bit();
+        }
+        return violations;
+    }
+
+    public enum Rule implements ValidationRule {
+        INCOME_RANGE(null) {
+            @Override
+            public String getMessage() {
+                return "Income must be between " + MIN_INCOME + " and " + MAX_INCOME;
+            }
+        },
+        REGION_REQUIRED("Tax region cannot be null"),
+        DEPENDENTS_RANGE("Dependents must be between 0 and 20"),
+        FILING_STATUS_REQUIRED("Filing status cannot be null"),
+        DEDUCTIONS_REQUIRED("Deductions list cannot be null"),
+        DEDUCTIONS_FLAG_WITHOUT_DEDUCTIONS("Cannot have deductions flag set without actual deductions"),
+        MARRIED_JOINT_DEPENDENTS("Married joint filing typically requires at least one dependent"),
+        SELF_EMPLOYED_INCOME("Self-employed individuals must report income above personal allowance threshold");
+
+        private static final Rule[] VALUES = values();
+
+        private final String message;
+
+        Rule(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
+    }
+
     public enum TaxRegion {
         UK, US, EU
     }
@@ -121,44 +185,28 @@ public class Tax {
         return hasDeductions;
     }
 
-    public BigDecimal calculateTax() {
-        BigDecimal taxRate = getTaxRate();
-        BigDecimal tax = income.multiply(taxRate);
-
-        if (hasDeductions) {
-            BigDecimal deduction = new BigDecimal("5000");
-            tax = tax.subtract(deduction);
-        }
+    public FilingStatus getFilingStatus() {
+        return filingStatus;
+    }
 
-        if (dependents > 0) {
-            BigDecimal dependentCredit = new BigDecimal("1000").multiply(new BigDecimal(dependents));
-            tax = tax.subtract(dependentCredit);
-        }
+    public List<TaxDeduction> getDeductions() {
+        return deductions;
+    }
 
-        if (tax.compareTo(BigDecimal.ZERO) < 0) {
-            return BigDecimal.ZERO;
-        }
+    public boolean isSelfEmployed() {
+        return selfEmployed;
+    }
 
-        return tax.setScale(2, RoundingMode.HALF_UP);
+    public BigDecimal calculateTax() {
+        return TaxRateRegistry.current().table(taxRegion, filingStatus).calculateTax(income, dependents, hasDeductions);
     }
 
-    private BigDecimal getTaxRate() {
-        if (TaxRegion.US.equals(taxRegion)) {
-            if (income.compareTo(new BigDecimal("50000")) < 0) {
-                return new BigDecimal("0.10");
-            } else if (income.compareTo(new BigDecimal("100000")) < 0) {
-                return new BigDecimal("0.20");
-            } else {
-                return new BigDecimal("0.30");
-            }
-        } else if (TaxRegion.UK.equals(taxRegion)) {
-            if (income.compareTo(new BigDecimal("40000")) < 0) {
-                return new BigDecimal("0.15");
-            } else {
-                return new BigDecimal("0.25");
-            }
-        }
-        return new BigDecimal("0.15");
+    /**
+     * Pence equivalent of {@link #calculateTax()}, on the income rounded to the penny.
+     */
+    public long calculateTaxPence() {
+        return TaxRateRegistry.current().table(taxRegion, filingStatus)
+                .calculateTaxPence(Money.ofPounds(income), dependents, hasDeductions);
     }
 
     public boolean isLowIncome() {
@@ -0,0 +1,128 @@
+package com.example.FactoryExample;
+
+import java.math.BigDecimal;
+
+/**
+ * The {@link TaxRateTable} for every {@link Tax.TaxRegion} and {@link Tax.FilingStatus}, indexed by
+ * ordinal so a lookup is one array read.
+ * <p>
+ * {@link #STANDARD} holds the original stepped rates and is what {@link Tax#calculateTax()} uses
+ * unless another registry is put into force with {@link #setCurrent}. Registries are immutable;
+ * swapping one in is a single volatile write and each calculation reads it once.
+ */
+public final class TaxRateRegistry {
+
+    private static final Tax.TaxRegion[] REGIONS = Tax.TaxRegion.values();
+    private static final Tax.FilingStatus[] STATUSES = Tax.FilingStatus.values();
+    private static final BigDecimal DEDUCTION_RELIEF = new BigDecimal("5000");
+    private static final BigDecimal DEPENDENT_CREDIT = new BigDecimal("1000");
+
+    public static final TaxRateRegistry STANDARD = builder()
+            .table(Tax.TaxRegion.UK, TaxRateTable.stepped()
+                    .band(BigDecimal.ZERO, new BigDecimal("0.15"))
+                    .band(new BigDecimal("40000"), new BigDecimal("0.25"))
+                    .deductionRelief(DEDUCTION_RELIEF)
+                    .dependentCredit(DEPENDENT_CREDIT)
+                    .build())
+            .table(Tax.TaxRegion.US, TaxRateTable.stepped()
+                    .band(BigDecimal.ZERO, new BigDecimal("0.10"))
+                    .band(new BigDecimal("50000"), new BigDecimal("0.20"))
+                    .band(new BigDecimal("100000"), new BigDecimal("0.30"))
+                    .deductionRelief(DEDUCTION_RELIEF)
+                    .dependentCredit(DEPENDENT_CREDIT)
+                    .build())
+            .table(Tax.TaxRegion.EU, TaxRateTable.stepped()
+                    .band(BigDecimal.ZERO, new BigDecimal("0.15"))
+                    .deductionRelief(DEDUCTION_RELIEF)
+                    .dependentCredit(DEPENDENT_CREDIT)
+                    .build())
+            .build();
+
+    private static volatile TaxRateRegistry current = STANDARD;
+
+    private final TaxRateTable[] tables;
+
+    private TaxRateRegistry(TaxRateTable[] tables) {
+        this.tables = tables;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static TaxRateRegistry current() {
+        return current;
+    }
+
+    public static void setCurrent(TaxRateRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Tax rate registry cannot be null");
+        }
+        current = registry;
+    }
+
+    public TaxRateTable table(Tax.TaxRegion region, Tax.FilingStatus filingStatus) {
+        return tables[index(region, filingStatus)];
+    }
+
+    /**
+     * Tax for a batch whose rows may fall in different regions and filing statuses.
+     */
+    public void calculateTaxPence(Tax.TaxRegion[] regions, Tax.FilingStatus[] filingStatuses, long[] incomePence,
+                                  int[] dependents, boolean[] hasDeductions, long[] out) {
+        for (int i = 0; i < incomePence.length; i++) {
+            out[i] = tables[index(regions[i], filingStatuses[i])]
+                    .calculateTaxPence(incomePence[i], dependents[i], hasDeductions[i]);
+        }
+    }
+
+    private static int index(Tax.TaxRegion region, Tax.FilingStatus filingStatus) {
+        return region.ordinal() * STATUSES.length + filingStatus.ordinal();
+    }
+
+    public static final class Builder {
+        private final TaxRateTable[] tables = new TaxRateTable[REGIONS.length * STATUSES.length];
+
+        private Builder() {
+        }
+
+        /**
+         * Use {@code table} for every filing status in {@code region}.
+         */
+        public Builder table(Tax.TaxRegion region, TaxRateTable table) {
+            for (Tax.FilingStatus filingStatus : STATUSES) {
+                table(region, filingStatus, table);
+            }
+            return this;
+        }
+
+        public Builder table(Tax.TaxRegion region, Tax.FilingStatus filingStatus, TaxRateTable table) {
+            if (region == null || filingStatus == null) {
+                throw new IllegalArgumentException("Region and filing status cannot be null");
+            }
+            if (table == null) {
+                throw new IllegalArgumentException("Tax rate table cannot be null");
+            }
+            tables[index(region, filingStatus)] = table;
+            return this;
+        }
+
+        /**
+         * Start from every table in {@code registry}, e.g. to replace one region's bands.
+         */
+        public Builder tables(TaxRateRegistry registry) {
+            System.arraycopy(registry.tables, 0, tables, 0, tables.length);
+            return this;
+        }
+
+        public TaxRateRegistry build() {
+            for (int i = 0; i < tables.length; i++) {
+                if (tables[i] == null) {
+                    throw new IllegalArgumentException("No tax rate table for " + REGIONS[i / STATUSES.length]
+                            + " " + STATUSES[i % STATUSES.length]);
+                }
+            }
+            return new TaxRateRegistry(tables.clone());
+        }
+    }
+}
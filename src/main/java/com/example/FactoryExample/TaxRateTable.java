@@ -0,0 +1,229 @@
+package com.example.FactoryExample;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Income tax bands for one region and filing status, as used by {@link Tax#calculateTax()}.
+ * <p>
+ * Bands are given by their lower income bound. A {@linkplain #marginal() marginal} table taxes each
+ * slice of income at its own band's rate; the tax due at each band start is accumulated at build
+ * time, so evaluating an income is one binary search plus one multiply. A {@linkplain #stepped()
+ * stepped} table taxes the whole income at the rate of the band it falls in, which is how the
+ * original flat region rates behave.
+ * <p>
+ * The BigDecimal path is exact before the final rounding. The pence path holds amounts in 1/10,000
+ * of a penny (pence x basis-point rate) and rounds once.
+ */
+public final class TaxRateTable {
+
+    private static final long UNITS_PER_PENNY = 10_000L;
+    private static final long MAX_INCOME_PENCE = 100_000_000_000L;
+
+    private final boolean marginal;
+    private final BigDecimal[] from;
+    private final BigDecimal[] rate;
+    private final BigDecimal[] base;
+    private final long[] fromPence;
+    private final long[] rateBasisPoints;
+    private final long[] baseUnits;
+    private final BigDecimal deductionRelief;
+    private final BigDecimal dependentCredit;
+    private final long deductionReliefPence;
+    private final long dependentCreditPence;
+
+    private TaxRateTable(Builder builder) {
+        this.marginal = builder.marginal;
+        int bands = builder.from.size();
+        this.from = builder.from.toArray(new BigDecimal[0]);
+        this.rate = builder.rates.toArray(new BigDecimal[0]);
+        this.base = new BigDecimal[bands];
+        this.fromPence = new long[bands];
+        this.rateBasisPoints = new long[bands];
+        this.baseUnits = new long[bands];
+        base[0] = BigDecimal.ZERO;
+        for (int i = 0; i < bands; i++) {
+            fromPence[i] = Money.ofPounds(from[i]);
+            rateBasisPoints[i] = rate[i].movePointRight(4).longValueExact();
+            if (i > 0) {
+                base[i] = base[i - 1].add(from[i].subtract(from[i - 1]).multiply(rate[i - 1]));
+                baseUnits[i] = baseUnits[i - 1] + (fromPence[i] - fromPence[i - 1]) * rateBasisPoints[i - 1];
+            }
+        }
+        this.deductionRelief = builder.deductionRelief;
+        this.dependentCredit = builder.dependentCredit;
+        this.deductionReliefPence = Money.ofPounds(deductionRelief);
+        this.dependentCreditPence = Money.ofPounds(dependentCredit);
+    }
+
+    /**
+     * Each slice of income is taxed at its own band's rate.
+     */
+    public static Builder marginal() {
+        return new Builder(true);
+    }
+
+    /**
+     * The whole income is taxed at the rate of the band it falls in.
+     */
+    public static Builder stepped() {
+        return new Builder(false);
+    }
+
+    public boolean isMarginal() {
+        return marginal;
+    }
+
+    /**
+     * Tax on {@code income} after deduction relief and dependent credits, floored at zero.
+     */
+    public BigDecimal calculateTax(BigDecimal income, int dependents, boolean hasDeductions) {
+        BigDecimal tax = bandTax(income);
+        if (hasDeductions) {
+            tax = tax.subtract(deductionRelief);
+        }
+        if (dependents > 0) {
+            tax = tax.subtract(dependentCredit.multiply(new BigDecimal(dependents)));
+        }
+        if (tax.compareTo(BigDecimal.ZERO) < 0) {
+            return BigDecimal.ZERO;
+        }
+        return tax.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Pence equivalent of {@link #calculateTax(BigDecimal, int, boolean)}.
+     */
+    public long calculateTaxPence(long incomePence, int dependents, boolean hasDeductions) {
+        long tax = bandTaxUnits(incomePence);
+        if (hasDeductions) {
+            tax -= deductionReliefPence * UNITS_PER_PENNY;
+        }
+        if (dependents > 0) {
+            tax -= dependentCreditPence * UNITS_PER_PENNY * dependents;
+        }
+        if (tax < 0) {
+            return 0;
+        }
+        return Money.divideHalfUp(tax, UNITS_PER_PENNY);
+    }
+
+    public void calculateTaxPence(long[] incomePence, int[] dependents, boolean[] hasDeductions, long[] out) {
+        for (int i = 0; i < incomePence.length; i++) {
+            out[i] = calculateTaxPence(incomePence[i], dependents[i], hasDeductions[i]);
+        }
+    }
+
+    /**
+     * The rate applied to the last pound of {@code income}.
+     */
+    public BigDecimal getRate(BigDecimal income) {
+        return rate[band(income)];
+    }
+
+    private BigDecimal bandTax(BigDecimal income) {
+        int i = band(income);
+        if (!marginal) {
+            return income.multiply(rate[i]);
+        }
+        return base[i].add(income.subtract(from[i]).multiply(rate[i]));
+    }
+
+    private long bandTaxUnits(long incomePence) {
+        if (incomePence <= 0) {
+            return 0;
+        }
+        if (incomePence > MAX_INCOME_PENCE) {
+            throw new IllegalArgumentException("Income cannot exceed " + MAX_INCOME_PENCE + " pence");
+        }
+        int i = Arrays.binarySearch(fromPence, incomePence);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        if (!marginal) {
+            return incomePence * rateBasisPoints[i];
+        }
+        return baseUnits[i] + (incomePence - fromPence[i]) * rateBasisPoints[i];
+    }
+
+    // Last band starting at or below the income; bands are few, so a BigDecimal binary search is cheap
+    private int band(BigDecimal income) {
+        int low = 0;
+        int high = from.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (from[mid].compareTo(income) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public static final class Builder {
+        private final boolean marginal;
+        private final List<BigDecimal> from = new ArrayList<>();
+        private final List<BigDecimal> rates = new ArrayList<>();
+        private BigDecimal deductionRelief = BigDecimal.ZERO;
+        private BigDecimal dependentCredit = BigDecimal.ZERO;
+
+        private Builder(boolean marginal) {
+            this.marginal = marginal;
+        }
+
+        /**
+         * Add a band starting at {@code from}; the first band must start at zero.
+         */
+        public Builder band(BigDecimal from, BigDecimal rate) {
+            if (from == null || from.signum() < 0) {
+                throw new IllegalArgumentException("Band start must be non-negative");
+            }
+            if (this.from.isEmpty() ? from.signum() != 0 : from.compareTo(this.from.get(this.from.size() - 1)) <= 0) {
+                throw new IllegalArgumentException("Bands must start at zero and be strictly increasing");
+            }
+            if (from.compareTo(Money.toBigDecimal(Money.ofPounds(from))) != 0) {
+                throw new IllegalArgumentException("Band start must be a whole number of pence: " + from);
+            }
+            if (rate == null || rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("Rate must be between 0 and 1");
+            }
+            if (rate.stripTrailingZeros().scale() > 4) {
+                throw new IllegalArgumentException("Rate must be a whole number of basis points: " + rate);
+            }
+            this.from.add(from);
+            this.rates.add(rate);
+            return this;
+        }
+
+        public Builder deductionRelief(BigDecimal amount) {
+            this.deductionRelief = nonNegative(amount, "Deduction relief");
+            return this;
+        }
+
+        public Builder dependentCredit(BigDecimal amount) {
+            this.dependentCredit = nonNegative(amount, "Dependent credit");
+            return this;
+        }
+
+        public TaxRateTable build() {
+            if (from.isEmpty()) {
+                throw new IllegalArgumentException("At least one band is required");
+            }
+            return new TaxRateTable(this);
+        }
+
+        private static BigDecimal nonNegative(BigDecimal amount, String name) {
+            if (amount == null || amount.signum() < 0) {
+                throw new IllegalArgumentException(name + " must be non-negative");
+            }
+            if (amount.compareTo(Money.toBigDecimal(Money.ofPounds(amount))) != 0) {
+                throw new IllegalArgumentException(name + " must be a whole number of pence: " + amount);
+            }
+            return amount;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.FactoryExample;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Immutable UK income tax and National Insurance tables for one tax year.
+ * <p>
+ * The bands are compiled once into gross-income segments holding the cumulative amount due at each
+ * segment start, so evaluating an income is one binary search plus one multiply. The personal
+ * allowance taper is folded into the segments at build time rather than walked on every call.
+ */
+public final class TaxYearSchedule {
+
+    private static final long MAX_INCOME_PENCE = 100_000_000_000L;
+    // Income tax is held in 1/20,000 of a penny: half-pence of taxable income x basis-point rate
+    private static final long TAX_UNITS_PER_PENNY = 20_000L;
+    // National Insurance is held in 1/10,000 of a penny: pence x basis-point rate
+    private static final long NI_UNITS_PER_PENNY = 10_000L;
+
+    // The 2024/25 UK figures, also read by the BigDecimal calculations in Opportunity. Rate limits are
+    // of gross income; the bands are the taxable income between them
+    static final BigDecimal UK_PERSONAL_ALLOWANCE = new BigDecimal("12570");
+    static final BigDecimal UK_BASIC_RATE_LIMIT = new BigDecimal("50270");
+    static final BigDecimal UK_HIGHER_RATE_LIMIT = new BigDecimal("125140");
+    static final BigDecimal UK_BASIC_RATE_BAND = UK_BASIC_RATE_LIMIT.subtract(UK_PERSONAL_ALLOWANCE);
+    static final BigDecimal UK_HIGHER_RATE_BAND = UK_HIGHER_RATE_LIMIT.subtract(UK_BASIC_RATE_LIMIT);
+    static final BigDecimal UK_BASIC_RATE = new BigDecimal("0.20");
+    static final BigDecimal UK_HIGHER_RATE = new BigDecimal("0.40");
+    static final BigDecimal UK_ADDITIONAL_RATE = new BigDecimal("0.45");
+    static final BigDecimal UK_NI_THRESHOLD = new BigDecimal("12570");
+    static final BigDecimal UK_NI_UPPER_EARNINGS_LIMIT = new BigDecimal("50270");
+    static final BigDecimal UK_NI_MAIN_RATE = new BigDecimal("0.12");
+    static final BigDecimal UK_NI_UPPER_RATE = new BigDecimal("0.02");
+    static final BigDecimal UK_DEDUCTION_RELIEF = new BigDecimal("2000");
+    static final BigDecimal UK_DEPENDENT_CREDIT = new BigDecimal("1200");
+
+    public static final TaxYearSchedule UK_2024_25 = builder("2024/25")
+            .personalAllowance(UK_PERSONAL_ALLOWANCE)
+            .band(UK_BASIC_RATE_BAND, UK_BASIC_RATE)
+            .band(UK_BASIC_RATE_BAND.add(UK_HIGHER_RATE_BAND), UK_HIGHER_RATE)
+            .additionalRate(UK_ADDITIONAL_RATE)
+            .nationalInsurance(UK_NI_THRESHOLD, UK_NI_UPPER_EARNINGS_LIMIT, UK_NI_MAIN_RATE, UK_NI_UPPER_RATE)
+            .deductionRelief(UK_DEDUCTION_RELIEF)
+            .dependentCredit(UK_DEPENDENT_CREDIT)
+            .build();
+
+    private static final Map<String, TaxYearSchedule> SCHEDULES = new ConcurrentHashMap<>();
+
+    static {
+        register(UK_2024_25);
+    }
+
+    private final String taxYear;
+    private final Segments incomeTax;
+    private final Segments nationalInsurance;
+    private final long deductionReliefPence;
+    private final long dependentCreditPence;
+
+    private TaxYearSchedule(Builder builder) {
+        this.taxYear = builder.taxYear;
+        this.incomeTax = compileIncomeTax(builder);
+        this.nationalInsurance = compileNationalInsurance(builder);
+        this.deductionReliefPence = builder.deductionReliefPence;
+        this.dependentCreditPence = builder.dependentCreditPence;
+    }
+
+    public static Builder builder(String taxYear) {
+        return new Builder(taxYear);
+    }
+
+    /**
+     * Look up a registered schedule, e.g. {@code "2024/25"}.
+     */
+    public static TaxYearSchedule forYear(String taxYear) {
+        TaxYearSchedule schedule = taxYear == null ? null : SCHEDULES.get(taxYear);
+        if (schedule == null) {
+            throw new IllegalArgumentException("No tax schedule registered for " + taxYear);
+        }
+        return schedule;
+    }
+
+    /**
+     * Register a schedule so later {@link #forYear(String)} calls reuse it, replacing any previous
+     * schedule for the same year.
+     */
+    public static void register(TaxYearSchedule schedule) {
+        if (schedule == null) {
+            throw new IllegalArgumentException("Schedule cannot be null");
+        }
+        SCHEDULES.put(schedule.taxYear, schedule);
+    }
+
+    public String getTaxYear() {
+        return taxYear;
+    }
+
+    /**
+     * Income tax in pence after deduction relief and dependent credits, floored at zero.
+     */
+    public long incomeTaxPence(long incomePence, int dependents, boolean hasDeductions) {
+        long totalTax = incomeTax.evaluate(incomePence);
+        if (hasDeductions) {
+            totalTax -= deductionReliefPence * TAX_UNITS_PER_PENNY;
+        }
+        if (dependents > 0) {
+            totalTax -= dependentCreditPence * TAX_UNITS_PER_PENNY * dependents;
+        }
+        if (totalTax < 0) {
+            return 0;
+        }
+        return Money.divideHalfUp(totalTax, TAX_UNITS_PER_PENNY);
+    }
+
+    public long nationalInsurancePence(long incomePence) {
+        return Money.divideHalfUp(nationalInsurance.evaluate(incomePence), NI_UNITS_PER_PENNY);
+    }
+
+    public void incomeTaxPence(long[] incomePence, int[] dependents, boolean[] hasDeductions, long[] out) {
+        for (int i = 0; i < incomePence.length; i++) {
+            out[i] = incomeTaxPence(incomePence[i], dependents[i], hasDeductions[i]);
+        }
+    }
+
+    public void nationalInsurancePence(long[] incomePence, long[] out) {
+        for (int i = 0; i < incomePence.length; i++) {
+            out[i] = nationalInsurancePence(incomePence[i]);
+        }
+    }
+
+    /**
+     * Income tax for a batch whose rows may fall in different tax years.
+     */
+    public static void incomeTaxPence(TaxYearSchedule[] schedules, long[] incomePence, int[] dependents,
+                                      boolean[] hasDeductions, long[] out) {
+        for (int i = 0; i < incomePence.length; i++) {
+            out[i] = schedules[i].incomeTaxPence(incomePence[i], dependents[i], hasDeductions[i]);
+        }
+    }
+
+    public static void nationalInsurancePence(TaxYearSchedule[] schedules, long[] incomePence, long[] out) {
+        for (int i = 0; i < incomePence.length; i++) {
+            out[i] = schedules[i].nationalInsurancePence(incomePence[i]);
+        }
+    }
+
+    private static Segments compileIncomeTax(Builder builder) {
+        long allowance = builder.personalAllowancePence;
+        long taperThreshold = builder.taperThresholdPence;
+        long[] bandLimits = builder.bandLimitsPence.stream().mapToLong(Long::longValue).toArray();
+        int[] bandRates = builder.bandRates.stream().mapToInt(Integer::intValue).toArray();
+        int additionalRate = builder.additionalRate;
+
+        // Taxable income in half-pence, so the £1-per-£2 taper stays exact
+        LongUnaryOperator taxableHalfPence = income -> {
+            long allowanceHalfPence = 2 * allowance;
+            if (taperThreshold >= 0 && income > taperThreshold) {
+                allowanceHalfPence = Math.max(0, allowanceHalfPence - (income - taperThreshold));
+            }
+            return 2 * income - allowanceHalfPence;
+        };
+
+        LongUnaryOperator bandTax = income -> {
+            long taxable = taxableHalfPence.applyAsLong(income);
+            long tax = 0;
+            long lower = 0;
+            for (int i = 0; i < bandLimits.length && taxable > lower; i++) {
+                long upper = 2 * bandLimits[i];
+                tax += (Math.min(taxable, upper) - lower) * bandRates[i];
+                lower = upper;
+            }
+            if (taxable > lower) {
+                tax += (taxable - lower) * additionalRate;
+            }
+            return tax;
+        };
+
+        TreeSet<Long> breakpoints = new TreeSet<>();
+        breakpoints.add(0L);
+        breakpoints.add(firstIncomeReaching(taxableHalfPence, 0));
+        for (long limit : bandLimits) {
+            breakpoints.add(firstIncomeReaching(taxableHalfPence, 2 * limit));
+        }
+        if (taperThreshold >= 0) {
+            breakpoints.add(taperThreshold);
+            breakpoints.add(taperThreshold + 2 * allowance);
+        }
+        return Segments.compile(bandTax, breakpoints);
+    }
+
+    private static Segments compileNationalInsurance(Builder builder) {
+        long threshold = builder.niThresholdPence;
+        long upperLimit = builder.niUpperLimitPence;
+        int mainRate = builder.niMainRate;
+        int upperRate = builder.niUpperRate;
+
+        LongUnaryOperator contributions = income -> {
+            if (income <= threshold) {
+                return 0;
+            }
+            if (income <= upperLimit) {
+                return (income - threshold) * mainRate;
+            }
+            return (upperLimit - threshold) * mainRate + (income - upperLimit) * upperRate;
+        };
+
+        TreeSet<Long> breakpoints = new TreeSet<>(Arrays.asList(0L, threshold, upperLimit));
+        return Segments.compile(contributions, breakpoints);
+    }
+
+    private static long firstIncomeReaching(LongUnaryOperator taxableHalfPence, long targetHalfPence) {
+        long low = 0;
+        long high = MAX_INCOME_PENCE;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (taxableHalfPence.applyAsLong(mid) >= targetHalfPence) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Piecewise-linear function over whole pence: segment i starts at {@code from[i]} with value
+     * {@code base[i]} and grows by {@code rate[i]} per penny.
+     */
+    private static final class Segments {
+        private final long[] from;
+        private final long[] base;
+        private final long[] rate;
+
+        private Segments(long[] from, long[] base, long[] rate) {
+            this.from = from;
+            this.base = base;
+            this.rate = rate;
+        }
+
+        // Every kink of f lies at or before a breakpoint, so f is linear over the whole pence between
+        // consecutive breakpoints and its slope can be taken from the first step of each segment.
+        static Segments compile(LongUnaryOperator f, TreeSet<Long> breakpoints) {
+            long[] from = breakpoints.stream().mapToLong(Long::longValue).toArray();
+            long[] base = new long[from.length];
+            long[] rate = new long[from.length];
+            for (int i = 0; i < from.length; i++) {
+                base[i] = f.applyAsLong(from[i]);
+                rate[i] = f.applyAsLong(from[i] + 1) - base[i];
+            }
+            return new Segments(from, base, rate);
+        }
+
+        long evaluate(long income) {
+            if (income <= 0) {
+                return 0;
+            }
+            int i = Arrays.binarySearch(from, income);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            return base[i] + (income - from[i]) * rate[i];
+        }
+    }
+
+    public static final class Builder {
+        private final String taxYear;
+        private long personalAllowancePence = -1;
+        private long taperThresholdPence = -1;
+        private final List<Long> bandLimitsPence = new ArrayList<>();
+        private final List<Integer> bandRates = new ArrayList<>();
+        private int additionalRate = -1;
+        private long niThresholdPence = -1;
+        private long niUpperLimitPence = -1;
+        private int niMainRate;
+        private int niUpperRate;
+        private long deductionReliefPence;
+        private long dependentCreditPence;
+
+        private Builder(String taxYear) {
+            if (taxYear == null || taxYear.trim().isEmpty()) {
+                throw new IllegalArgumentException("Tax year cannot be null or empty");
+            }
+            this.taxYear = taxYear;
+        }
+
+        public Builder personalAllowance(BigDecimal amount) {
+            this.personalAllowancePence = nonNegativePence(amount, "Personal allowance");
+            return this;
+        }
+
+        /**
+         * Withdraw the personal allowance by £1 for every £2 of income above the threshold.
+         */
+        public Builder personalAllowanceTaper(BigDecimal threshold) {
+            this.taperThresholdPence = nonNegativePence(threshold, "Taper threshold");
+            return this;
+        }
+
+        /**
+         * Add a band ending at {@code upperLimit} of taxable income (income after the personal allowance).
+         */
+        public Builder band(BigDecimal upperLimit, BigDecimal rate) {
+            long limit = nonNegativePence(upperLimit, "Band limit");
+            if (!bandLimitsPence.isEmpty() && limit <= bandLimitsPence.get(bandLimitsPence.size() - 1)) {
+                throw new IllegalArgumentException("Band limits must be strictly increasing");
+            }
+            bandLimitsPence.add(limit);
+            bandRates.add(basisPoints(rate));
+            return this;
+        }
+
+        public Builder additionalRate(BigDecimal rate) {
+            this.additionalRate = basisPoints(rate);
+            return this;
+        }
+
+        public Builder nationalInsurance(BigDecimal threshold, BigDecimal upperLimit,
+                                         BigDecimal mainRate, BigDecimal upperRate) {
+            this.niThresholdPence = nonNegativePence(threshold, "NI threshold");
+            this.niUpperLimitPence = nonNegativePence(upperLimit, "NI upper earnings limit");
+            if (niUpperLimitPence < niThresholdPence) {
+                throw new IllegalArgumentException("NI upper earnings limit cannot be below the threshold");
+            }
+            this.niMainRate = basisPoints(mainRate);
+            this.niUpperRate = basisPoints(upperRate);
+            return this;
+        }
+
+        public Builder deductionRelief(BigDecimal amount) {
+            this.deductionReliefPence = nonNegativePence(amount, "Deduction relief");
+            return this;
+        }
+
+        public Builder dependentCredit(BigDecimal amount) {
+            this.dependentCreditPence = nonNegativePence(amount, "Dependent credit");
+            return this;
+        }
+
+        public TaxYearSchedule build() {
+            if (personalAllowancePence < 0) {
+                throw new IllegalArgumentException("Personal allowance must be set");
+            }
+            if (additionalRate < 0) {
+                throw new IllegalArgumentException("Additional rate must be set");
+            }
+            if (niThresholdPence < 0) {
+                throw new IllegalArgumentException("National Insurance thresholds must be set");
+            }
+            return new TaxYearSchedule(this);
+        }
+
+        private static long nonNegativePence(BigDecimal amount, String name) {
+            if (amount == null || amount.signum() < 0) {
+                throw new IllegalArgumentException(name + " must be non-negative");
+            }
+            return Money.ofPounds(amount);
+        }
+
+        private static int basisPoints(BigDecimal rate) {
+            if (rate == null || rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("Rate must be between 0 and 1");
+            }
+            try {
+                return rate.movePointRight(4).intValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Rate must be a whole number of basis points: " + rate);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.FactoryExample;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every rule a set of constructor arguments violates, held as a bitmask over the class's rule enum.
+ * Rules are declared in the order the constructor checks them, so the lowest set bit is the failure
+ * the constructor reports.
+ */
+public final class ValidationResult<R extends Enum<R> & ValidationRule> {
+
+    private final R[] rules;
+    private final long violations;
+
+    ValidationResult(R[] rules, long violations) {
+        this.rules = rules;
+        this.violations = violations;
+        LendingMetrics.recordViolations(rules, violations);
+    }
+
+    public boolean isValid() {
+        return violations == 0;
+    }
+
+    /**
+     * The violated rules as a bitmask, bit {@code n} being the rule with ordinal {@code n}.
+     */
+    public long getViolations() {
+        return violations;
+    }
+
+    public boolean isViolated(R rule) {
+        return (violations & rule.bit()) != 0;
+    }
+
+    public int getViolationCount() {
+        return Long.bitCount(violations);
+    }
+
+    /**
+     * The rule the constructor would reject with, or null if valid.
+     */
+    public R getFirstViolation() {
+        return violations == 0 ? null : rules[Long.numberOfTrailingZeros(violations)];
+    }
+
+    public List<R> getViolatedRules() {
+        if (violations == 0) {
+            return Collections.emptyList();
+        }
+        List<R> violated = new ArrayList<>(getViolationCount());
+        for (long remaining = violations; remaining != 0; remaining &= remaining - 1) {
+            violated.add(rules[Long.numberOfTrailingZeros(remaining)]);
+        }
+        return violated;
+    }
+
+    public List<String> getMessages() {
+        List<String> messages = new ArrayList<>(getViolationCount());
+        for (R rule : getViolatedRules()) {
+            messages.add(rule.getMessage());
+        }
+        return messages;
+    }
+
+    /**
+     * Throw the exception the constructor would throw for these arguments, if any.
+     */
+    public void throwIfInvalid() {
+        if (violations != 0) {
+            throw rejection(rules, violations);
+        }
+    }
+
+    static <R extends Enum<R> & ValidationRule> IllegalArgumentException rejection(R[] rules, long violations) {
+        R rule = rules[Long.numberOfTrailingZeros(violations)];
+        LendingMetrics.recordRejection(rule);
+        return new IllegalArgumentException(rule.getMessage());
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "ValidationResult[valid]" : "ValidationResult" + getViolatedRules();
+    }
+}
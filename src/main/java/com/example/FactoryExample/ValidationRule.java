@@ -0,0 +1,16 @@
+package com.example.FactoryExample;
+
+/**
+ * A single constructor rule, implemented by the {@code Rule} enum of each validated class.
+ * A rule's ordinal is its bit position in a {@link ValidationResult}, so each class has at most 64 rules.
+ */
+public interface ValidationRule {
+
+    String getMessage();
+
+    int ordinal();
+
+    default long bit() {
+        return 1L << ordinal();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.FactoryExample;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ledger updates that would leave the range a balance can take are rejected with the rule for the
+ * direction they went out of range in.
+ */
+class BankLedgerTest {
+
+    @Test
+    void debitPastLowestBalanceIsNotReportedAsMaximum() {
+        long lowest = Long.MIN_VALUE + 50;
+        Bank account = account("12345678", Money.toBigDecimal(lowest));
+        BankLedger ledger = new BankLedger(BankDirectory.builder().add(account).build());
+        long key = BankDirectory.key(account);
+
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class,
+                () -> ledger.withdraw(key, 100));
+        assertFalse(rejected.getMessage().contains("exceed"), rejected.getMessage());
+        assertFalse(ledger.tryAdjust(key, -100));
+        assertEquals(lowest, ledger.balancePence(key));
+    }
+
+    @Test
+    void creditPastMaximumIsReportedAsMaximum() {
+        Bank account = account("12345678", new BigDecimal("999999.00"));
+        BankLedger ledger = new BankLedger(BankDirectory.builder().add(account).build());
+        long key = BankDirectory.key(account);
+
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class,
+                () -> ledger.deposit(key, Long.MAX_VALUE));
+        assertEquals(Bank.Rule.MAX_BALANCE.getMessage(), rejected.getMessage());
+        assertTrue(ledger.tryAdjust(key, 100));
+        assertEquals(0, new BigDecimal("999999.00").add(BigDecimal.ONE).compareTo(
+                ledger.snapshot(key).getBalance()));
+    }
+
+    private static Bank account(String accountNumber, BigDecimal balance) {
+        return new Bank(accountNumber, "Barclays", balance, Bank.AccountType.CHECKING, "12-34-56",
+                new Bank.CreditScore(700, "Good"), LocalDate.of(2020, 1, 1),
+                new Bank.AccountHolder("Jane Doe", "1973-01-01", "British"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.FactoryExample;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link FieldValidators} against the regular expressions it replaced in {@link Person} and
+ * {@link Bank}, over boundary cases, mutations of valid values and random strings, through both the
+ * {@link CharSequence} form and the UTF-8 byte form at an offset in a larger buffer.
+ */
+class FieldValidatorsTest {
+
+    private static final int SAMPLES = 100_000;
+    private static final String ALPHABET = "AZaz09+-_.@ #\t\n\r\u0085\u2028\u2029\u00e9\u0663\uff11";
+    private static final String[] BOUNDARY_CASES = {
+            // Empty and single characters
+            "", " ", "@", "+", "-", "A", "1",
+            // Email: missing or doubled parts, line terminators the regex's (.+) stops at, non-ASCII
+            "a@", "@b", "a@b", "A@B", "a@@b", "a.b+c_d-e@x", "a@b\n", "a@\nb", "a@b\u2028", "a@b\u0085",
+            "a b@c", "a@b\u00e9", "\u00e9@b", "\ud83d\ude00@x", "a@\ud83d\ude00",
+            // Phone: 9, 10, 15 and 16 digits, with and without the plus, and non-ASCII digits
+            "123456789", "1234567890", "123456789012345", "1234567890123456", "+123456789", "+1234567890",
+            "+123456789012345", "+1234567890123456", "++1234567890", "+447700900123", "07700900123",
+            "0770090012", "077009001", "+\uff10\uff17700900123", "0770090012\u0663",
+            // National insurance: lowercase, one short, one long, letters and digits out of place
+            "AB123456C", "ab123456c", "Ab123456C", "AB123456c", "AB123456", "AB1234567C", "AB12345C",
+            "AB12345C6", "A1123456C", "\u00c9B123456C",
+            // Account number: 7, 8 and 9 digits, non-ASCII digits
+            "12345678", "1234567", "123456789", "1234567\u0663", "\uff11234567a",
+            // Sort code: one short, one long, wrong separators
+            "12-34-56", "12-34-5", "12-34-567", "1-234-56", "12 34 56", "12\u201034-56", "123456", "12--3456"
+    };
+    private static final String[] VALID = {
+            "jane.doe@example.com", "+447700900123", "AB123456C", "12345678", "12-34-56"
+    };
+
+    @Test
+    void emailMatchesRegex() {
+        assertConforms("^[A-Za-z0-9+_.-]+@(.+)$", FieldValidators::isEmail, FieldValidators::isEmail);
+    }
+
+    @Test
+    void phoneNumberMatchesRegex() {
+        assertConforms("^\\+?[0-9]{10,15}$", FieldValidators::isPhoneNumber, FieldValidators::isPhoneNumber);
+    }
+
+    @Test
+    void nationalInsuranceNumberMatchesRegex() {
+        assertConforms("^[A-Z]{2}[0-9]{6}[A-Z]$", FieldValidators::isNationalInsuranceNumber,
+                FieldValidators::isNationalInsuranceNumber);
+    }
+
+    @Test
+    void accountNumberMatchesRegex() {
+        assertConforms("^\\d{8}$", FieldValidators::isAccountNumber, FieldValidators::isAccountNumber);
+    }
+
+    @Test
+    void sortCodeMatchesRegex() {
+        assertConforms("^\\d{2}-\\d{2}-\\d{2}$", FieldValidators::isSortCode, FieldValidators::isSortCode);
+    }
+
+    private static void assertConforms(String regex, Predicate<CharSequence> chars, ByteValidator bytes) {
+        Pattern pattern = Pattern.compile(regex);
+        for (String value : BOUNDARY_CASES) {
+            assertConforms(pattern, chars, bytes, value);
+        }
+        for (String value : VALID) {
+            assertConforms(pattern, chars, bytes, value);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            String value = i % 2 == 0 ? mutate(VALID[i / 2 % VALID.length], random) : randomString(random);
+            assertConforms(pattern, chars, bytes, value);
+        }
+    }
+
+    private static void assertConforms(Pattern pattern, Predicate<CharSequence> chars, ByteValidator bytes,
+                                       String value) {
+        boolean expected = pattern.matcher(value).matches();
+        // Surround the value with bytes that would extend a match, so reads past either end show up
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        byte[] buffer = new byte[utf8.length + 6];
+        buffer[0] = buffer[1] = buffer[2] = '1';
+        buffer[buffer.length - 1] = buffer[buffer.length - 2] = buffer[buffer.length - 3] = 'A';
+        System.arraycopy(utf8, 0, buffer, 3, utf8.length);
+        String context = pattern + " on \"" + escape(value) + "\"";
+        assertEquals(expected, chars.test(value), "String " + context);
+        assertEquals(expected, chars.test(new StringBuilder(value)), "StringBuilder " + context);
+        assertEquals(expected, bytes.test(buffer, 3, utf8.length), "bytes " + context);
+    }
+
+    private static String randomString(Random random) {
+        int length = random.nextInt(18);
+        StringBuilder value = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            value.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return value.toString();
+    }
+
+    private static String mutate(String valid, Random random) {
+        StringBuilder value = new StringBuilder(valid);
+        int edits = random.nextInt(3);
+        for (int i = 0; i < edits; i++) {
+            int at = random.nextInt(value.length() + 1);
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    value.insert(at, c);
+                    break;
+                case 1:
+                    if (at < value.length()) {
+                        value.deleteCharAt(at);
+                    }
+                    break;
+                default:
+                    if (at < value.length()) {
+                        value.setCharAt(at, c);
+                    }
+                    break;
+            }
+        }
+        return value.toString();
+    }
+
+    private static String escape(String value) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7e) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    @FunctionalInterface
+    private interface ByteValidator {
+        boolean test(byte[] bytes, int offset, int length);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.FactoryExample;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Records that break a rule, including one checked by a nested value object, go to the rejects output
+ * with their reason, and the rest are scored.
+ */
+class OpportunityIngestorTest {
+
+    @Test
+    void rejectsInvalidRecordsAndScoresTheRest() throws IOException {
+        Map<String, String> valid = validRecord();
+        Map<String, String> badDepartment = validRecord();
+        badDepartment.put("departmentCode", "ENGINEERING");
+        Map<String, String> badTitle = validRecord();
+        badTitle.put("jobTitle", "Astronaut");
+
+        StringBuilder csv = new StringBuilder(String.join(",", valid.keySet())).append('\n');
+        for (Map<String, String> record : List.of(valid, badDepartment, badTitle)) {
+            csv.append(String.join(",", record.values())).append('\n');
+        }
+        StringWriter results = new StringWriter();
+        StringWriter rejects = new StringWriter();
+
+        OpportunityIngestor.Summary summary = new OpportunityIngestor(OpportunityIngestor.Format.CSV).ingest(
+                Channels.newChannel(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8))),
+                results, rejects);
+
+        assertEquals(3, summary.getRecords());
+        assertEquals(1, summary.getAccepted());
+        assertEquals(2, summary.getRejected());
+        assertTrue(results.toString().contains("AB123456C"), results.toString());
+        assertTrue(rejects.toString().contains("Department code must be exactly 3 characters"), rejects.toString());
+        assertTrue(rejects.toString().contains("Invalid job title"), rejects.toString());
+    }
+
+    @Test
+    void listsTheViolationsOfEveryPart() throws IOException {
+        Map<String, String> record = validRecord();
+        record.put("jobTitle", "Astronaut");
+        record.put("bankName", "Nowhere Bank");
+        String csv = String.join(",", record.keySet()) + "\n" + String.join(",", record.values()) + "\n";
+        StringWriter rejects = new StringWriter();
+
+        OpportunityIngestor.Summary summary = new OpportunityIngestor(OpportunityIngestor.Format.CSV).ingest(
+                Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))),
+                new StringWriter(), rejects);
+
+        assertEquals(1, summary.getRejected());
+        assertTrue(rejects.toString().contains("Invalid job title"), rejects.toString());
+        assertTrue(rejects.toString().contains("Invalid bank name"), rejects.toString());
+    }
+
+    private static Map<String, String> validRecord() {
+        Map<String, String> record = new LinkedHashMap<>();
+        record.put("firstName", "Jane");
+        record.put("lastName", "Doe");
+        record.put("age", "35");
+        record.put("email", "jane@example.com");
+        record.put("phoneNumber", "+441234567890");
+        record.put("nationalInsuranceNumber", "AB123456C");
+        record.put("street", "123 Main Street");
+        record.put("city", "London");
+        record.put("postcode", "SW1A 1AA");
+        record.put("country", "UK");
+        record.put("jobTitle", "Software Engineer");
+        record.put("company", "TechCorp");
+        record.put("salary", "45000");
+        record.put("yearsExperience", "2");
+        record.put("employmentType", "FULL_TIME");
+        record.put("departmentName", "Engineering");
+        record.put("departmentCode", "ENG");
+        record.put("startDate", "2020-01-01");
+        record.put("contractMonths", "24");
+        record.put("contractRenewable", "true");
+        record.put("accountNumber", "12345678");
+        record.put("bankName", "Barclays");
+        record.put("balance", "2500");
+        record.put("accountType", "CHECKING");
+        record.put("sortCode", "12-34-56");
+        record.put("creditScore", "700");
+        record.put("creditRating", "Good");
+        record.put("accountOpenDate", "2020-01-01");
+        record.put("accountHolderName", "Jane Doe");
+        record.put("accountHolderDateOfBirth", "1990-01-01");
+        record.put("accountHolderNationality", "British");
+        record.put("dependents", "0");
+        record.put("insuranceType", "BASIC");
+        record.put("insuranceMonthlyCost", "100");
+        record.put("insuranceActive", "true");
+        record.put("defaultsInLastYear", "false");
+        record.put("latePayments", "0");
+        record.put("creditLastChecked", "2024-01-01");
+        record.put("employmentVerified", "true");
+        record.put("verificationDate", "2024-01-01");
+        record.put("verificationMethod", "Standard");
+        return record;
+    }
+}
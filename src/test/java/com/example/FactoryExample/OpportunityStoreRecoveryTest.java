@@ -0,0 +1,73 @@
+package com.example.FactoryExample;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Records written under one catalogue and rule set are recovered after both have changed, from the
+ * snapshot and from the log tail alike.
+ */
+class OpportunityStoreRecoveryTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void restoreStandardPolicies() {
+        Catalogue.setCurrent(Catalogue.STANDARD);
+        LendingRules.setCurrent(LendingRules.STANDARD);
+    }
+
+    @Test
+    void recoversRecordsThatNoLongerPassCurrentPolicies() throws IOException {
+        try (OpportunityStore store = OpportunityStore.open(directory)) {
+            store.upsert(opportunity("AB123456C", 30));
+            store.snapshot();
+            store.upsert(opportunity("CD123456E", 31));
+        }
+
+        Catalogue.setCurrent(Catalogue.builder()
+                .titles(Arrays.asList("Data Analyst"))
+                .banks(Arrays.asList("HSBC"))
+                .build());
+        LendingRules.setCurrent(LendingRules.builder(LendingRules.STANDARD).minimumAge(40).build());
+        assertThrows(IllegalArgumentException.class, () -> opportunity("EF123456G", 30));
+
+        try (OpportunityStore store = OpportunityStore.open(directory)) {
+            assertEquals(2, store.size());
+            assertEquals(1, store.getRecovery().getSnapshotRecords());
+            Opportunity fromSnapshot = store.get("AB123456C");
+            assertEquals("Software Engineer", fromSnapshot.getJob().getTitle());
+            assertEquals("Barclays", fromSnapshot.getBank().getBankName());
+            assertEquals(31, store.get("CD123456E").getPerson().getAge());
+        }
+    }
+
+    private static Opportunity opportunity(String nationalInsuranceNumber, int age) {
+        BigDecimal salary = new BigDecimal("45000");
+        Person person = new Person("Jane", "Doe", age, "jane@example.com", "+441234567890", nationalInsuranceNumber,
+                new Person.Address("123 Main Street", "London", "SW1A 1AA", "UK"));
+        Job job = new Job("Software Engineer", "TechCorp", salary, 2, Job.EmploymentType.FULL_TIME,
+                new Job.Department("Engineering", "ENG"), LocalDate.of(2020, 1, 1), new Job.Contract(24, true));
+        Bank bank = new Bank("12345678", "Barclays", new BigDecimal("2500"), Bank.AccountType.CHECKING, "12-34-56",
+                new Bank.CreditScore(700, "Good"), LocalDate.of(2020, 1, 1),
+                new Bank.AccountHolder("Jane Doe", "1973-01-01", "British"));
+        Tax tax = new Tax(salary, Tax.TaxRegion.UK, 0, false, Tax.FilingStatus.SINGLE,
+                Collections.emptyList(), false);
+        return new Opportunity(person, job, bank, tax,
+                new Insurance(Insurance.InsuranceType.BASIC, new BigDecimal("100"), true),
+                new Opportunity.CreditHistory(false, 0, LocalDate.of(2024, 1, 1)),
+                new Opportunity.EmploymentVerification(true, LocalDate.of(2024, 1, 1), "Standard"));
+    }
+}
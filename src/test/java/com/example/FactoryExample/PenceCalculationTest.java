@@ -0,0 +1,88 @@
+package com.example.FactoryExample;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The {@code long} pence calculations against the BigDecimal ones, to the penny, across the whole
+ * Job salary range.
+ */
+class PenceCalculationTest {
+
+    private static final BigDecimal MIN_SALARY = new BigDecimal("18000");
+    private static final BigDecimal MAX_SALARY = new BigDecimal("500000");
+    // Not a round number, so the sweep lands on many different pence values
+    private static final BigDecimal STEP = new BigDecimal("37.13");
+    private static final String[] BAND_EDGES = {"50270", "100000", "125140"};
+    private static final int[] AGES = {18, 29, 30, 45, 50, 64, 65, 80};
+    private static final String[] BALANCES = {"0", "99.99", "100", "2500.50"};
+    private static final List<Tax.TaxDeduction> DEDUCTIONS = List.of(
+            new Tax.TaxDeduction("Pension", new BigDecimal("2000"), true));
+
+    @Test
+    void sweepMatchesBigDecimalToThePenny() {
+        int i = 0;
+        for (BigDecimal salary = MIN_SALARY; salary.compareTo(MAX_SALARY) <= 0; salary = salary.add(STEP)) {
+            assertPenceMatch(opportunity(salary, i++));
+        }
+        assertPenceMatch(opportunity(MAX_SALARY, i));
+    }
+
+    @Test
+    void bandEdgesMatchBigDecimalToThePenny() {
+        int i = 0;
+        for (String edge : BAND_EDGES) {
+            BigDecimal salary = new BigDecimal(edge);
+            for (BigDecimal offset : new BigDecimal[]{new BigDecimal("-0.01"), BigDecimal.ZERO,
+                    new BigDecimal("0.01")}) {
+                for (int variant = 0; variant < 16; variant++) {
+                    assertPenceMatch(opportunity(salary.add(offset), i++));
+                }
+            }
+        }
+    }
+
+    private static void assertPenceMatch(Opportunity opportunity) {
+        String context = opportunity.getJob().getSalary() + " age " + opportunity.getPerson().getAge()
+                + " experience " + opportunity.getJob().getYearsExperience() + " balance "
+                + opportunity.getBank().getBalance() + " dependents " + opportunity.getTax().getDependents();
+        assertEquals(Money.ofPounds(opportunity.calculateMaximumMortgage()),
+                opportunity.calculateMaximumMortgagePence(), "mortgage at " + context);
+        assertEquals(Money.ofPounds(opportunity.calculateMaximumMonthlySpend()),
+                opportunity.calculateMaximumMonthlySpendPence(), "monthly spend at " + context);
+        assertEquals(Money.ofPounds(opportunity.calculateUKTaxPaid()),
+                opportunity.calculateUKTaxPaidPence(), "UK tax at " + context);
+        assertEquals(Money.ofPounds(opportunity.calculateNationalInsurance()),
+                opportunity.calculateNationalInsurancePence(), "National Insurance at " + context);
+    }
+
+    // Varies age, seniority, balance, dependents and deductions independently with i
+    private static Opportunity opportunity(BigDecimal salary, int i) {
+        int age = AGES[i % AGES.length];
+        boolean senior = i / AGES.length % 2 == 1;
+        BigDecimal balance = new BigDecimal(BALANCES[i / 3 % BALANCES.length]);
+        int dependents = i / 5 % 4;
+        boolean deductions = i / 7 % 2 == 1;
+
+        Person person = new Person("Jane", "Doe", age, "jane@example.com", "+441234567890", "AB123456C",
+                new Person.Address("123 Main Street", "London", "SW1A 1AA", "UK"));
+        Job job = new Job(senior ? "Senior Software Engineer" : "Software Engineer", "TechCorp", salary,
+                senior ? 8 : 2, Job.EmploymentType.FULL_TIME, new Job.Department("Engineering", "ENG"),
+                LocalDate.of(2020, 1, 1), new Job.Contract(24, true));
+        Bank bank = new Bank("12345678", "Barclays", balance, Bank.AccountType.CHECKING, "12-34-56",
+                new Bank.CreditScore(700, "Good"), LocalDate.of(2020, 1, 1),
+                new Bank.AccountHolder("Jane Doe", "1973-01-01", "British"));
+        Tax tax = new Tax(salary, Tax.TaxRegion.UK, dependents, deductions, Tax.FilingStatus.SINGLE,
+                deductions ? DEDUCTIONS : Collections.emptyList(), false);
+        return new Opportunity(person, job, bank, tax,
+                new Insurance(Insurance.InsuranceType.BASIC, new BigDecimal("100"), true),
+                new Opportunity.CreditHistory(false, 0, LocalDate.of(2024, 1, 1)),
+                new Opportunity.EmploymentVerification(true, LocalDate.of(2024, 1, 1), "Standard"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.FactoryExample;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keys that share a String hash code and length, and keys crafted to collide under an additive
+ * character hash, still build in bounded time and each map to their own index.
+ */
+class PerfectHashTest {
+
+    // Same hashCode and length, which forces the character hash
+    private static final String SAME_HASH_A = "Aa";
+    private static final String SAME_HASH_B = "BB";
+    // Differ only in the top bit of each four-char block, which cancels in a sum of blocks times an
+    // odd constant whatever the seed
+    private static final String CRAFTED_A = "abcdefgh";
+    private static final String CRAFTED_B = "abc" + (char) ('d' | 0x8000) + "efg" + (char) ('h' | 0x8000);
+
+    @Test
+    void buildsOverCollidingKeys() {
+        List<String> keys = Arrays.asList(SAME_HASH_A, SAME_HASH_B, CRAFTED_A, CRAFTED_B);
+        PerfectHash hash = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> PerfectHash.of(keys));
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, hash.id(keys.get(i)));
+            assertEquals(i, hash.id(new String(keys.get(i).toCharArray())));
+        }
+        assertEquals(-1, hash.id("abcdefgi"));
+        assertEquals(-1, hash.id(""));
+        assertEquals(-1, hash.id(null));
+    }
+
+    @Test
+    void catalogueAcceptsCollidingTitles() {
+        Catalogue catalogue = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> Catalogue.builder()
+                .titles(Arrays.asList(SAME_HASH_A, SAME_HASH_B, CRAFTED_A, CRAFTED_B))
+                .banks(Arrays.asList("Barclays"))
+                .build());
+        assertTrue(catalogue.isTitle(CRAFTED_A));
+        assertTrue(catalogue.isTitle(CRAFTED_B));
+        assertTrue(catalogue.isTitle(SAME_HASH_B));
+    }
+}
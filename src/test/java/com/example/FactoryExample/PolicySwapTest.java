@@ -0,0 +1,141 @@
+package com.example.FactoryExample;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An opportunity assessed before a mortgage table or lending rules swap answers under the new policy
+ * afterwards, on the BigDecimal and pence paths alike.
+ */
+class PolicySwapTest {
+
+    @AfterEach
+    void restoreStandardPolicies() {
+        MortgageMultiplierTable.setCurrent(MortgageMultiplierTable.STANDARD);
+        LendingRules.setCurrent(LendingRules.STANDARD);
+    }
+
+    @Test
+    void mortgageFollowsTableSwapAfterFirstCall() {
+        Opportunity opportunity = opportunity();
+        BigDecimal before = opportunity.calculateMaximumMortgage();
+        assertEquals(Money.ofPounds(before), opportunity.calculateMaximumMortgagePence());
+
+        MortgageMultiplierTable.setCurrent(MortgageMultiplierTable.builder()
+                .baseMultiple(new BigDecimal("3"))
+                .ageFactors(BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE)
+                .build());
+        BigDecimal after = opportunity.calculateMaximumMortgage();
+
+        assertNotEquals(before, after);
+        assertEquals(0, new BigDecimal("135000").compareTo(after));
+        assertEquals(Money.ofPounds(after), opportunity.calculateMaximumMortgagePence());
+    }
+
+    @Test
+    void qualificationFollowsRulesSwapAfterFirstCall() {
+        Opportunity opportunity = opportunity();
+        assertTrue(opportunity.qualifiesForMortgage());
+
+        LendingRules.setCurrent(LendingRules.builder(LendingRules.STANDARD)
+                .mortgageMinimumSalary(new BigDecimal("60000"))
+                .build());
+
+        assertFalse(opportunity.qualifiesForMortgage());
+    }
+
+    @Test
+    void indexQueryFollowsRulesSwap() {
+        EligibilityIndex index = new EligibilityIndex(Collections.singletonList(opportunity()));
+        EligibilityIndex.Query query = EligibilityIndex.Query.qualifiesForMortgage();
+        assertEquals(1, index.count(query));
+
+        LendingRules.setCurrent(LendingRules.builder(LendingRules.STANDARD)
+                .mortgageMinimumSalary(new BigDecimal("60000"))
+                .build());
+        assertEquals(0, index.count(query));
+        assertEquals(1, index.count(query.not()));
+
+        LendingRules.setCurrent(LendingRules.STANDARD);
+        assertEquals(1, index.count(query));
+    }
+
+    @Test
+    void swapKeepsFiguresNoPolicyAffects() {
+        Opportunity opportunity = opportunity();
+        OpportunityAssessment before = opportunity.getAssessment();
+        assertSame(before, opportunity.getAssessment());
+
+        MortgageMultiplierTable.setCurrent(MortgageMultiplierTable.builder()
+                .baseMultiple(new BigDecimal("3"))
+                .ageFactors(BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE)
+                .build());
+        OpportunityAssessment after = opportunity.getAssessment();
+
+        assertFalse(before.isCurrent());
+        assertTrue(after.isCurrent());
+        assertEquals(before.getUKTaxPaid(), after.getUKTaxPaid());
+        assertEquals(before.getNationalInsurance(), after.getNationalInsurance());
+        assertEquals(before.getMaximumMonthlySpend(), after.getMaximumMonthlySpend());
+    }
+
+    @Test
+    void fineGrainedTableKeepsPenceAndBigDecimalInStep() {
+        MortgageMultiplierTable table = MortgageMultiplierTable.builder()
+                .baseMultiple(new BigDecimal("4.5"))
+                .ageFactors(new BigDecimal("1.0125"), new BigDecimal("0.9875"), new BigDecimal("1.0125"))
+                .seniorFactor(new BigDecimal("1.0125"))
+                .minimumBalanceFactor(new BigDecimal("1.0125"))
+                .build();
+        BigDecimal salary = new BigDecimal("100000");
+        assertEquals(0, new BigDecimal("467086.82").compareTo(table.maximumMortgage(salary, 25, true, true)));
+        for (int age : new int[] {25, 40, 60}) {
+            for (int flags = 0; flags < 4; flags++) {
+                boolean senior = (flags & 2) != 0;
+                boolean minimumBalance = (flags & 1) != 0;
+                assertEquals(Money.ofPounds(table.maximumMortgage(salary, age, senior, minimumBalance)),
+                        table.maximumMortgagePence(10_000_000, age, senior, minimumBalance));
+                assertEquals(Money.ofPounds(table.maximumMortgage(new BigDecimal("500000"), age, senior,
+                        minimumBalance)), table.maximumMortgagePence(50_000_000, age, senior, minimumBalance));
+            }
+        }
+
+        MortgageMultiplierTable.setCurrent(table);
+        Opportunity opportunity = opportunity();
+        assertEquals(Money.ofPounds(opportunity.calculateMaximumMortgage()),
+                opportunity.calculateMaximumMortgagePence());
+        long[] mortgage = new OpportunitySweep(opportunity)
+                .salaries(new long[] {4_500_000, 50_000_000}, new OpportunitySweep.Result())
+                .getMaximumMortgagePence();
+        assertEquals(opportunity.calculateMaximumMortgagePence(), mortgage[0]);
+        assertEquals(table.maximumMortgagePence(50_000_000, 35, opportunity.getJob().isSenior(),
+                opportunity.getBank().hasMinimumBalance()), mortgage[1]);
+    }
+
+    private static Opportunity opportunity() {
+        BigDecimal salary = new BigDecimal("45000");
+        Person person = new Person("Jane", "Doe", 35, "jane@example.com", "+441234567890", "AB123456C",
+                new Person.Address("123 Main Street", "London", "SW1A 1AA", "UK"));
+        Job job = new Job("Software Engineer", "TechCorp", salary, 2, Job.EmploymentType.FULL_TIME,
+                new Job.Department("Engineering", "ENG"), LocalDate.of(2020, 1, 1), new Job.Contract(24, true));
+        Bank bank = new Bank("12345678", "Barclays", new BigDecimal("2500"), Bank.AccountType.CHECKING, "12-34-56",
+                new Bank.CreditScore(700, "Good"), LocalDate.of(2020, 1, 1),
+                new Bank.AccountHolder("Jane Doe", "1973-01-01", "British"));
+        Tax tax = new Tax(salary, Tax.TaxRegion.UK, 0, false, Tax.FilingStatus.SINGLE,
+                Collections.emptyList(), false);
+        return new Opportunity(person, job, bank, tax,
+                new Insurance(Insurance.InsuranceType.BASIC, new BigDecimal("100"), true),
+                new Opportunity.CreditHistory(false, 0, LocalDate.of(2024, 1, 1)),
+                new Opportunity.EmploymentVerification(true, LocalDate.of(2024, 1, 1), "Standard"));
+    }
+}
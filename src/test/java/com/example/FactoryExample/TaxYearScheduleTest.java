@@ -0,0 +1,72 @@
+package com.example.FactoryExample;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A schedule with the personal allowance taper against income tax worked out in BigDecimal, penny by
+ * penny across the taper threshold and the income at which the allowance is gone.
+ */
+class TaxYearScheduleTest {
+
+    private static final BigDecimal ALLOWANCE = new BigDecimal("12570");
+    private static final BigDecimal TAPER_THRESHOLD = new BigDecimal("100000");
+    private static final BigDecimal BASIC_BAND = new BigDecimal("37700");
+    private static final BigDecimal HIGHER_BAND = new BigDecimal("125140");
+    private static final BigDecimal BASIC_RATE = new BigDecimal("0.20");
+    private static final BigDecimal HIGHER_RATE = new BigDecimal("0.40");
+    private static final BigDecimal ADDITIONAL_RATE = new BigDecimal("0.45");
+
+    private static final TaxYearSchedule TAPERED = TaxYearSchedule.builder("tapered")
+            .personalAllowance(ALLOWANCE)
+            .personalAllowanceTaper(TAPER_THRESHOLD)
+            .band(BASIC_BAND, BASIC_RATE)
+            .band(HIGHER_BAND, HIGHER_RATE)
+            .additionalRate(ADDITIONAL_RATE)
+            .nationalInsurance(new BigDecimal("12570"), new BigDecimal("50270"), new BigDecimal("0.12"),
+                    new BigDecimal("0.02"))
+            .build();
+
+    @Test
+    void taperMatchesReferenceAroundItsEnds() {
+        for (long centre : new long[] {10_000_000, 12_514_000}) {
+            for (long income = centre - 20_000; income <= centre + 20_000; income++) {
+                assertIncomeTax(income);
+            }
+        }
+    }
+
+    @Test
+    void taperMatchesReferenceAcrossTheBands() {
+        for (long income = 0; income <= 20_000_000; income += 137) {
+            assertIncomeTax(income);
+        }
+    }
+
+    private static void assertIncomeTax(long incomePence) {
+        assertEquals(referenceIncomeTaxPence(incomePence), TAPERED.incomeTaxPence(incomePence, 0, false),
+                "income " + incomePence + "p");
+    }
+
+    private static long referenceIncomeTaxPence(long incomePence) {
+        BigDecimal income = Money.toBigDecimal(incomePence);
+        BigDecimal allowance = ALLOWANCE;
+        if (income.compareTo(TAPER_THRESHOLD) > 0) {
+            allowance = allowance.subtract(income.subtract(TAPER_THRESHOLD).divide(new BigDecimal("2")))
+                    .max(BigDecimal.ZERO);
+        }
+        BigDecimal taxable = income.subtract(allowance).max(BigDecimal.ZERO);
+        BigDecimal tax = taxable.min(BASIC_BAND).multiply(BASIC_RATE);
+        if (taxable.compareTo(BASIC_BAND) > 0) {
+            tax = tax.add(taxable.min(HIGHER_BAND).subtract(BASIC_BAND).multiply(HIGHER_RATE));
+        }
+        if (taxable.compareTo(HIGHER_BAND) > 0) {
+            tax = tax.add(taxable.subtract(HIGHER_BAND).multiply(ADDITIONAL_RATE));
+        }
+        return Money.ofPounds(tax.setScale(2, RoundingMode.HALF_UP));
+    }
+}